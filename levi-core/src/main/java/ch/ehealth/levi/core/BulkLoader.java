@@ -0,0 +1,197 @@
+package ch.ehealth.levi.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads rows into a table with {@code LOAD DATA LOCAL INFILE}.
+ *
+ * <p>
+ * A single {@code LOAD DATA} statement transfers all rows in one round trip
+ * and skips the SQL parsing of multi-row {@code INSERT} statements, which
+ * makes it much faster for the large key sets written to LEVI's temporary
+ * lookup tables. It requires {@code local_infile=ON} on the server.
+ * </p>
+ *
+ * <p>
+ * The rows are written to a short-lived file in a private directory of the
+ * process, which is deleted as soon as it is loaded. {@link ConnectionPool}
+ * restricts local infile access of its connections to that directory with
+ * {@code allowLoadLocalInfileInPath} when {@link Conf#isDbBulkLoad()} is
+ * enabled. Pooled connections also run ordinary queries, and with
+ * {@code allowLoadLocalInfile=true} the server could request any client file
+ * on any of them. Connector/J only reads in-memory streams in that mode, hence
+ * the file.
+ * </p>
+ */
+final class BulkLoader {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkLoader.class);
+
+	/** The server refuses {@code LOAD DATA LOCAL}, e.g. with {@code local_infile=OFF}. */
+	static final int ER_NOT_ALLOWED_COMMAND = 1148;
+
+	/** Loading local data is disabled on the client or on the server. */
+	static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+
+	private static Path directory;
+
+	private BulkLoader() {
+	}
+
+	/**
+	 * Returns the private directory the row files are written to, creating it
+	 * on first use. It is empty whenever no load is running.
+	 *
+	 * @throws IOException if the directory cannot be created
+	 */
+	static synchronized Path directory() throws IOException {
+		if (directory == null) {
+			Path created = Files.createTempDirectory("levi-infile"); // owner-only access on POSIX systems
+			created.toFile().deleteOnExit();
+			directory = created.toRealPath();
+		}
+		return directory;
+	}
+
+	/**
+	 * Returns whether {@code e} means that local infile loading is disabled on
+	 * the client or on the server, as opposed to a failure of this load only.
+	 */
+	static boolean isRefused(SQLException e) {
+		return e.getErrorCode() == ER_NOT_ALLOWED_COMMAND || e.getErrorCode() == ER_CLIENT_LOCAL_FILES_DISABLED;
+	}
+
+	/**
+	 * Loads {@code rows} into {@code table}. Each row must have one value per
+	 * column in {@code columns}; {@code null} values are loaded as SQL NULL.
+	 *
+	 * @return the number of rows loaded
+	 * @throws SQLException if the server or driver rejects the load
+	 */
+	static long load(Connection connection, String table, List<String> columns, Iterable<? extends List<String>> rows)
+			throws SQLException {
+		Path rowDirectory;
+		try {
+			rowDirectory = directory();
+		} catch (IOException e) {
+			throw new SQLException("No directory for LOAD DATA LOCAL INFILE: " + e.getMessage(), "HY000",
+					ER_CLIENT_LOCAL_FILES_DISABLED, e);
+		}
+
+		Path file = null;
+		try {
+			file = Files.createTempFile(rowDirectory, "rows", ".tsv");
+			try (InputStream in = new RowInputStream(rows.iterator())) {
+				Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			String sql = "LOAD DATA LOCAL INFILE '" + file.toString().replace("\\", "\\\\").replace("'", "\\'")
+					+ "' INTO TABLE " + table
+					+ " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ("
+					+ String.join(", ", columns) + ")";
+			try (Statement stmt = connection.createStatement()) {
+				return stmt.executeLargeUpdate(sql);
+			}
+		} catch (IOException e) {
+			throw new SQLException("Could not write rows for LOAD DATA LOCAL INFILE: " + e.getMessage(), e);
+		} finally {
+			if (file != null) {
+				try {
+					Files.deleteIfExists(file);
+				} catch (IOException e) {
+					logger.warn("Could not delete bulk load file {}: {}", file, e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Encodes one row as a tab-separated, newline-terminated line in the
+	 * default {@code LOAD DATA} escaping.
+	 */
+	static byte[] encode(List<String> row) {
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < row.size(); i++) {
+			if (i > 0) {
+				line.append('\t');
+			}
+			String value = row.get(i);
+			if (value == null) {
+				line.append("\\N");
+				continue;
+			}
+			for (int j = 0; j < value.length(); j++) {
+				char c = value.charAt(j);
+				switch (c) {
+				case '\\' -> line.append("\\\\");
+				case '\t' -> line.append("\\t");
+				case '\n' -> line.append("\\n");
+				case '\r' -> line.append("\\r");
+				default -> line.append(c);
+				}
+			}
+		}
+		line.append('\n');
+		return line.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Presents rows as the bytes of a TSV file, encoding one row at a time.
+	 */
+	static final class RowInputStream extends InputStream {
+
+		private final Iterator<? extends List<String>> rows;
+		private byte[] buffer = new byte[0];
+		private int position;
+
+		RowInputStream(Iterator<? extends List<String>> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public int read() {
+			if (!fill()) {
+				return -1;
+			}
+			return buffer[position++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] target, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			int read = 0;
+			while (read < length && fill()) {
+				int n = Math.min(length - read, buffer.length - position);
+				System.arraycopy(buffer, position, target, offset + read, n);
+				position += n;
+				read += n;
+			}
+			return read == 0 ? -1 : read;
+		}
+
+		private boolean fill() {
+			while (position >= buffer.length) {
+				if (!rows.hasNext()) {
+					return false;
+				}
+				buffer = encode(rows.next());
+				position = 0;
+			}
+			return true;
+		}
+	}
+}
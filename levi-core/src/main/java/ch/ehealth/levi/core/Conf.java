@@ -3,8 +3,11 @@ package ch.ehealth.levi.core;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
+import ch.ehealth.levi.core.compare.TermRule;
+
 public class Conf {
 	
 		
@@ -18,11 +21,28 @@ public class Conf {
 	private String USERNAME = "root";
 	private String PASSWORD = "";
 	
+	// Connection pool settings (see ConnectionPool)
+	private int dbPoolSize = 4; // Maximum number of open connections shared by all jobs
+	private int dbPoolIdleTimeoutSeconds = 300; // Idle connections are closed after this time
+	private int dbValidationTimeoutSeconds = 5; // Timeout for checking a pooled connection before reuse
+	private int dbFetchSize = 0; // 0 = buffer whole result, < 0 = stream row by row, > 0 = cursor fetch with this many rows
+	private boolean useSnapshotTables = false; // query materialized snap_* tables instead of the full history; same results
+	private int dbQueryShards = 1; // parallel connections for description lookups; 1 = serial
+	private boolean dbPipelined = false; // load the next batch on a second session while the current one is queried
+	private boolean dbBulkLoad = false; // fill temp tables with LOAD DATA LOCAL INFILE (needs local_infile=ON)
+	private boolean dbSharedExtract = false; // read descriptions once per run and answer all lookups from that extract
+	
 	//default settings
 	private String countryCode = "CH"; // Country code for selecting the local language reference sets
 	private boolean transformEszett = true ;// ture = Eszeet should be changed to "ss" in the translations
 	private boolean regexCheck = true; // true = regex check is performed on the terms in the current file
         private boolean groupingEnabled = true; // true = output files will be grouped into G1-G15 based on the change types of the concepts
+	private int writeThreads = 1; // number of output files written concurrently; 1 = one after another
+	private int compareThreads = 1; // threads comparing new translations with the DB; 1 = sequential comparison
+	private int parseThreads = 1; // threads parsing large TSV input files; 1 = OpenCSV on one thread
+	private boolean fhirStreaming = false; // true = FHIR ValueSets are streamed with Jackson instead of parsed with HAPI
+	private String inputCacheDir = ""; // directory caching parsed input files between runs; empty = no cache
+	private Map<String, List<TermRule>> termRules = Collections.emptyMap(); // additional term checks per language code ("*" = all languages)
 	
 	
 	
@@ -107,6 +127,30 @@ public class Conf {
     public void setGroupingEnabled(boolean groupingEnabled) {
         this.groupingEnabled = groupingEnabled;
     }
+
+    public void setWriteThreads(int writeThreads) {
+        this.writeThreads = writeThreads;
+    }
+
+    public void setCompareThreads(int compareThreads) {
+        this.compareThreads = compareThreads;
+    }
+
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public void setFhirStreaming(boolean fhirStreaming) {
+        this.fhirStreaming = fhirStreaming;
+    }
+
+    public void setInputCacheDir(String inputCacheDir) {
+        this.inputCacheDir = inputCacheDir;
+    }
+
+    public void setTermRules(Map<String, List<TermRule>> termRules) {
+        this.termRules = termRules == null ? Collections.emptyMap() : termRules;
+    }
     
     public void setDbUrl(String serverUrl) {
 		this.SERVER_URL = serverUrl;
@@ -120,6 +164,42 @@ public class Conf {
 		this.PASSWORD = password;
 	}
     
+    public void setDbPoolSize(int dbPoolSize) {
+		this.dbPoolSize = dbPoolSize;
+	}
+    
+    public void setDbPoolIdleTimeoutSeconds(int dbPoolIdleTimeoutSeconds) {
+		this.dbPoolIdleTimeoutSeconds = dbPoolIdleTimeoutSeconds;
+	}
+    
+    public void setDbValidationTimeoutSeconds(int dbValidationTimeoutSeconds) {
+		this.dbValidationTimeoutSeconds = dbValidationTimeoutSeconds;
+	}
+    
+    public void setDbFetchSize(int dbFetchSize) {
+		this.dbFetchSize = dbFetchSize;
+	}
+
+    public void setUseSnapshotTables(boolean useSnapshotTables) {
+		this.useSnapshotTables = useSnapshotTables;
+	}
+
+    public void setDbQueryShards(int dbQueryShards) {
+		this.dbQueryShards = dbQueryShards;
+	}
+
+    public void setDbPipelined(boolean dbPipelined) {
+		this.dbPipelined = dbPipelined;
+	}
+
+    public void setDbBulkLoad(boolean dbBulkLoad) {
+		this.dbBulkLoad = dbBulkLoad;
+	}
+
+    public void setDbSharedExtract(boolean dbSharedExtract) {
+		this.dbSharedExtract = dbSharedExtract;
+	}
+    
     private Map<String, String> getLanguageRefSets(String countryCode) {
         return countryToLanguageRefSets.getOrDefault(countryCode.toUpperCase(), Collections.emptyMap());
     }
@@ -140,6 +220,49 @@ public class Conf {
 		return PASSWORD;
 	}
     
+    public int getDbPoolSize() {
+		return dbPoolSize;
+	}
+    
+    public int getDbPoolIdleTimeoutSeconds() {
+		return dbPoolIdleTimeoutSeconds;
+	}
+    
+    public int getDbValidationTimeoutSeconds() {
+		return dbValidationTimeoutSeconds;
+	}
+    
+    public int getDbFetchSize() {
+		return dbFetchSize;
+	}
+
+    public boolean isUseSnapshotTables() {
+		return useSnapshotTables;
+	}
+
+    public int getDbQueryShards() {
+		return dbQueryShards;
+	}
+
+    public boolean isDbPipelined() {
+		return dbPipelined;
+	}
+
+    public boolean isDbBulkLoad() {
+		return dbBulkLoad;
+	}
+
+    /**
+     * Whether descriptions are read once per run and all lookups are answered
+     * from that extract. The extract holds the same rows as the per-lookup
+     * queries; only inactivation terms are compared in Java, ignoring case and
+     * accents and with ß equal to ss like MySQL's default collation, which can
+     * differ from databases with another collation.
+     */
+    public boolean isDbSharedExtract() {
+		return dbSharedExtract;
+	}
+    
     public String getFilePathCurrent() {
 		return this.filePathCurrent;
 	}
@@ -184,4 +307,28 @@ public class Conf {
                 return groupingEnabled;
         }
 
+        public int getWriteThreads() {
+                return writeThreads;
+        }
+
+        public int getCompareThreads() {
+                return compareThreads;
+        }
+
+        public int getParseThreads() {
+                return parseThreads;
+        }
+
+        public boolean isFhirStreaming() {
+                return fhirStreaming;
+        }
+
+        public String getInputCacheDir() {
+                return inputCacheDir;
+        }
+
+        public Map<String, List<TermRule>> getTermRules() {
+                return termRules;
+        }
+
 }
@@ -0,0 +1,304 @@
+package ch.ehealth.levi.core;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small process-wide JDBC connection pool shared by {@link DbConnection} and
+ * the GUI.
+ *
+ * <p>
+ * One pool exists per database URL, user name, fetch mode and bulk-load
+ * setting. Borrowed connections are validated with
+ * {@link Connection#isValid(int)} before they are handed out,
+ * connections that stay idle longer than the configured idle timeout are
+ * closed by a background sweep, and at most {@link Conf#getDbPoolSize()}
+ * connections are open at the same time. Chained jobs and repeated status
+ * checks therefore reuse an open session instead of paying for a new TCP,
+ * TLS and authentication handshake each time.
+ * </p>
+ *
+ * <p>
+ * Temporary tables are session-scoped in MySQL; callers must keep dropping
+ * them with {@code DROP TEMPORARY TABLE IF EXISTS} before creating them, as
+ * {@link DbConnection} already does.
+ * </p>
+ */
+public final class ConnectionPool {
+
+	private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+	/** Maximum time a caller waits for a free connection. */
+	private static final long BORROW_TIMEOUT_SECONDS = 60;
+
+	private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+	private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "levi-db-pool-evictor");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/** Opens a new physical connection; replaced in tests. */
+	interface ConnectionFactory {
+		Connection open() throws SQLException;
+	}
+
+	private static final class IdleConnection {
+		final Connection connection;
+		final long idleSince;
+
+		IdleConnection(Connection connection, long idleSince) {
+			this.connection = connection;
+			this.idleSince = idleSince;
+		}
+	}
+
+	private final ConnectionFactory factory;
+	private final int maxSize;
+	private final long idleTimeoutMillis;
+	private final int validationTimeoutSeconds;
+	private final Semaphore permits;
+	private final Deque<IdleConnection> idle = new ArrayDeque<>();
+	private boolean closed;
+	private ScheduledFuture<?> eviction; // background sweep of idle connections, null if none
+
+	ConnectionPool(ConnectionFactory factory, int maxSize, long idleTimeoutMillis, int validationTimeoutSeconds) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("pool size must be >= 1, got: " + maxSize);
+		}
+		this.factory = factory;
+		this.maxSize = maxSize;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.permits = new Semaphore(maxSize, true);
+	}
+
+	/**
+	 * Returns the shared pool for the database configured in {@code conf},
+	 * creating it on first use.
+	 */
+	public static ConnectionPool forConf(Conf conf) {
+		return POOLS.computeIfAbsent(keyOf(conf), k -> {
+			logger.info("Creating connection pool (size {}) for {}", conf.getDbPoolSize(), conf.getSERVER_URL());
+			Properties props = connectionProperties(conf);
+			ConnectionPool pool = new ConnectionPool(
+					() -> DriverManager.getConnection(conf.getSERVER_URL(), props),
+					conf.getDbPoolSize(), TimeUnit.SECONDS.toMillis(conf.getDbPoolIdleTimeoutSeconds()),
+					conf.getDbValidationTimeoutSeconds());
+			pool.scheduleEviction();
+			return pool;
+		});
+	}
+
+	/**
+	 * Makes {@code pool} the shared pool for the database configured in
+	 * {@code conf}; used by tests to run {@link DbConnection} on mocked
+	 * connections.
+	 */
+	static void register(Conf conf, ConnectionPool pool) {
+		POOLS.put(keyOf(conf), pool);
+	}
+
+	private static String keyOf(Conf conf) {
+		return conf.getSERVER_URL() + "|" + conf.getUSERNAME() + "|" + conf.getPASSWORD().hashCode()
+				+ (conf.getDbFetchSize() > 0 ? "|cursor" : "") + (conf.isDbBulkLoad() ? "|infile" : "");
+	}
+
+	/**
+	 * Returns the driver properties of the connections opened for {@code conf}.
+	 */
+	static Properties connectionProperties(Conf conf) {
+		Properties props = new Properties();
+		props.setProperty("user", conf.getUSERNAME());
+		props.setProperty("password", conf.getPASSWORD());
+		if (conf.getDbFetchSize() > 0) {
+			// Positive fetch sizes are only honoured by Connector/J with server-side cursors
+			props.setProperty("useCursorFetch", "true");
+		}
+		if (conf.isDbBulkLoad()) {
+			// The server may request client files on any statement of a connection; only
+			// allow the private directory BulkLoader writes its row files to
+			try {
+				props.setProperty("allowLoadLocalInfileInPath", BulkLoader.directory().toString());
+			} catch (IOException e) {
+				logger.warn("Bulk loading is not available: {}", e.getMessage());
+			}
+		}
+		return props;
+	}
+
+	/**
+	 * Closes every pool and all idle connections. Called on application shutdown.
+	 */
+	public static void shutdownAll() {
+		for (ConnectionPool pool : POOLS.values()) {
+			pool.close();
+		}
+		POOLS.clear();
+	}
+
+	/**
+	 * Borrows a connection, reusing a validated idle one when available. Every
+	 * borrowed connection must be handed back with {@link #release(Connection)}.
+	 *
+	 * @throws SQLException if no connection can be opened or none becomes free in time
+	 */
+	public Connection borrow() throws SQLException {
+		try {
+			if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				throw new SQLException("Timed out waiting for a free database connection (pool size " + maxSize + ")");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+
+		try {
+			IdleConnection candidate;
+			while ((candidate = pollIdle()) != null) {
+				if (isUsable(candidate)) {
+					return candidate.connection;
+				}
+				closeQuietly(candidate.connection);
+			}
+			return factory.open();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool. Broken connections are closed
+	 * instead of being kept.
+	 */
+	public void release(Connection connection) {
+		if (connection == null) {
+			return;
+		}
+		try {
+			boolean reusable = !connection.isClosed();
+			if (reusable && !connection.getAutoCommit()) {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
+			synchronized (this) {
+				if (reusable && !closed) {
+					idle.push(new IdleConnection(connection, System.currentTimeMillis()));
+					return;
+				}
+			}
+			closeQuietly(connection);
+		} catch (SQLException e) {
+			logger.warn("Discarding pooled connection: {}", e.getMessage());
+			closeQuietly(connection);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes a borrowed connection instead of returning it to the pool, e.g.
+	 * because a statement may still be running on it.
+	 */
+	public void discard(Connection connection) {
+		if (connection == null) {
+			return;
+		}
+		try {
+			closeQuietly(connection);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes idle connections that have not been used within the idle timeout.
+	 */
+	void evictIdle() {
+		long now = System.currentTimeMillis();
+		synchronized (this) {
+			Iterator<IdleConnection> it = idle.iterator();
+			while (it.hasNext()) {
+				IdleConnection entry = it.next();
+				if (now - entry.idleSince >= idleTimeoutMillis) {
+					it.remove();
+					closeQuietly(entry.connection);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes all idle connections and stops the background sweep; connections
+	 * still borrowed are closed when they are released.
+	 */
+	public void close() {
+		synchronized (this) {
+			closed = true;
+			if (eviction != null) {
+				eviction.cancel(false);
+				eviction = null;
+			}
+			for (IdleConnection entry : idle) {
+				closeQuietly(entry.connection);
+			}
+			idle.clear();
+		}
+	}
+
+	/** Whether the background sweep of idle connections is scheduled. */
+	synchronized boolean isEvictionScheduled() {
+		return eviction != null && !eviction.isDone();
+	}
+
+	/** Number of connections currently kept open and idle. */
+	synchronized int idleCount() {
+		return idle.size();
+	}
+
+	private synchronized IdleConnection pollIdle() {
+		return idle.poll(); // most recently used first
+	}
+
+	private boolean isUsable(IdleConnection candidate) {
+		if (System.currentTimeMillis() - candidate.idleSince >= idleTimeoutMillis) {
+			return false;
+		}
+		try {
+			return candidate.connection.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private synchronized void scheduleEviction() {
+		long period = Math.max(1000, idleTimeoutMillis / 2);
+		eviction = EVICTOR.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	private static void closeQuietly(Connection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			logger.error("Failed to close connection: {}", e.getMessage());
+		}
+	}
+}
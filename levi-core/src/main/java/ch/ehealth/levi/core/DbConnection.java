@@ -2,6 +2,11 @@ package ch.ehealth.levi.core;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -22,7 +27,7 @@ import ch.ehealth.levi.core.export.ResultCollector;
  * <p>
  * This class provides methods to:
  * <ul>
- * <li>Connect and disconnect from the database.</li>
+ * <li>Borrow and return pooled database connections.</li>
  * <li>Search translations by language.</li>
  * <li>Handle specific linguistic features, such as terms containing "ß".</li>
  * <li>Batch-process large sets of IDs for efficient querying.</li>
@@ -36,6 +41,18 @@ public class DbConnection {
 
 	private static final Logger logger = LoggerFactory.getLogger(DbConnection.class);
 
+	/** Number of (term, conceptId, languageCode) pairs looked up per query. */
+	private static final int DESCRIPTION_BATCH_SIZE = 10_000;
+
+	/** Number of concept IDs per batch when translations are looked up pipelined. */
+	private static final int TRANSLATION_BATCH_SIZE = 5000;
+
+	/** Set once LOAD DATA LOCAL INFILE was refused as disabled; later loads use batch inserts. */
+	static volatile boolean bulkLoadUnavailable;
+
+	/** Maximum time to wait for a running batch load when a pipelined run ends. */
+	private static final long BORROW_LOADER_TIMEOUT_SECONDS = 60;
+
 	// JDBC driver and connection settings
 	private Connection connection;
 	private ResultCollector resultCollector;
@@ -47,28 +64,189 @@ public class DbConnection {
 	}
 
 	/**
-	 * Opens a new database connection.
+	 * Borrows a connection from the shared {@link ConnectionPool}.
 	 *
 	 * @throws SQLException           If a database access error occurs.
 	 * @throws ClassNotFoundException If the JDBC driver class is not found.
 	 */
 	public void connect() throws SQLException, ClassNotFoundException {
-		connection = DriverManager.getConnection(conf.getSERVER_URL(), conf.getUSERNAME(), conf.getPASSWORD());
+		connection = ConnectionPool.forConf(conf).borrow();
 	}
 
 	/**
-	 * Closes the active database connection.
+	 * Returns the active connection to the pool.
 	 */
 	public void disconnect() {
 		if (connection != null) {
+			ConnectionPool.forConf(conf).release(connection);
+			connection = null;
+		}
+	}
+
+	/**
+	 * Creates a forward-only, read-only statement with the configured fetch mode
+	 * applied (see {@link Conf#getDbFetchSize()}). With streaming or cursor
+	 * fetching, rows are processed while the rest of the result is still being
+	 * transferred, and the full result set is never buffered on the client.
+	 */
+	private Statement createQueryStatement() throws SQLException {
+		return createQueryStatement(connection);
+	}
+
+	private Statement createQueryStatement(Connection session) throws SQLException {
+		Statement stmt = session.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		applyFetchSize(stmt);
+		return stmt;
+	}
+
+	private PreparedStatement prepareQueryStatement(String sql) throws SQLException {
+		return prepareQueryStatement(connection, sql);
+	}
+
+	private PreparedStatement prepareQueryStatement(Connection session, String sql) throws SQLException {
+		PreparedStatement ps = session.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY);
+		applyFetchSize(ps);
+		return ps;
+	}
+
+	/** One step of a pipelined run, executed on one of the two sessions. */
+	@FunctionalInterface
+	interface SessionStep {
+		void run(Connection session) throws SQLException;
+	}
+
+	/** Loads one batch into the temp table of a session. */
+	@FunctionalInterface
+	interface BatchLoad<T> {
+		void run(Connection session, List<T> batch) throws SQLException;
+	}
+
+	/**
+	 * Returns whether a batched lookup of {@code batches} batches should run
+	 * pipelined (see {@link Conf#isDbPipelined()}). Pipelining needs two pooled
+	 * connections and at least two batches to overlap.
+	 */
+	private boolean usePipeline(int batches) {
+		return conf.isDbPipelined() && batches > 1 && conf.getDbPoolSize() >= 2;
+	}
+
+	/**
+	 * Runs a batched temp-table lookup on two sessions with their own temp
+	 * tables (double buffering): while batch k is queried and mapped on one
+	 * session, batch k+1 is already being loaded into the other session by a
+	 * loader thread. Queries and result mapping stay on the calling thread and
+	 * run in batch order, so the collector receives the same rows as a serial
+	 * run. If a load is still running when the run ends, e.g. after a failed
+	 * query, both sessions are discarded instead of returned to the pool.
+	 *
+	 * @param items     the keys to look up
+	 * @param batchSize number of keys per batch
+	 * @param setup     creates the (empty) temp tables of a session
+	 * @param load      replaces the temp table content of a session with a batch
+	 * @param query     queries a loaded session and maps its results
+	 * @param cleanup   drops the temp tables of a session
+	 */
+	<T> void runPipelined(List<T> items, int batchSize, SessionStep setup, BatchLoad<T> load,
+			SessionStep query, SessionStep cleanup) throws SQLException {
+		ConnectionPool pool = ConnectionPool.forConf(conf);
+		Connection[] sessions = new Connection[2];
+		ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "levi-db-loader");
+			t.setDaemon(true);
+			return t;
+		});
+		int totalBatches = (int) Math.ceil((double) items.size() / batchSize);
+		try {
+			for (int i = 0; i < sessions.length; i++) {
+				sessions[i] = pool.borrow();
+				setup.run(sessions[i]);
+			}
+
+			Future<?> pending = submitLoad(loader, load, sessions[0], batchOf(items, 0, batchSize));
+			for (int k = 0; k < totalBatches; k++) {
+				awaitLoad(pending);
+				pending = k + 1 < totalBatches
+						? submitLoad(loader, load, sessions[(k + 1) % 2], batchOf(items, k + 1, batchSize))
+						: null;
+				logger.info("Processing pipelined batch {}/{}...", k + 1, totalBatches);
+				query.run(sessions[k % 2]);
+			}
+
+			for (Connection session : sessions) {
+				cleanup.run(session);
+			}
+		} finally {
+			loader.shutdownNow();
+			boolean loaderDone = false;
 			try {
-				connection.close();
-			} catch (SQLException e) {
-				logger.error("Failed to close connection: {}", e.getMessage());
+				loaderDone = loader.awaitTermination(BORROW_LOADER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (Connection session : sessions) {
+				if (loaderDone) {
+					pool.release(session);
+				} else {
+					// A session must not go back to the pool while a load still uses it
+					pool.discard(session);
+				}
 			}
 		}
 	}
 
+	private static <T> List<T> batchOf(List<T> items, int index, int batchSize) {
+		return items.subList(index * batchSize, Math.min((index + 1) * batchSize, items.size()));
+	}
+
+	private static <T> Future<?> submitLoad(ExecutorService loader, BatchLoad<T> load, Connection session,
+			List<T> batch) {
+		return loader.submit(() -> {
+			load.run(session, batch);
+			return null;
+		});
+	}
+
+	private static void awaitLoad(Future<?> pending) throws SQLException {
+		try {
+			pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while loading a batch", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException sqlException) {
+				throw sqlException;
+			}
+			throw new SQLException("Loading a batch failed: " + cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * Returns whether queries should read the materialized snapshot tables (see
+	 * {@link SnapshotBuilder}). The snapshots are built or refreshed on first use,
+	 * on a connection of its own: callers must not hold a pooled connection
+	 * while calling this, or a small pool runs out of connections.
+	 */
+	private boolean useSnapshotTables() throws SQLException {
+		if (!conf.isUseSnapshotTables()) {
+			return false;
+		}
+		new SnapshotBuilder(conf).ensureCurrent();
+		return true;
+	}
+
+	private void applyFetchSize(Statement stmt) throws SQLException {
+		int fetchSize = conf.getDbFetchSize();
+		if (fetchSize < 0) {
+			// MySQL Connector/J streams row by row for this fetch size
+			stmt.setFetchSize(Integer.MIN_VALUE);
+		} else if (fetchSize > 0) {
+			// Server-side cursor; the pool opens connections with useCursorFetch=true
+			stmt.setFetchSize(fetchSize);
+		}
+	}
+
 	/**
 	 * Searches for translations in the specified language, processes the results,
 	 * and populates the `translated` list in the Compare class.
@@ -81,8 +259,6 @@ public class DbConnection {
 	 *                                      provided
 	 */
 	public void searchTranslations(Set<String> conceptIDs) throws SQLException, UnsupportedEncodingException, ClassNotFoundException {
-		connect();
-
 		Set<String> languages = conf.getLocalLanguages();
 		List<String> refSetIds = new ArrayList<>();
 		for (String lang : languages) {
@@ -96,7 +272,23 @@ public class DbConnection {
 		            .map(l -> "'" + l + "'")
 		            .collect(Collectors.joining(","));
 
-		try (Statement stmt = connection.createStatement()) {
+		// Per-batch queries only pay off against the indexed snapshot tables; the
+		// full-history query re-aggregates the language refset for every batch.
+		int batches = (int) Math.ceil((double) conceptIDs.size() / TRANSLATION_BATCH_SIZE);
+		boolean snapshots = useSnapshotTables();
+		if (usePipeline(batches) && snapshots) {
+			String query = descriptionStateQuery(true, langPlaceholders, refSetPlaceholder);
+			runPipelined(new ArrayList<>(conceptIDs), TRANSLATION_BATCH_SIZE, DbConnection::createConceptIdTable,
+					this::loadConceptIds, session -> {
+						try (Statement stmt = createQueryStatement(session); ResultSet rs = stmt.executeQuery(query)) {
+							processTranslationResultSet("additions", rs);
+						}
+					}, DbConnection::dropConceptIdTable);
+			return;
+		}
+
+		connect();
+		try (Statement stmt = createQueryStatement()) {
 
 			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
 			stmt.execute("""
@@ -105,88 +297,14 @@ public class DbConnection {
 					    )
 					""");
 
-			int batchSize = 5000;
-			List<String> idList = new ArrayList<>(conceptIDs);
-			for (int i = 0; i < idList.size(); i += batchSize) {
-				List<String> batch = idList.subList(i, Math.min(i + batchSize, idList.size()));
-				StringBuilder insertSql = new StringBuilder("INSERT INTO temp_concept_ids VALUES ");
-				for (int j = 0; j < batch.size(); j++) {
-					insertSql.append("('").append(batch.get(j)).append("')");
-					if (j < batch.size() - 1)
-						insertSql.append(",");
-				}
-				stmt.execute(insertSql.toString());
-			}
+			insertConceptIds(connection, new ArrayList<>(conceptIDs));
 
 			// MySQL does not allow the same TEMPORARY TABLE to be opened more than once
 			// in a single query. Create a copy for the concept sub-join.
 			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids_copy");
 			stmt.execute("CREATE TEMPORARY TABLE temp_concept_ids_copy SELECT * FROM temp_concept_ids");
 
-			String query = """
-			        SELECT
-			            d.id,
-			            d.conceptId,
-			            d.term,
-			            d.languageCode,
-			            d.typeId,
-			            d.caseSignificanceId,
-			            d.effectiveTime,
-			            d.active AS descriptionActive,
-			            c.active AS conceptActive,
-			            l.acceptabilityId
-			        FROM (
-			            SELECT fd1.*
-			            FROM full_description fd1
-			            INNER JOIN (
-			                SELECT
-			                    fd2.id,
-			                    fd2.conceptId,
-			                    fd2.languageCode,
-			                    fd2.term,
-			                    MAX(fd2.effectiveTime) AS max_time
-			                FROM full_description fd2
-			                INNER JOIN temp_concept_ids t ON fd2.conceptId = t.conceptId
-			                GROUP BY fd2.id, fd2.conceptId, fd2.languageCode, fd2.term
-			            ) latest_d
-			              ON fd1.conceptId     = latest_d.conceptId
-			             AND fd1.languageCode  = latest_d.languageCode
-			             AND fd1.term          = latest_d.term
-			             AND fd1.id            = latest_d.id
-			             AND fd1.effectiveTime = latest_d.max_time
-			            WHERE fd1.languageCode IN (
-			        """ + langPlaceholders + """
-			            )
-			        ) d
-			        LEFT JOIN (
-			            SELECT fc1.*
-			            FROM full_concept fc1
-			            INNER JOIN (
-			                SELECT fc2.id, MAX(fc2.effectiveTime) AS max_time
-			                FROM full_concept fc2
-			                INNER JOIN temp_concept_ids_copy t ON fc2.id = t.conceptId
-			                GROUP BY fc2.id
-			            ) latest_c
-			              ON fc1.id = latest_c.id
-			             AND fc1.effectiveTime = latest_c.max_time
-			        ) c ON d.conceptId = c.id
-			        LEFT JOIN (
-			            SELECT l1.referencedComponentId, l1.acceptabilityId, l1.refsetId
-			            FROM full_refset_Language l1
-			            INNER JOIN (
-			                SELECT referencedComponentId, refsetId, MAX(effectiveTime) AS max_time
-			                FROM full_refset_Language
-			                WHERE refsetId IN (
-			        """ + refSetPlaceholder + """
-			                )
-			                GROUP BY referencedComponentId, refsetId
-			            ) latest_l
-			              ON l1.referencedComponentId = latest_l.referencedComponentId
-			             AND l1.refsetId             = latest_l.refsetId
-			             AND l1.effectiveTime        = latest_l.max_time
-			            GROUP BY l1.referencedComponentId, l1.refsetId, l1.acceptabilityId
-			        ) l ON d.id = l.referencedComponentId
-			        """;
+			String query = descriptionStateQuery(snapshots, langPlaceholders, refSetPlaceholder);
 
 			try (ResultSet rs = stmt.executeQuery(query)) {
 				processTranslationResultSet("additions", rs);
@@ -194,8 +312,184 @@ public class DbConnection {
 
 			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
 			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids_copy");
+		} finally {
+			disconnect();
+		}
+	}
+
+	/**
+	 * Returns the query for the latest version of every term the descriptions of
+	 * the concepts in {@code temp_concept_ids} had, with the latest status of
+	 * their concept and their latest acceptability in the given language
+	 * reference sets. The full-history variant also needs
+	 * {@code temp_concept_ids_copy}.
+	 *
+	 * @param snapshots         whether to read the snapshot tables
+	 * @param langPlaceholders  the languages to read, or {@code null} for all
+	 * @param refSetPlaceholder the language reference sets to join
+	 */
+	private static String descriptionStateQuery(boolean snapshots, String langPlaceholders, String refSetPlaceholder) {
+		String columns = """
+		        SELECT
+		            d.id,
+		            d.conceptId,
+		            d.term,
+		            d.languageCode,
+		            d.typeId,
+		            d.caseSignificanceId,
+		            d.effectiveTime,
+		            d.active AS descriptionActive,
+		            c.active AS conceptActive,
+		            l.acceptabilityId
+		        """;
+		if (snapshots) {
+			return columns + """
+			        FROM snap_description_terms d
+			        INNER JOIN temp_concept_ids t ON d.conceptId = t.conceptId
+			        LEFT JOIN snap_concept c ON d.conceptId = c.id
+			        LEFT JOIN snap_refset_Language l
+			          ON d.id = l.referencedComponentId
+			         AND l.refsetId IN (
+			        """ + refSetPlaceholder + """
+			         )
+			        """ + (langPlaceholders == null ? "" : "WHERE d.languageCode IN (" + langPlaceholders + ")\n");
+		}
+
+		return columns + """
+		        FROM (
+		            SELECT fd1.*
+		            FROM full_description fd1
+		            INNER JOIN (
+		                SELECT
+		                    fd2.id,
+		                    fd2.conceptId,
+		                    fd2.languageCode,
+		                    fd2.term,
+		                    MAX(fd2.effectiveTime) AS max_time
+		                FROM full_description fd2
+		                INNER JOIN temp_concept_ids t ON fd2.conceptId = t.conceptId
+		                GROUP BY fd2.id, fd2.conceptId, fd2.languageCode, fd2.term
+		            ) latest_d
+		              ON fd1.conceptId     = latest_d.conceptId
+		             AND fd1.languageCode  = latest_d.languageCode
+		             AND fd1.term          = latest_d.term
+		             AND fd1.id            = latest_d.id
+		             AND fd1.effectiveTime = latest_d.max_time
+		        """ + (langPlaceholders == null ? "" : "    WHERE fd1.languageCode IN (" + langPlaceholders + ")\n") + """
+		        ) d
+		        LEFT JOIN (
+		            SELECT fc1.*
+		            FROM full_concept fc1
+		            INNER JOIN (
+		                SELECT fc2.id, MAX(fc2.effectiveTime) AS max_time
+		                FROM full_concept fc2
+		                INNER JOIN temp_concept_ids_copy t ON fc2.id = t.conceptId
+		                GROUP BY fc2.id
+		            ) latest_c
+		              ON fc1.id = latest_c.id
+		             AND fc1.effectiveTime = latest_c.max_time
+		        ) c ON d.conceptId = c.id
+		        LEFT JOIN (
+		            SELECT l1.referencedComponentId, l1.acceptabilityId, l1.refsetId
+		            FROM full_refset_Language l1
+		            INNER JOIN (
+		                SELECT referencedComponentId, refsetId, MAX(effectiveTime) AS max_time
+		                FROM full_refset_Language
+		                WHERE refsetId IN (
+		        """ + refSetPlaceholder + """
+		                )
+		                GROUP BY referencedComponentId, refsetId
+		            ) latest_l
+		              ON l1.referencedComponentId = latest_l.referencedComponentId
+		             AND l1.refsetId             = latest_l.refsetId
+		             AND l1.effectiveTime        = latest_l.max_time
+		            GROUP BY l1.referencedComponentId, l1.refsetId, l1.acceptabilityId
+		        ) l ON d.id = l.referencedComponentId
+		        """;
+	}
+
+	private static void createConceptIdTable(Connection session) throws SQLException {
+		try (Statement stmt = session.createStatement()) {
+			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
+			stmt.execute("""
+					    CREATE TEMPORARY TABLE temp_concept_ids (
+					        conceptId VARCHAR(20) PRIMARY KEY
+					    )
+					""");
+		}
+	}
+
+	/**
+	 * Replaces the content of {@code temp_concept_ids} with the given batch.
+	 */
+	private void loadConceptIds(Connection session, List<String> batch) throws SQLException {
+		try (Statement stmt = session.createStatement()) {
+			stmt.execute("TRUNCATE TABLE temp_concept_ids");
+		}
+		insertConceptIds(session, batch);
+	}
+
+	/**
+	 * Fills {@code temp_concept_ids} with the given IDs, with a single
+	 * {@code LOAD DATA LOCAL INFILE} when bulk loading is enabled and
+	 * otherwise with multi-row inserts of 5000 IDs each.
+	 */
+	private void insertConceptIds(Connection session, List<String> ids) throws SQLException {
+		if (bulkLoad(session, "temp_concept_ids", List.of("conceptId"),
+				() -> ids.stream().map(List::of).iterator())) {
+			return;
+		}
+
+		try (Statement stmt = session.createStatement()) {
+			int batchSize = 5000;
+			for (int i = 0; i < ids.size(); i += batchSize) {
+				List<String> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+				StringBuilder insertSql = new StringBuilder("INSERT INTO temp_concept_ids VALUES ");
+				for (int j = 0; j < batch.size(); j++) {
+					insertSql.append("('").append(batch.get(j)).append("')");
+					if (j < batch.size() - 1)
+						insertSql.append(",");
+				}
+				stmt.execute(insertSql.toString());
+			}
+		}
+	}
+
+	/**
+	 * Loads rows with {@link BulkLoader} if {@link Conf#isDbBulkLoad()} is set.
+	 * Returns {@code false} if the caller has to insert the rows itself, either
+	 * because bulk loading is disabled or because the load failed; the table is
+	 * then left empty. Only if local infile loading is disabled (e.g.
+	 * {@code local_infile=OFF}) is bulk loading not tried again in this process.
+	 */
+	boolean bulkLoad(Connection session, String table, List<String> columns,
+			Iterable<? extends List<String>> rows) throws SQLException {
+		if (!conf.isDbBulkLoad() || bulkLoadUnavailable) {
+			return false;
+		}
+		try {
+			long loaded = BulkLoader.load(session, table, columns, rows);
+			logger.debug("Bulk loaded {} rows into {}", loaded, table);
+			return true;
+		} catch (SQLException e) {
+			if (BulkLoader.isRefused(e)) {
+				bulkLoadUnavailable = true;
+				logger.warn("LOAD DATA LOCAL INFILE is not available ({}); falling back to batch inserts.",
+						e.getMessage());
+			} else {
+				logger.warn("Bulk load into {} failed ({}); inserting these rows instead.", table, e.getMessage());
+			}
+			try (Statement stmt = session.createStatement()) {
+				stmt.execute("TRUNCATE TABLE " + table);
+			}
+			return false;
+		}
+	}
+
+	private static void dropConceptIdTable(Connection session) throws SQLException {
+		try (Statement stmt = session.createStatement()) {
+			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
 		}
-		disconnect();
 	}
 
 	/**
@@ -209,9 +503,10 @@ public class DbConnection {
 	 */
 	public void getOverviewOfTranslationsDB(Set<String> conceptIDs)
 	        throws SQLException, ClassNotFoundException, UnsupportedEncodingException {
+	    boolean snapshots = useSnapshotTables();
 	    connect();
 
-	    try (Statement stmt = connection.createStatement()) {
+	    try (Statement stmt = createQueryStatement()) {
 	        stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
 	        stmt.execute("""
 	            CREATE TEMPORARY TABLE temp_concept_ids (
@@ -219,18 +514,7 @@ public class DbConnection {
 	            )
 	        """);
 
-	        // Batch insert
-	        int batchSize = 5000;
-	        List<String> idList = new ArrayList<>(conceptIDs);
-	        for (int i = 0; i < idList.size(); i += batchSize) {
-	            List<String> batch = idList.subList(i, Math.min(i + batchSize, idList.size()));
-	            StringBuilder insertSql = new StringBuilder("INSERT INTO temp_concept_ids VALUES ");
-	            for (int j = 0; j < batch.size(); j++) {
-	                insertSql.append("('").append(batch.get(j)).append("')");
-	                if (j < batch.size() - 1) insertSql.append(",");
-	            }
-	            stmt.execute(insertSql.toString());
-	        }
+	        insertConceptIds(connection, new ArrayList<>(conceptIDs));
 
 	        String query = """
 	            SELECT
@@ -253,13 +537,89 @@ public class DbConnection {
 	            WHERE fd.active = 1
 	        """;
 
+	        if (snapshots) {
+	            query = """
+	                SELECT
+	                    fc.active AS conceptActive,
+	                    fd.conceptId,
+	                    fd.id,
+	                    fd.typeId,
+	                    fd.term,
+	                    fd.languageCode,
+	                    fd.caseSignificanceId,
+	                    fd.active AS descriptionActive
+	                FROM snap_concept fc
+	                INNER JOIN temp_concept_ids t ON fc.id = t.conceptId
+	                INNER JOIN full_description fd ON fc.id = fd.conceptId
+	                WHERE fd.active = 1
+	            """;
+	        }
+
 	        try (ResultSet rs = stmt.executeQuery(query)) {
 	            processTranslationResultSet("overview", rs);
 	        }
 
 	        stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
+	    } finally {
+	        disconnect();
 	    }
-	    disconnect();
+	}
+
+	/**
+	 * Reads the latest state of all descriptions of the given concepts in one
+	 * pass: the latest version of each term a description had, in any language,
+	 * as {@link #searchTranslations(Set)} reads them, the latest status of its
+	 * concept and its latest acceptability in each local language
+	 * reference set. The translation, overview and inactivation lookups can
+	 * then be answered from the returned extract (see
+	 * {@link Conf#isDbSharedExtract()}).
+	 *
+	 * @param conceptIDs the concepts of all loaded inputs
+	 * @throws SQLException           if a database access error occurs
+	 * @throws ClassNotFoundException if the JDBC driver is not found
+	 */
+	public DescriptionExtract extractDescriptions(Set<String> conceptIDs) throws SQLException, ClassNotFoundException {
+		DescriptionExtract extract = new DescriptionExtract(conceptIDs);
+
+		List<String> refSetIds = new ArrayList<>();
+		for (String lang : conf.getLocalLanguages()) {
+			String id = conf.getLanguageRefSetId(lang);
+			if (id != null)
+				refSetIds.add("'" + id + "'");
+		}
+		String refSetPlaceholder = refSetIds.isEmpty() ? "''" : String.join(",", refSetIds);
+
+		// Resolved before the connection is borrowed (see useSnapshotTables())
+		boolean snapshots = useSnapshotTables();
+		String query = descriptionStateQuery(snapshots, null, refSetPlaceholder);
+
+		logger.info("Extracting descriptions of {} concepts from the database...", conceptIDs.size());
+		connect();
+		try (Statement stmt = createQueryStatement()) {
+			createConceptIdTable(connection);
+			insertConceptIds(connection, new ArrayList<>(conceptIDs));
+
+			// MySQL does not allow the same TEMPORARY TABLE to be opened more than once
+			// in a single query. Create a copy for the concept sub-join.
+			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids_copy");
+			stmt.execute("CREATE TEMPORARY TABLE temp_concept_ids_copy SELECT * FROM temp_concept_ids");
+
+			try (ResultSet rs = stmt.executeQuery(query)) {
+				while (rs.next()) {
+					extract.add(rs.getString("id"), rs.getString("conceptId"), rs.getString("term"),
+							rs.getString("languageCode"), rs.getString("typeId"), rs.getString("caseSignificanceId"),
+							rs.getString("effectiveTime"), rs.getString("descriptionActive"),
+							rs.getString("conceptActive"), rs.getString("acceptabilityId"));
+				}
+			}
+
+			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids");
+			stmt.execute("DROP TEMPORARY TABLE IF EXISTS temp_concept_ids_copy");
+		} finally {
+			disconnect();
+		}
+		logger.info("Description extract read: {} rows.", extract.size());
+		return extract;
 	}
 
 	/**
@@ -280,10 +640,111 @@ public class DbConnection {
 	        termConceptPairs.add(Triple.of(term, conceptId, languageCode));
 	    }
 
+	    // Resolved before any connection is borrowed (see useSnapshotTables())
+	    String query = descriptionPairsQuery();
+
+	    int batches = (int) Math.ceil((double) termConceptPairs.size() / DESCRIPTION_BATCH_SIZE);
+	    int shards = Math.min(Math.min(conf.getDbQueryShards(), conf.getDbPoolSize()), batches);
+	    if (shards > 1) {
+	        searchDescriptionsSharded(termConceptPairs, shards, query);
+	        return;
+	    }
+
+	    if (usePipeline(batches)) {
+	        runPipelined(termConceptPairs, DESCRIPTION_BATCH_SIZE, this::createPairsTable, this::loadPairs,
+	                session -> queryPairs(session, query), DbConnection::dropPairsTable);
+	        return;
+	    }
+
 	    connect();
+	    try {
+	        searchDescriptionPairs(termConceptPairs, query, "");
+	    } finally {
+	        disconnect();
+	    }
+	}
+
+	/**
+	 * Splits the pairs into {@code shards} contiguous ranges and looks them up
+	 * concurrently, each shard on its own pooled connection and session-scoped
+	 * {@code tmp_pairs} table. Shard results are collected separately and merged
+	 * in shard order, so the collector receives the same rows in the same order
+	 * as a serial run. All shards run the same {@code query}.
+	 */
+	private void searchDescriptionsSharded(List<Triple<String, String, String>> termConceptPairs, int shards,
+	        String query) throws SQLException {
+	    int shardSize = (int) Math.ceil((double) termConceptPairs.size() / shards);
+	    logger.info("Searching {} descriptions in {} parallel shards...", termConceptPairs.size(), shards);
+
+	    ExecutorService executor = Executors.newFixedThreadPool(shards, r -> {
+	        Thread t = new Thread(r, "levi-db-shard");
+	        t.setDaemon(true);
+	        return t;
+	    });
+	    try {
+	        List<Future<ResultCollector>> futures = new ArrayList<>(shards);
+	        for (int shard = 0; shard < shards; shard++) {
+	            List<Triple<String, String, String>> range = termConceptPairs.subList(
+	                    Math.min(shard * shardSize, termConceptPairs.size()),
+	                    Math.min((shard + 1) * shardSize, termConceptPairs.size()));
+	            String label = "shard " + (shard + 1) + "/" + shards + ", ";
+	            futures.add(executor.submit(() -> {
+	                ResultCollector shardCollector = new ResultCollector();
+	                DbConnection shardConnection = new DbConnection(shardCollector, conf);
+	                shardConnection.connect();
+	                try {
+	                    shardConnection.searchDescriptionPairs(range, query, label);
+	                } finally {
+	                    shardConnection.disconnect();
+	                }
+	                return shardCollector;
+	            }));
+	        }
+
+	        for (Future<ResultCollector> future : futures) {
+	            resultCollector.mergeFrom(future.get());
+	        }
+	    } catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
+	        throw new SQLException("Interrupted while searching descriptions", e);
+	    } catch (ExecutionException e) {
+	        Throwable cause = e.getCause();
+	        if (cause instanceof SQLException sqlException) {
+	            throw sqlException;
+	        }
+	        throw new SQLException("Description shard failed: " + cause.getMessage(), cause);
+	    } finally {
+	        executor.shutdownNow();
+	    }
+	}
+
+	/**
+	 * Looks up the given pairs batch by batch on the current connection with
+	 * {@code query} (see {@link #descriptionPairsQuery()}).
+	 */
+	private void searchDescriptionPairs(List<Triple<String, String, String>> termConceptPairs, String query,
+	        String label) throws SQLException {
+	    createPairsTable(connection);
+
+	    int batchSize = DESCRIPTION_BATCH_SIZE;
+	    int totalBatches = (int) Math.ceil((double) termConceptPairs.size() / batchSize);
+
+	    for (int i = 0; i < termConceptPairs.size(); i += batchSize) {
+	        int batchNumber = (i / batchSize) + 1;
+	        List<Triple<String, String, String>> batch =
+	            termConceptPairs.subList(i, Math.min(i + batchSize, termConceptPairs.size()));
+
+	        loadPairs(connection, batch);
+
+	        logger.info("Processing translation result set for {}batch {}/{}...", label, batchNumber, totalBatches);
+	        queryPairs(connection, query);
+	    }
 
-	    // Create TEMP TABLE once
-	    try (Statement stmt = connection.createStatement()) {
+	    dropPairsTable(connection);
+	}
+
+	private void createPairsTable(Connection session) throws SQLException {
+	    try (Statement stmt = session.createStatement()) {
 	        stmt.execute("DROP TEMPORARY TABLE IF EXISTS tmp_pairs");
 	        stmt.execute("""
 	            CREATE TEMPORARY TABLE tmp_pairs (
@@ -294,8 +755,53 @@ public class DbConnection {
 	            ) ENGINE=InnoDB
 	        """);
 	    }
+	}
+
+	/**
+	 * Replaces the content of {@code tmp_pairs} with the given batch.
+	 */
+	private void loadPairs(Connection session, List<Triple<String, String, String>> batch) throws SQLException {
+	    try (Statement stmt = session.createStatement()) {
+	        stmt.execute("TRUNCATE TABLE tmp_pairs");
+	    }
+
+	    if (bulkLoad(session, "tmp_pairs", List.of("term", "conceptId", "languageCode"),
+	            () -> batch.stream()
+	                    .map(pair -> Arrays.asList(pair.getLeft(), pair.getMiddle(), pair.getRight()))
+	                    .iterator())) {
+	        return;
+	    }
+
+	    try (PreparedStatement ps = session.prepareStatement(
+	            "INSERT INTO tmp_pairs (term, conceptId, languageCode) VALUES (?, ?, ?)")) {
+	        for (Triple<String, String, String> pair : batch) {
+	            ps.setString(1, pair.getLeft());
+	            ps.setString(2, pair.getMiddle());
+	            ps.setString(3, pair.getRight());
+	            ps.addBatch();
+	        }
+	        ps.executeBatch();
+	    }
+	}
+
+	private void queryPairs(Connection session, String query) throws SQLException {
+	    try (PreparedStatement ps = prepareQueryStatement(session, query);
+	         ResultSet rs = ps.executeQuery()) {
+	        processTranslationResultSet("inactivations", rs);
+	    }
+	}
 
+	private static void dropPairsTable(Connection session) throws SQLException {
+	    try (Statement stmt = session.createStatement()) {
+	        stmt.execute("DROP TEMPORARY TABLE IF EXISTS tmp_pairs");
+	    }
+	}
 
+	/**
+	 * Returns the ranked lookup of the pairs in {@code tmp_pairs}: the most
+	 * recent version of each (conceptId, term, languageCode), if active.
+	 */
+	private String descriptionPairsQuery() throws SQLException {
 	    String query = """
 		        SELECT id, term, conceptId, active, languageCode
 			    FROM (
@@ -318,47 +824,31 @@ public class DbConnection {
 			    WHERE rn = 1 AND active = 1
 		    """;
 
-	    String insertPair = "INSERT INTO tmp_pairs (term, conceptId, languageCode) VALUES (?, ?, ?)";
-	    String truncate   = "TRUNCATE TABLE tmp_pairs";
-
-	    int batchSize = 10_000;
-	    int totalBatches = (int) Math.ceil((double) termConceptPairs.size() / batchSize);
-
-	    for (int i = 0; i < termConceptPairs.size(); i += batchSize) {
-	        int batchNumber = (i / batchSize) + 1;
-	        List<Triple<String, String, String>> batch =
-	            termConceptPairs.subList(i, Math.min(i + batchSize, termConceptPairs.size()));
-
-	        // Clear tmp_pairs for this batch
-	        try (Statement stmt = connection.createStatement()) {
-	            stmt.execute(truncate);
-	        }
-
-	        // Insert current batch
-	        try (PreparedStatement ps = connection.prepareStatement(insertPair)) {
-	            for (Triple<String, String, String> pair : batch) {
-	                ps.setString(1, pair.getLeft());
-	                ps.setString(2, pair.getMiddle());
-	                ps.setString(3, pair.getRight());
-	                ps.addBatch();
-	            }
-	            ps.executeBatch();
-	        }
-
-	        // Execute query for this batch
-	        try (PreparedStatement ps = connection.prepareStatement(query);
-	             ResultSet rs = ps.executeQuery()) {
-	            logger.info("Processing translation result set for batch {}/{}...", batchNumber, totalBatches);
-	            processTranslationResultSet("inactivations", rs);
-	        }
-	    }
-
-	    // Cleanup
-	    try (Statement stmt = connection.createStatement()) {
-	        stmt.execute("DROP TEMPORARY TABLE IF EXISTS tmp_pairs");
+	    if (useSnapshotTables()) {
+	        // Several description IDs or versions may carry the same term; keep the most recent one
+	        query = """
+	            SELECT id, term, conceptId, active, languageCode
+	            FROM (
+	                SELECT sd.id,
+	                       sd.term,
+	                       sd.conceptId,
+	                       sd.active,
+	                       sd.languageCode,
+	                       ROW_NUMBER() OVER (
+	                           PARTITION BY sd.conceptId, sd.term, sd.languageCode
+	                           ORDER BY sd.effectiveTime DESC
+	                       ) AS rn
+	                FROM snap_description_terms sd
+	                INNER JOIN tmp_pairs tp
+	                    ON sd.conceptId     = tp.conceptId
+	                   AND sd.languageCode  = tp.languageCode
+	                   AND sd.term          = tp.term
+	            ) ranked
+	            WHERE rn = 1 AND active = 1
+	        """;
 	    }
 
-	    disconnect();
+	    return query;
 	}
 
 
@@ -372,7 +862,6 @@ public class DbConnection {
 	 */
 	public void searchEszett() throws SQLException, ClassNotFoundException, UnsupportedEncodingException {
 
-		connect();
 		String query = """
 				    SELECT
 				        fd.id,
@@ -403,11 +892,46 @@ public class DbConnection {
 				      AND fd.active = 1
 				""";
 
+		if (useSnapshotTables()) {
+			query = """
+					    SELECT
+					        fd.id,
+					        fd.active AS descriptionActive,
+					        fd.conceptId,
+					        fd.typeId,
+					        fd.term,
+					        fd.caseSignificanceId,
+					        fr.acceptabilityId
+					    FROM snap_description_terms fd
+					    INNER JOIN (
+					        SELECT
+					            conceptId,
+					            term,
+					            languageCode,
+					            MAX(CAST(effectiveTime AS UNSIGNED)) AS max_effectiveTime
+					        FROM snap_description_terms
+					        WHERE languageCode = 'de'
+					        GROUP BY conceptId, term, languageCode
+					    ) latest
+					      ON fd.conceptId = latest.conceptId
+					     AND fd.term = latest.term
+					     AND fd.languageCode = latest.languageCode
+					     AND CAST(fd.effectiveTime AS UNSIGNED) = latest.max_effectiveTime
+					    INNER JOIN full_refset_Language fr
+					      ON fd.id = fr.referencedComponentId
+					    WHERE fd.languageCode = 'de'
+					      AND fd.term REGEXP 'ß'
+					      AND fd.active = 1
+					""";
+		}
+
 		logger.info("Eszett check: Starting with query...");
-		try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+		connect();
+		try (Statement stmt = createQueryStatement(); ResultSet rs = stmt.executeQuery(query)) {
 			processTranslationResultSet("searchEszett", rs);
+		} finally {
+			disconnect();
 		}
-		disconnect();
 	}
 
 	/**
@@ -496,8 +1020,6 @@ public class DbConnection {
 	 * @throws ClassNotFoundException if the JDBC driver is not found
 	 */
 	public void searchDuplicateTerms() throws SQLException, ClassNotFoundException {
-		connect();
-
 		String query = """
 				SELECT
 				    d1.conceptId,
@@ -544,8 +1066,57 @@ public class DbConnection {
 				WHERE d1.languageCode IN ('de', 'fr', 'it')
 				""";
 
+		if (useSnapshotTables()) {
+			query = """
+					SELECT
+					    d1.conceptId,
+					    d1.id,
+					    d1.languageCode,
+					    d1.typeId,
+					    d1.term,
+					    d2.typeId,
+					    d2.languageCode,
+					    d2.id,
+					    d2.conceptId,
+					    CASE WHEN d1.conceptId = d2.conceptId THEN 'true' ELSE 'false' END AS sameConcept
+					FROM (
+					    SELECT sd1.*
+					    FROM snap_description_terms sd1
+					    INNER JOIN (
+					        SELECT conceptId, languageCode, term, MAX(effectiveTime) AS max_time
+					        FROM snap_description_terms
+					        GROUP BY conceptId, languageCode, term
+					    ) latest
+					      ON sd1.conceptId     = latest.conceptId
+					     AND sd1.languageCode  = latest.languageCode
+					     AND sd1.term          = latest.term
+					     AND sd1.effectiveTime = latest.max_time
+					    WHERE sd1.active = 1
+					) d1
+					JOIN (
+					    SELECT sd2.*
+					    FROM snap_description_terms sd2
+					    INNER JOIN (
+					        SELECT conceptId, languageCode, term, MAX(effectiveTime) AS max_time
+					        FROM snap_description_terms
+					        GROUP BY conceptId, languageCode, term
+					    ) latest
+					      ON sd2.conceptId     = latest.conceptId
+					     AND sd2.languageCode  = latest.languageCode
+					     AND sd2.term          = latest.term
+					     AND sd2.effectiveTime = latest.max_time
+					    WHERE sd2.active = 1
+					) d2
+					  ON d1.term          = d2.term
+					 AND d1.languageCode  = d2.languageCode
+					 AND d1.id            < d2.id
+					WHERE d1.languageCode IN ('de', 'fr', 'it')
+					""";
+		}
+
 		logger.info("Duplicate term check: Starting query...");
-		try (Statement stmt = connection.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+		connect();
+		try (Statement stmt = createQueryStatement(); ResultSet rs = stmt.executeQuery(query)) {
 			while (rs.next()) {
 				resultCollector.setDuplicateTerm(rs.getString("d1.conceptId"), // conceptId1
 						rs.getString("d1.id"), // descriptionId1
@@ -559,9 +1130,10 @@ public class DbConnection {
 						rs.getString("sameConcept") // sameConcept
 				);
 			}
+		} finally {
+			disconnect();
 		}
-		logger.info("Duplicate term check: Found {} entries.", resultCollector.getDataByType("DUPLICATE_TERM").size());
-		disconnect();
+		logger.info("Duplicate term check: Found {} entries.", resultCollector.countByType("DUPLICATE_TERM"));
 	}
 
 	/**
@@ -584,72 +1156,14 @@ public class DbConnection {
 	 *           (String): Indicates the acceptability of the term in the given
 	 *           language.
 	 * 
+	 *           Rows are read by column index through a
+	 *           {@link TranslationRowMapper} compiled once per result set.
+	 * 
 	 * @throws SQLException If an error occurs while accessing the `ResultSet`
 	 *                      object.
 	 */
 	private void processTranslationResultSet(String resultSetType, ResultSet rs) throws SQLException {
-
-		ResultSetMetaData metaData = rs.getMetaData();
-		int columnCount = metaData.getColumnCount();
-		Set<String> availableColumns = new HashSet<>();
-
-		for (int i = 1; i <= columnCount; i++) {
-			availableColumns.add(metaData.getColumnLabel(i).toLowerCase());
-		}
-
-		while (rs.next()) {
-			String descriptionId = getSafe(rs, "id", availableColumns);
-			String conceptId = getSafe(rs, "conceptId", availableColumns);
-			String conceptStatus = getSafe(rs, "conceptActive", availableColumns);
-			String descriptionStatus = getSafe(rs, "descriptionActive", availableColumns);
-			String term = getSafe(rs, "term", availableColumns);
-			String languageCode = getSafe(rs, "languageCode", availableColumns);
-			String caseSignificance = getSafe(rs, "caseSignificanceId", availableColumns);
-			String type = getSafe(rs, "typeId", availableColumns);
-			String acceptabilityId = getSafe(rs, "acceptabilityId", availableColumns);
-			String languageReferenceSet = conf.getLanguageRefSetId(languageCode);
-
-			switch (resultSetType) {
-			case "additions":
-				resultCollector.setFullExtensionTranslation(conceptId, conceptStatus, "", "", term, languageCode,
-						caseSignificance, type, languageReferenceSet, acceptabilityId, descriptionId,
-						descriptionStatus);
-				break;
-
-			case "overview":
-				resultCollector.setFullExtensionTranslation(conceptId, conceptStatus, "", // FSN placeholder
-						"", // Preferred Term placeholder
-						term, languageCode, caseSignificance, type, // Type placeholder
-						languageReferenceSet, // Language Reference Set placeholder
-						acceptabilityId, // Acceptability ID placeholder
-						descriptionId, // Description ID placeholder
-						descriptionStatus); // Description Status placeholder
-
-				resultCollector.setFullTranslationOverview(conceptId, term, type, languageCode, conceptStatus);
-				break;
-
-			case "inactivations":
-				resultCollector.setFullExtensionInactivations(descriptionId, languageCode, conceptId, "", // Preferred
-																											// Term
-																											// placeholder
-						term, "", // Inactivation Reason placeholder
-						"", // Association Target ID 1 placeholder
-						"", // Association Target ID 2 placeholder
-						"", // Association Target ID 3 placeholder
-						"", // Association Target ID 4 placeholder
-						""); // Notes placeholder
-				break;
-
-			case "searchEszett":
-				resultCollector.setFullExtensionTranslation(conceptId, conceptStatus, "", "", term, languageCode,
-						caseSignificance, type, languageReferenceSet, acceptabilityId, descriptionId,
-						descriptionStatus);
-				break;
-
-			default:
-				logger.warn("Unhandled result set type: {}", resultSetType);
-			}
-		}
+		TranslationRowMapper.compile(resultSetType, rs.getMetaData(), resultCollector, conf).mapAll(rs);
 	}
 
 	public boolean hasColumn(ResultSet rs, String columnName) throws SQLException {
@@ -664,8 +1178,4 @@ public class DbConnection {
 		return false;
 	}
 
-	private String getSafe(ResultSet rs, String columnName, Set<String> availableColumns) throws SQLException {
-		return availableColumns.contains(columnName.toLowerCase()) ? rs.getString(columnName) : null;
-	}
-
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package ch.ehealth.levi.core;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+
+/**
+ * The latest state of all descriptions of a set of concepts, read from the
+ * database in one pass (see {@link DbConnection#extractDescriptions(Set)}).
+ *
+ * <p>
+ * Each row is the latest version of one term a description had, as
+ * {@link DbConnection#searchTranslations(Set)} reads them, with the latest
+ * status of its concept and, per local language reference set, its latest
+ * acceptability. The translation, overview and inactivation lookups of the
+ * comparison are answered from these rows instead of querying
+ * {@code full_description} once per lookup. The extract is not changed after
+ * it was read, so it can be shared by several comparisons.
+ * </p>
+ */
+public class DescriptionExtract {
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+	private final Set<String> conceptIds;
+	private final List<Description> rows = new ArrayList<>();
+	private Map<List<String>, Description> latestByTerm; // (conceptId, folded term, language) → most recent description
+	private List<Description> latestById; // most recent version of each description
+
+	/** One description, joined with one language reference set row, if any. */
+	private static final class Description {
+
+		private final String id;
+		private final String conceptId;
+		private final String term;
+		private final String languageCode;
+		private final String typeId;
+		private final String caseSignificanceId;
+		private final String effectiveTime;
+		private final String descriptionActive;
+		private final String conceptActive;
+		private final String acceptabilityId;
+
+		Description(String id, String conceptId, String term, String languageCode, String typeId,
+				String caseSignificanceId, String effectiveTime, String descriptionActive, String conceptActive,
+				String acceptabilityId) {
+			this.id = id;
+			this.conceptId = conceptId;
+			this.term = term;
+			this.languageCode = languageCode;
+			this.typeId = typeId;
+			this.caseSignificanceId = caseSignificanceId;
+			this.effectiveTime = effectiveTime;
+			this.descriptionActive = descriptionActive;
+			this.conceptActive = conceptActive;
+			this.acceptabilityId = acceptabilityId;
+		}
+	}
+
+	/**
+	 * @param conceptIds the concepts whose descriptions the extract holds
+	 */
+	DescriptionExtract(Set<String> conceptIds) {
+		this.conceptIds = Set.copyOf(conceptIds);
+	}
+
+	void add(String id, String conceptId, String term, String languageCode, String typeId, String caseSignificanceId,
+			String effectiveTime, String descriptionActive, String conceptActive, String acceptabilityId) {
+		rows.add(new Description(id, conceptId, term, languageCode, typeId, caseSignificanceId, effectiveTime,
+				descriptionActive, conceptActive, acceptabilityId));
+		latestByTerm = null;
+		latestById = null;
+	}
+
+	/**
+	 * Returns an extract of the concepts of this extract and of {@code other}.
+	 * Neither extract is changed.
+	 */
+	public DescriptionExtract union(DescriptionExtract other) {
+		Set<String> union = new HashSet<>(conceptIds);
+		union.addAll(other.conceptIds);
+		DescriptionExtract extract = new DescriptionExtract(union);
+		extract.rows.addAll(rows);
+		extract.rows.addAll(other.rows);
+		return extract;
+	}
+
+	/**
+	 * Returns an extract of the descriptions of those of {@code conceptIds} that
+	 * this extract holds, so that the lookups only report these concepts.
+	 */
+	public DescriptionExtract restrictTo(Set<String> conceptIds) {
+		Set<String> kept = new HashSet<>(conceptIds);
+		kept.retainAll(this.conceptIds);
+		DescriptionExtract extract = new DescriptionExtract(kept);
+		for (Description d : rows) {
+			if (kept.contains(d.conceptId)) {
+				extract.rows.add(d);
+			}
+		}
+		return extract;
+	}
+
+	/**
+	 * Returns the concepts whose descriptions the extract holds.
+	 */
+	public Set<String> getConceptIds() {
+		return conceptIds;
+	}
+
+	public int size() {
+		return rows.size();
+	}
+
+	/**
+	 * Adds the descriptions of the local languages as EXTENSION_TRANSLATION
+	 * entries, one per language reference set row, as
+	 * {@link DbConnection#searchTranslations(Set)} does.
+	 */
+	public void addTranslations(ResultCollector target, Conf conf) {
+		Set<String> languages = new HashSet<>();
+		for (String language : conf.getLocalLanguages()) {
+			languages.add(language.toLowerCase(Locale.ROOT));
+		}
+		Map<String, String> refSetByLanguage = new HashMap<>();
+		for (Description d : rows) {
+			if (d.languageCode == null || !languages.contains(d.languageCode.toLowerCase(Locale.ROOT))) {
+				continue;
+			}
+			String refSet = refSetByLanguage.computeIfAbsent(d.languageCode, conf::getLanguageRefSetId);
+			target.setFullExtensionTranslation(d.conceptId, d.conceptActive, "", "", d.term, d.languageCode,
+					d.caseSignificanceId, d.typeId, refSet, d.acceptabilityId, d.id, d.descriptionActive);
+		}
+	}
+
+	/**
+	 * Adds every description of a known concept whose most recent version is
+	 * active once, with its current term, as EXTENSION_TRANSLATION and
+	 * TRANSLATION_OVERVIEW entries, like
+	 * {@link DbConnection#getOverviewOfTranslationsDB(Set)}.
+	 */
+	public void addOverview(ResultCollector target, Conf conf) {
+		Map<String, String> refSetByLanguage = new HashMap<>();
+		for (Description d : latestById()) {
+			if (!isActive(d.descriptionActive) || d.conceptActive == null) {
+				continue;
+			}
+			String refSet = d.languageCode == null ? null
+					: refSetByLanguage.computeIfAbsent(d.languageCode, conf::getLanguageRefSetId);
+			target.setFullExtensionTranslation(d.conceptId, d.conceptActive, "", "", d.term, d.languageCode,
+					d.caseSignificanceId, d.typeId, refSet, null, d.id, d.descriptionActive);
+			target.setFullTranslationOverview(d.conceptId, d.term, d.typeId, d.languageCode, d.conceptActive);
+		}
+	}
+
+	/**
+	 * Looks up the (term, language code, concept ID) of each inactivation row
+	 * (columns 1–3) and adds the most recent description version with that
+	 * term as an EXTENSION_INACTIVATION entry if it is active, as
+	 * {@link DbConnection#searchDescriptions(List)} does. Terms are compared
+	 * like MySQL's default {@code utf8mb4_0900_ai_ci} collation at primary
+	 * strength: ignoring case and accents, with ß equal to ss. Databases with
+	 * another collation may match terms differently in the database.
+	 */
+	public void addInactivations(List<List<String>> inactivations, ResultCollector target) {
+		Map<List<String>, Description> latest = latestByTerm();
+		for (List<String> row : inactivations) {
+			Description d = latest.get(termKey(row.get(3), row.get(1), row.get(2)));
+			if (d != null && isActive(d.descriptionActive)) {
+				target.setFullExtensionInactivations(d.id, d.languageCode, d.conceptId, "", d.term, "", "", "", "", "",
+						"");
+			}
+		}
+	}
+
+	private synchronized Map<List<String>, Description> latestByTerm() {
+		if (latestByTerm == null) {
+			Map<List<String>, Description> latest = new HashMap<>();
+			for (Description d : rows) {
+				latest.merge(termKey(d.conceptId, d.term, d.languageCode), d,
+						(current, candidate) -> compare(candidate.effectiveTime, current.effectiveTime) > 0 ? candidate
+								: current);
+			}
+			latestByTerm = latest;
+		}
+		return latestByTerm;
+	}
+
+	private synchronized List<Description> latestById() {
+		if (latestById == null) {
+			Map<String, Description> latest = new LinkedHashMap<>();
+			for (Description d : rows) {
+				latest.merge(d.id, d,
+						(current, candidate) -> compare(candidate.effectiveTime, current.effectiveTime) > 0 ? candidate
+								: current);
+			}
+			latestById = new ArrayList<>(latest.values());
+		}
+		return latestById;
+	}
+
+	private static List<String> termKey(String conceptId, String term, String languageCode) {
+		return Arrays.asList(conceptId, term == null ? null : fold(term),
+				languageCode == null ? null : languageCode.toLowerCase(Locale.ROOT));
+	}
+
+	/** Folds case, accents and ß, so that terms equal under the collation get the same key. */
+	static String fold(String term) {
+		String decomposed = Normalizer.normalize(term.toLowerCase(Locale.ROOT).replace("ß", "ss"), Normalizer.Form.NFD);
+		return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+	}
+
+	private static int compare(String a, String b) {
+		if (a == null || b == null) {
+			return a == null ? (b == null ? 0 : -1) : 1;
+		}
+		return a.compareTo(b);
+	}
+
+	private static boolean isActive(String value) {
+		return "1".equals(value) || "true".equalsIgnoreCase(value);
+	}
+}
@@ -0,0 +1,269 @@
+package ch.ehealth.levi.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Materializes indexed "latest snapshot" tables from the RF2 full tables so
+ * that {@link DbConnection} does not have to resolve the current version of
+ * every row with {@code MAX(effectiveTime)} sub-queries on each run.
+ *
+ * <p>
+ * The following tables are built:
+ * </p>
+ * <ul>
+ * <li>{@code snap_description_terms} – latest row of every term a
+ * description had, i.e. of every (id, conceptId, languageCode, term)</li>
+ * <li>{@code snap_concept} – latest row of every concept ID</li>
+ * <li>{@code snap_refset_Language} – latest acceptability of every
+ * (referencedComponentId, refsetId) pair</li>
+ * </ul>
+ *
+ * <p>
+ * The row count and highest effective time of each source table are recorded
+ * in {@code levi_snapshot_info}. The snapshots are only rebuilt when these
+ * differ, i.e. once per imported release. A rebuild is written to
+ * {@code *_new} tables first and swapped in with a single {@code RENAME TABLE},
+ * so readers never see a half-built snapshot.
+ * </p>
+ *
+ * <p>
+ * The snapshots keep the rows the full-history queries of
+ * {@link DbConnection} pick: those resolve the latest version per term (and
+ * per concept, term and language across IDs), which a table holding only
+ * the latest row per description ID could not answer for renamed
+ * descriptions.
+ * </p>
+ */
+public class SnapshotBuilder {
+
+	private static final Logger logger = LoggerFactory.getLogger(SnapshotBuilder.class);
+
+	public static final String SNAP_DESCRIPTION_TERMS = "snap_description_terms";
+	public static final String SNAP_CONCEPT = "snap_concept";
+	public static final String SNAP_LANGUAGE = "snap_refset_Language";
+
+	private static final String INFO_TABLE = "levi_snapshot_info";
+
+	/** Databases whose snapshots were already verified in this process. */
+	private static final Set<String> VERIFIED = ConcurrentHashMap.newKeySet();
+
+	private static final Map<String, String> SOURCE_TABLES = Map.of(
+			SNAP_DESCRIPTION_TERMS, "full_description",
+			SNAP_CONCEPT, "full_concept",
+			SNAP_LANGUAGE, "full_refset_Language");
+
+	private final Conf conf;
+
+	public SnapshotBuilder(Conf conf) {
+		this.conf = conf;
+	}
+
+	/**
+	 * Makes sure the snapshot tables match the full tables, rebuilding them if
+	 * needed. The check runs at most once per database and process.
+	 *
+	 * @throws SQLException if a database access error occurs
+	 */
+	public void ensureCurrent() throws SQLException {
+		if (VERIFIED.contains(conf.getSERVER_URL())) {
+			return;
+		}
+		synchronized (SnapshotBuilder.class) {
+			if (VERIFIED.contains(conf.getSERVER_URL())) {
+				return;
+			}
+			ConnectionPool pool = ConnectionPool.forConf(conf);
+			Connection connection = pool.borrow();
+			try {
+				createInfoTable(connection);
+				boolean stale = false;
+				for (Map.Entry<String, String> entry : SOURCE_TABLES.entrySet()) {
+					if (!isCurrent(connection, entry.getKey(), entry.getValue())) {
+						stale = true;
+						break;
+					}
+				}
+				if (stale) {
+					build(connection);
+				} else {
+					logger.info("Snapshot tables are up to date.");
+				}
+			} finally {
+				pool.release(connection);
+			}
+			VERIFIED.add(conf.getSERVER_URL());
+		}
+	}
+
+	/**
+	 * Rebuilds all snapshot tables unconditionally, e.g. after a new release was
+	 * imported into the same database while the application was running.
+	 *
+	 * @throws SQLException if a database access error occurs
+	 */
+	public void rebuild() throws SQLException {
+		synchronized (SnapshotBuilder.class) {
+			ConnectionPool pool = ConnectionPool.forConf(conf);
+			Connection connection = pool.borrow();
+			try {
+				createInfoTable(connection);
+				build(connection);
+			} finally {
+				pool.release(connection);
+			}
+			VERIFIED.add(conf.getSERVER_URL());
+		}
+	}
+
+	private void build(Connection connection) throws SQLException {
+		logger.info("Building snapshot tables from full tables...");
+		long start = System.currentTimeMillis();
+
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("DROP TABLE IF EXISTS snap_description_terms_new");
+			stmt.execute("""
+					CREATE TABLE snap_description_terms_new AS
+					SELECT fd.*
+					FROM full_description fd
+					INNER JOIN (
+					    SELECT id, conceptId, languageCode, term, MAX(effectiveTime) AS max_time
+					    FROM full_description
+					    GROUP BY id, conceptId, languageCode, term
+					) latest
+					  ON fd.id            = latest.id
+					 AND fd.conceptId     = latest.conceptId
+					 AND fd.languageCode  = latest.languageCode
+					 AND fd.term          = latest.term
+					 AND fd.effectiveTime = latest.max_time
+					""");
+			stmt.execute("""
+					ALTER TABLE snap_description_terms_new
+					    ADD INDEX idx_snap_desc_id (id),
+					    ADD INDEX idx_snap_desc_concept_lang_term (conceptId, languageCode, term(200)),
+					    ADD INDEX idx_snap_desc_lang_term (languageCode, term(200))
+					""");
+			logger.info("Snapshot: {} built.", SNAP_DESCRIPTION_TERMS);
+
+			stmt.execute("DROP TABLE IF EXISTS snap_concept_new");
+			stmt.execute("""
+					CREATE TABLE snap_concept_new AS
+					SELECT fc.*
+					FROM full_concept fc
+					INNER JOIN (
+					    SELECT id, MAX(effectiveTime) AS max_time
+					    FROM full_concept
+					    GROUP BY id
+					) latest
+					  ON fc.id = latest.id
+					 AND fc.effectiveTime = latest.max_time
+					""");
+			stmt.execute("ALTER TABLE snap_concept_new ADD INDEX idx_snap_concept_id (id)");
+			logger.info("Snapshot: {} built.", SNAP_CONCEPT);
+
+			stmt.execute("DROP TABLE IF EXISTS snap_refset_Language_new");
+			stmt.execute("""
+					CREATE TABLE snap_refset_Language_new AS
+					SELECT l1.referencedComponentId, l1.refsetId, l1.acceptabilityId, l1.active, l1.effectiveTime
+					FROM full_refset_Language l1
+					INNER JOIN (
+					    SELECT referencedComponentId, refsetId, MAX(effectiveTime) AS max_time
+					    FROM full_refset_Language
+					    GROUP BY referencedComponentId, refsetId
+					) latest
+					  ON l1.referencedComponentId = latest.referencedComponentId
+					 AND l1.refsetId             = latest.refsetId
+					 AND l1.effectiveTime        = latest.max_time
+					GROUP BY l1.referencedComponentId, l1.refsetId, l1.acceptabilityId, l1.active, l1.effectiveTime
+					""");
+			stmt.execute("""
+					ALTER TABLE snap_refset_Language_new
+					    ADD INDEX idx_snap_lang_component_refset (referencedComponentId, refsetId)
+					""");
+			logger.info("Snapshot: {} built.", SNAP_LANGUAGE);
+
+			// Swap all snapshots in at once
+			stmt.execute("CREATE TABLE IF NOT EXISTS snap_description_terms LIKE snap_description_terms_new");
+			stmt.execute("CREATE TABLE IF NOT EXISTS snap_concept LIKE snap_concept_new");
+			stmt.execute("CREATE TABLE IF NOT EXISTS snap_refset_Language LIKE snap_refset_Language_new");
+			stmt.execute("""
+					RENAME TABLE
+					    snap_description_terms TO snap_description_terms_old,
+					    snap_description_terms_new TO snap_description_terms,
+					    snap_concept TO snap_concept_old, snap_concept_new TO snap_concept,
+					    snap_refset_Language TO snap_refset_Language_old, snap_refset_Language_new TO snap_refset_Language
+					""");
+			stmt.execute("DROP TABLE IF EXISTS snap_description_terms_old, snap_concept_old, snap_refset_Language_old");
+			// Latest row per description ID, replaced by snap_description_terms
+			stmt.execute("DROP TABLE IF EXISTS snap_description");
+		}
+
+		for (Map.Entry<String, String> entry : SOURCE_TABLES.entrySet()) {
+			recordSource(connection, entry.getKey(), entry.getValue());
+		}
+		logger.info("Snapshot tables built in {} s.", (System.currentTimeMillis() - start) / 1000);
+	}
+
+	private void createInfoTable(Connection connection) throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			stmt.execute("""
+					CREATE TABLE IF NOT EXISTS levi_snapshot_info (
+					    snapshotTable VARCHAR(64) PRIMARY KEY,
+					    sourceRowCount BIGINT NOT NULL,
+					    sourceMaxEffectiveTime VARCHAR(8),
+					    builtAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+					)
+					""");
+		}
+	}
+
+	private boolean isCurrent(Connection connection, String snapshotTable, String sourceTable) throws SQLException {
+		String[] source = readSourceFingerprint(connection, sourceTable);
+		try (PreparedStatement ps = connection.prepareStatement(
+				"SELECT sourceRowCount, sourceMaxEffectiveTime FROM " + INFO_TABLE + " WHERE snapshotTable = ?")) {
+			ps.setString(1, snapshotTable);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (!rs.next()) {
+					logger.info("Snapshot {} does not exist yet.", snapshotTable);
+					return false;
+				}
+				boolean current = source[0].equals(rs.getString(1)) && Objects.equals(source[1], rs.getString(2));
+				if (!current) {
+					logger.info("Snapshot {} is outdated ({} rows / {} in {}).", snapshotTable, source[0], source[1],
+							sourceTable);
+				}
+				return current;
+			}
+		}
+	}
+
+	private void recordSource(Connection connection, String snapshotTable, String sourceTable) throws SQLException {
+		String[] source = readSourceFingerprint(connection, sourceTable);
+		try (PreparedStatement ps = connection.prepareStatement("REPLACE INTO " + INFO_TABLE
+				+ " (snapshotTable, sourceRowCount, sourceMaxEffectiveTime) VALUES (?, ?, ?)")) {
+			ps.setString(1, snapshotTable);
+			ps.setLong(2, Long.parseLong(source[0]));
+			ps.setString(3, source[1]);
+			ps.executeUpdate();
+		}
+	}
+
+	/** Returns {row count, highest effective time} of the given full table. */
+	private String[] readSourceFingerprint(Connection connection, String sourceTable) throws SQLException {
+		try (Statement stmt = connection.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(effectiveTime) FROM " + sourceTable)) {
+			rs.next();
+			return new String[] { String.valueOf(rs.getLong(1)), rs.getString(2) };
+		}
+	}
+}
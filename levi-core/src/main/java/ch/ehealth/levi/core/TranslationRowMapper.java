@@ -0,0 +1,143 @@
+package ch.ehealth.levi.core;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+
+/**
+ * Maps the rows of a translation result set into a {@link ResultCollector}.
+ *
+ * <p>
+ * A mapper is compiled once per result set: the column indexes of all known
+ * columns are resolved from the metadata and the handler for the result set
+ * type is chosen up front. Each row is then read by column index and the
+ * language reference set of every language code is looked up only once.
+ * Columns missing from the result set are mapped as {@code null}.
+ * </p>
+ */
+final class TranslationRowMapper {
+
+	private static final Logger logger = LoggerFactory.getLogger(TranslationRowMapper.class);
+
+	@FunctionalInterface
+	private interface RowHandler {
+		void handle(TranslationRowMapper row) throws SQLException;
+	}
+
+	private final ResultCollector resultCollector;
+	private final Conf conf;
+	private final RowHandler handler;
+	private final Map<String, String> refSetByLanguage = new HashMap<>();
+
+	private final int idColumn;
+	private final int conceptIdColumn;
+	private final int conceptActiveColumn;
+	private final int descriptionActiveColumn;
+	private final int termColumn;
+	private final int languageCodeColumn;
+	private final int caseSignificanceColumn;
+	private final int typeColumn;
+	private final int acceptabilityColumn;
+
+	private ResultSet rs;
+
+	private TranslationRowMapper(String resultSetType, ResultSetMetaData metaData, ResultCollector resultCollector,
+			Conf conf) throws SQLException {
+		this.resultCollector = resultCollector;
+		this.conf = conf;
+
+		Map<String, Integer> columns = new HashMap<>();
+		for (int i = 1; i <= metaData.getColumnCount(); i++) {
+			// Keep the first column of a label, as ResultSet#getString(String) does
+			columns.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(), i);
+		}
+		idColumn = columns.getOrDefault("id", 0);
+		conceptIdColumn = columns.getOrDefault("conceptid", 0);
+		conceptActiveColumn = columns.getOrDefault("conceptactive", 0);
+		descriptionActiveColumn = columns.getOrDefault("descriptionactive", 0);
+		termColumn = columns.getOrDefault("term", 0);
+		languageCodeColumn = columns.getOrDefault("languagecode", 0);
+		caseSignificanceColumn = columns.getOrDefault("casesignificanceid", 0);
+		typeColumn = columns.getOrDefault("typeid", 0);
+		acceptabilityColumn = columns.getOrDefault("acceptabilityid", 0);
+
+		handler = switch (resultSetType) {
+		case "additions", "searchEszett" -> TranslationRowMapper::addExtensionTranslation;
+		case "overview" -> TranslationRowMapper::addOverview;
+		case "inactivations" -> TranslationRowMapper::addExtensionInactivation;
+		default -> {
+			logger.warn("Unhandled result set type: {}", resultSetType);
+			yield row -> {
+			};
+		}
+		};
+	}
+
+	/**
+	 * Compiles a mapper for a result set of the given type ("additions",
+	 * "overview", "inactivations" or "searchEszett").
+	 */
+	static TranslationRowMapper compile(String resultSetType, ResultSetMetaData metaData,
+			ResultCollector resultCollector, Conf conf) throws SQLException {
+		return new TranslationRowMapper(resultSetType, metaData, resultCollector, conf);
+	}
+
+	/**
+	 * Maps all remaining rows of {@code rs}.
+	 */
+	void mapAll(ResultSet rs) throws SQLException {
+		this.rs = rs;
+		try {
+			while (rs.next()) {
+				handler.handle(this);
+			}
+		} finally {
+			this.rs = null;
+		}
+	}
+
+	private void addExtensionTranslation() throws SQLException {
+		String languageCode = get(languageCodeColumn);
+		resultCollector.setFullExtensionTranslation(get(conceptIdColumn), get(conceptActiveColumn), "", "",
+				get(termColumn), languageCode, get(caseSignificanceColumn), get(typeColumn),
+				languageRefSet(languageCode), get(acceptabilityColumn), get(idColumn),
+				get(descriptionActiveColumn));
+	}
+
+	private void addOverview() throws SQLException {
+		String conceptId = get(conceptIdColumn);
+		String conceptStatus = get(conceptActiveColumn);
+		String term = get(termColumn);
+		String languageCode = get(languageCodeColumn);
+		String type = get(typeColumn);
+		resultCollector.setFullExtensionTranslation(conceptId, conceptStatus, "", "", term, languageCode,
+				get(caseSignificanceColumn), type, languageRefSet(languageCode), get(acceptabilityColumn),
+				get(idColumn), get(descriptionActiveColumn));
+		resultCollector.setFullTranslationOverview(conceptId, term, type, languageCode, conceptStatus);
+	}
+
+	private void addExtensionInactivation() throws SQLException {
+		resultCollector.setFullExtensionInactivations(get(idColumn), get(languageCodeColumn), get(conceptIdColumn),
+				"", get(termColumn), "", "", "", "", "", "");
+	}
+
+	private String get(int column) throws SQLException {
+		return column > 0 ? rs.getString(column) : null;
+	}
+
+	private String languageRefSet(String languageCode) {
+		String refSet = refSetByLanguage.get(languageCode);
+		if (refSet == null && !refSetByLanguage.containsKey(languageCode)) {
+			refSet = conf.getLanguageRefSetId(languageCode);
+			refSetByLanguage.put(languageCode, refSet);
+		}
+		return refSet;
+	}
+}
@@ -14,26 +14,94 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.ehealth.levi.core.Conf;
 import ch.ehealth.levi.core.DbConnection;
+import ch.ehealth.levi.core.DescriptionExtract;
 import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.export.RowSink;
 
 public class Comparator {
 		
 	private static final Logger logger = LoggerFactory.getLogger(Comparator.class);
+
+	/** Smallest number of new translations worth a partition of its own in a parallel comparison. */
+	private static final int MIN_COMPARE_PARTITION_SIZE = 1_000;
+
+	/** SNOMED CT identifiers: only these can match a concept in the database. */
+	private static final Pattern SCTID = Pattern.compile("\\d{6,18}");
+
 	private final ResultCollector resultCollector;
 	private final Conf conf;
 	private final DbConnection dbConnection;
+	private final SessionDataset dataset; // shares DB extracts between the jobs of a session, null if none
+	private TermRuleEngine termRuleEngine; // rules of the running addition delta, null if none are configured
+	private DescriptionExtract descriptionExtract; // latest extract of the loaded concepts, see Conf#isDbSharedExtract()
 
 	public Comparator(ResultCollector collector, Conf configuration) {
+	    this(collector, configuration, null);
+	}
+
+	/**
+	 * @param dataset session whose database extracts are reused, or
+	 *                {@code null} to query the database for every call
+	 */
+	public Comparator(ResultCollector collector, Conf configuration, SessionDataset dataset) {
 	    this.resultCollector = collector;
 	    this.conf = configuration;
 	    this.dbConnection = new DbConnection(this.resultCollector, this.conf);
+	    this.dataset = dataset;
+	}
+
+	/**
+	 * Returns the description extract of all concepts in the loaded inputs
+	 * (new and previous translations, current and previous inactivations). It
+	 * is read once and reused by every lookup until other concepts are loaded.
+	 */
+	private DescriptionExtract descriptionExtract() throws SQLException, ClassNotFoundException {
+		Set<String> conceptIds = new HashSet<>();
+		for (String type : List.of("NEW_TRANSLATION_CURRENT", "NEW_TRANSLATION_PREVIOUS")) {
+			for (List<String> row : resultCollector.getDataByType(type)) {
+				addConceptId(conceptIds, row.get(0));
+			}
+		}
+		for (String type : List.of("TRANSLATION_INACTIVATION_CURRENT", "TRANSLATION_INACTIVATION_PREVIOUS")) {
+			for (List<String> row : resultCollector.getDataByType(type)) {
+				addConceptId(conceptIds, row.get(3));
+			}
+		}
+
+		if (descriptionExtract == null || !descriptionExtract.getConceptIds().equals(conceptIds)) {
+			descriptionExtract = dataset != null ? dataset.descriptionExtract(conceptIds)
+					: dbConnection.extractDescriptions(conceptIds);
+		}
+		return descriptionExtract;
+	}
+
+	private static void addConceptId(Set<String> conceptIds, String conceptId) {
+		if (conceptId != null && SCTID.matcher(conceptId.trim()).matches()) {
+			conceptIds.add(conceptId.trim());
+		}
+	}
+
+	/**
+	 * Adds the rows of a database extract to the {@link ResultCollector},
+	 * taken from the session dataset if it was queried before.
+	 */
+	private void extract(List<Object> key, SessionDataset.Extract query)
+			throws SQLException, ClassNotFoundException, UnsupportedEncodingException {
+		if (dataset == null) {
+			query.query(dbConnection);
+		} else {
+			dataset.extractInto(key, resultCollector, query);
+		}
 	}
 	
 
@@ -52,7 +120,11 @@ public class Comparator {
 			conceptID.add(conceptIDentry);
 		}
 
-		dbConnection.getOverviewOfTranslationsDB(conceptID);
+		if (conf.isDbSharedExtract()) {
+			descriptionExtract().addOverview(resultCollector, conf);
+		} else {
+			extract(List.of("overview", conceptID), db -> db.getOverviewOfTranslationsDB(conceptID));
+		}
 
 		// Structuring the file
 
@@ -63,9 +135,10 @@ public class Comparator {
 		languageColumnMap.put("fr", 5);
 		languageColumnMap.put("it", 6);
 
-		for (List<String> dbTerm : resultCollector.getDataByType("EXTENSION_TRANSLATION")) {
+		// Concept ID → row index in structuredFile, so each DB term is placed in O(1)
+		Map<String, Integer> conceptRowIndex = new HashMap<>();
 
-			List<String> entry = new ArrayList<>(Collections.nCopies(7, "TODO"));
+		for (List<String> dbTerm : resultCollector.getDataByType("EXTENSION_TRANSLATION")) {
 
 			String conceptIDEntry = dbTerm.get(0);
 			String status = dbTerm.get(1);
@@ -73,12 +146,11 @@ public class Comparator {
 			String languageCode = dbTerm.get(5).toLowerCase();
 			String typeId = dbTerm.get(7);
 
-			// Return index of the inner list of structuredFile. Now it knows on which index
-			// the concept ID is.
-			int indexOfSCTID = findInnerListIndex(structuredFile, conceptIDEntry);
+			Integer indexOfSCTID = conceptRowIndex.get(conceptIDEntry);
 
 			// If concept ID is not found, add a new row to structuredFile
-			if (indexOfSCTID == -1 && structuredFile.size() > 0) {
+			if (indexOfSCTID == null) {
+				List<String> entry = new ArrayList<>(Collections.nCopies(7, "TODO"));
 				entry.set(0, conceptIDEntry); // Concept ID
 				entry.set(2, status); // Status of concept
 				if ("900000000000003001".equalsIgnoreCase(typeId)) {
@@ -89,33 +161,25 @@ public class Comparator {
 						entry.set(langIndex, term); // Translated Term based on language code
 					}
 				}
+				conceptRowIndex.put(conceptIDEntry, structuredFile.size());
 				structuredFile.add(entry);
 			} else {
 				// Update existing row if concept ID is found
 				List<String> structuredFileElement = structuredFile.get(indexOfSCTID);
-				boolean isUpdated = false;
 
 				if ("900000000000003001".equalsIgnoreCase(typeId)) {
 					structuredFileElement.set(1, term);
-					isUpdated = true;
 				} else {
 					Integer langIndex = languageColumnMap.get(languageCode);
 					if (langIndex != null) {
 						String currentTranslation = structuredFileElement.get(langIndex);
 						if ("TODO".equals(currentTranslation)) {
 							structuredFileElement.set(langIndex, term);
-							isUpdated = true;
 						} else if (!currentTranslation.contains(term)) {
 							structuredFileElement.set(langIndex, currentTranslation + " | " + term);
-							isUpdated = true;
 						}
 					}
 				}
-
-				// If updated, set the modified element back to the list
-				if (isUpdated) {
-					structuredFile.set(indexOfSCTID, structuredFileElement);
-				}
 			}
 		}
 
@@ -125,6 +189,17 @@ public class Comparator {
 	}
 
 	public List<List<String>> generateDescriptionAdditionAndChangesDelta() throws IOException, SQLException, ClassNotFoundException {
+		List<List<String>> deltaTranslations = new ArrayList<>();
+		generateDescriptionAdditionAndChangesDelta(RowSink.into(deltaTranslations));
+		return deltaTranslations;
+	}
+
+	/**
+	 * Emits the description addition delta (header first) to {@code sink} while
+	 * collecting changes and reactivations in the {@link ResultCollector}. The
+	 * delta rows are not kept in memory.
+	 */
+	public void generateDescriptionAdditionAndChangesDelta(RowSink sink) throws IOException, SQLException, ClassNotFoundException {
 		
 		logger.info("Starting with description addition delta...");
 		String specificLanguage = null;
@@ -160,77 +235,167 @@ public class Comparator {
 					"Translated Term", "Language Code", "Case significance", "TypeId", "Language reference set", "Acceptability", "Language reference set", "Acceptability", "Language reference set", "Acceptability", "Language reference set", "Acceptability", "Language reference set", "Acceptability", "Notes");
 		}
 		
+		// Configured term rules are reported in one additional column
+		termRuleEngine = conf.checkRegex() && !conf.getTermRules().isEmpty() ? new TermRuleEngine(conf.getTermRules()) : null;
+		if (termRuleEngine != null) {
+			headerAdditions = new ArrayList<>(headerAdditions);
+			headerAdditions.add("Term rules");
+		}
+		
 		Set<String> conceptID = new HashSet<>();
 		for (String conceptIDentry : resultCollector.getIdsByType("NEW_TRANSLATION_CURRENT")) {
 			conceptID.add(conceptIDentry);
 		}	
 
-		dbConnection.searchTranslations(conceptID); // Fetch translations from the database and populate oldTranslation
+		// Fetch translations from the database and populate oldTranslation
+		if (conf.isDbSharedExtract()) {
+			descriptionExtract().addTranslations(resultCollector, conf);
+		} else {
+			extract(List.of("translations", conceptID), db -> db.searchTranslations(conceptID));
+		}
 		
-		// Step 2: structure translation from DB according to ConceptId --> Map with List<List<String>>
-		Map<String, List<List<String>>> dbTranslationMap = new HashMap<>();
+		// Step 2: index translations from DB by ConceptId --> (term, language code)
+		Map<String, Map<List<String>, DescriptionMatch>> dbTranslationIndex = new HashMap<>();
 		for (List<String> oldEntry : resultCollector.getDataByType("EXTENSION_TRANSLATION")) {
-		    String conceptId = oldEntry.get(0);
-		    dbTranslationMap.computeIfAbsent(conceptId, k -> new ArrayList<>()).add(oldEntry);
+		    String oldTerm = oldEntry.get(4);
+		    String oldLangCode = oldEntry.get(5);
+		    if (oldTerm == null || oldTerm.isEmpty() || oldLangCode == null || oldLangCode.isEmpty()) {
+		        continue; // can never match a new entry
+		    }
+		    dbTranslationIndex.computeIfAbsent(oldEntry.get(0), k -> new HashMap<>())
+		            .computeIfAbsent(List.of(oldTerm, oldLangCode), k -> new DescriptionMatch(oldEntry))
+		            .add(oldEntry);
 		}
 				
-		// Step 3: prepare delta list
-		List<List<String>> deltaTranslations = new ArrayList<>();
-		deltaTranslations.add(headerAdditions); // Add header to delta list
+		// Step 3: emit delta rows
+		sink.accept(headerAdditions); // Add header to delta
+		int deltaEntries = 1;
 		
-		for (List<String> newEntry : resultCollector.getDataByType("NEW_TRANSLATION_CURRENT")) {
-			
-		    String conceptId   = newEntry.get(0);
-		    String newTerm     = newEntry.get(3);
-		    String newLangCode = newEntry.get(4);
-		    String newTypeId   = newEntry.get(6);
-		    String newLanguageRefset = newEntry.get(7);
-		    String newAccept   = newEntry.get(8);
+		List<List<String>> newEntries = resultCollector.getDataByType("NEW_TRANSLATION_CURRENT");
+		int partitions = comparePartitions(newEntries.size());
+		if (partitions > 1) {
+			deltaEntries += compareTranslationsInParallel(newEntries, partitions, specificLanguage, dbTranslationIndex,
+					sink);
+		} else {
+			for (List<String> newEntry : newEntries) {
+				List<String> deltaRow = compareTranslation(newEntry, specificLanguage, dbTranslationIndex,
+						resultCollector);
+				if (deltaRow != null) {
+					sink.accept(deltaRow);
+					deltaEntries++;
+				}
+			}
+		}
+		logger.info("Delta translations created with {} entries.", deltaEntries);
+	}
+
+	/**
+	 * Number of partitions the addition/changes comparison is split into, or 1
+	 * to compare sequentially.
+	 */
+	private int comparePartitions(int entries) {
+		int threads = conf.getCompareThreads();
+		if (threads < 2) {
+			return 1;
+		}
+		int bySize = (entries + MIN_COMPARE_PARTITION_SIZE - 1) / MIN_COMPARE_PARTITION_SIZE;
+		return Math.min(threads * 4, bySize);
+	}
+
+	/**
+	 * Compares contiguous partitions of {@code newEntries} on a
+	 * {@link ForkJoinPool}. Each partition collects its delta rows, changes and
+	 * reactivations on its own; the partitions are then emitted to
+	 * {@code sink} and merged into the {@link ResultCollector} in input order,
+	 * so the result is identical to the sequential comparison.
+	 *
+	 * @return the number of delta rows emitted
+	 */
+	private int compareTranslationsInParallel(List<List<String>> newEntries, int partitions,
+			String specificLanguage, Map<String, Map<List<String>, DescriptionMatch>> dbTranslationIndex,
+			RowSink sink) throws IOException {
+		logger.info("Comparing {} translations in {} partitions on {} threads...", newEntries.size(), partitions,
+				conf.getCompareThreads());
+		ForkJoinPool pool = new ForkJoinPool(conf.getCompareThreads());
+		try {
+			List<ForkJoinTask<ComparePartition>> tasks = new ArrayList<>(partitions);
+			for (int p = 0; p < partitions; p++) {
+				List<List<String>> slice = newEntries.subList(
+						(int) ((long) newEntries.size() * p / partitions),
+						(int) ((long) newEntries.size() * (p + 1) / partitions));
+				tasks.add(pool.submit(() -> {
+					ComparePartition partition = new ComparePartition();
+					for (List<String> newEntry : slice) {
+						List<String> deltaRow = compareTranslation(newEntry, specificLanguage, dbTranslationIndex,
+								partition.collector);
+						if (deltaRow != null) {
+							partition.deltaRows.add(deltaRow);
+						}
+					}
+					return partition;
+				}));
+			}
+
+			int emitted = 0;
+			for (ForkJoinTask<ComparePartition> task : tasks) {
+				ComparePartition partition = task.join();
+				resultCollector.mergeFrom(partition.collector);
+				for (List<String> deltaRow : partition.deltaRows) {
+					sink.accept(deltaRow);
+					emitted++;
+				}
+			}
+			return emitted;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Compares one new translation with the indexed DB descriptions of its
+	 * concept. A change or reactivation is recorded in {@code target}.
+	 *
+	 * @return the delta row if the translation is an addition, otherwise
+	 *         {@code null}
+	 */
+	private List<String> compareTranslation(List<String> newEntry, String specificLanguage,
+			Map<String, Map<List<String>, DescriptionMatch>> dbTranslationIndex, ResultCollector target) {
+
+		String conceptId   = newEntry.get(0);
+		String newTerm     = newEntry.get(3);
+		String newLangCode = newEntry.get(4);
+		String newTypeId   = newEntry.get(6);
+		String newLanguageRefset = newEntry.get(7);
+		String newAccept   = newEntry.get(8);
 				    
-		    if (specificLanguage != null && !specificLanguage.equalsIgnoreCase(newLangCode)) {
-		        newLangCode = specificLanguage; // Set to the specific language if provided
-		        newEntry.set(4, newLangCode); // Update the language code in the new entry
-		    }
-		    
-		    if (conf.isTransformEszett() && "de".equalsIgnoreCase(newLangCode) && newTerm.contains("ß")) {
-		        newTerm = newTerm.replace("ß", "ss");
-		        newEntry.set(3, newTerm); // Update the term in the new entry
-		    }
+		if (specificLanguage != null && !specificLanguage.equalsIgnoreCase(newLangCode)) {
+		    newLangCode = specificLanguage; // Set to the specific language if provided
+		    newEntry.set(4, newLangCode); // Update the language code in the new entry
+		}
+		
+		if (conf.isTransformEszett() && "de".equalsIgnoreCase(newLangCode) && newTerm.contains("ß")) {
+		    newTerm = newTerm.replace("ß", "ss");
+		    newEntry.set(3, newTerm); // Update the term in the new entry
+		}
 
-		    List<List<String>> oldEntriesForConcept = dbTranslationMap.getOrDefault(conceptId, Collections.emptyList());
+		DescriptionMatch match = newTerm.isEmpty() || newLangCode.isEmpty() ? null
+		        : dbTranslationIndex.getOrDefault(conceptId, Collections.emptyMap())
+		                .get(List.of(newTerm, newLangCode));
 
-		    boolean matchFound = false;
+		if (match != null) {
+		    List<String> oldEntry = match.first;
+		    String oldCaseSignificance = oldEntry.get(6);
+		    String oldAccept = oldEntry.get(9);
+		    String oldDescriptionId = oldEntry.get(10);
+		    String oldDesccriptionStatus = oldEntry.get(11);
 		    
-		    for (List<String> oldEntry : oldEntriesForConcept) {
-		    	String oldTerm = oldEntry.get(4);
-		        String oldLangCode = oldEntry.get(5);
-		        String oldCaseSignificance = oldEntry.get(6);
-		        String oldAccept = oldEntry.get(9);
-		        String oldDescriptionId = oldEntry.get(10);
-		        String oldDesccriptionStatus = oldEntry.get(11);
+		    if ("0".equals(oldDesccriptionStatus)) {
 		        
-		      
-		        if (!newTerm.isEmpty() && !oldTerm.isEmpty() 
-		                && newTerm.equals(oldTerm) 
-		                && !newLangCode.isEmpty() && !oldLangCode.isEmpty() 
-		                && newLangCode.equals(oldLangCode)) {
-		            matchFound = true;
-		            
-		            if ("0".equals(oldDesccriptionStatus)) {
-		            	
-		                boolean hasDuplicateActive = oldEntriesForConcept.stream()
-		                    .filter(other -> !other.get(10).equals(oldDescriptionId)) // andere DescriptionId
-		                    .filter(other -> oldTerm.equals(other.get(4)))            // gleicher Term
-		                    .filter(other -> oldLangCode.equals(other.get(5)))        // gleiche LangCode
-		                    .anyMatch(other -> "1".equals(other.get(11)));            // aktiv
-		                
-		                if (hasDuplicateActive) {
-		                    break;
-		                }
-		            	
-		            	
-		                resultCollector.addDescriptionToConceptMapping(oldDescriptionId, conceptId);
-		                resultCollector.setFullTranslationReactivation(
+		        // another active description with the same term and language code
+		        if (!match.hasOtherActive(oldDescriptionId)) {
+		        	
+		            target.addDescriptionToConceptMapping(oldDescriptionId, conceptId);
+		            target.setFullTranslationReactivation(
 								oldDescriptionId, 
 								"", //placeholder for preferred term
 								newTerm,
@@ -246,20 +411,23 @@ public class Comparator {
 								"", //placeholder for language reference set 5
 								"", //placeholder for acceptability 5
 								"Translation reactivation"
-			                );		                		
-		            } else if (
-		            				// case if oldAccept is empty of null
-		                    ((oldAccept == null || oldAccept.isEmpty()) 
-		                        && newAccept != null && !newAccept.isEmpty())
-		                    
-		                    // case if newAccept is empty or null
-		                    || ((newAccept == null || newAccept.isEmpty()) 
-		                        && oldAccept != null && !oldAccept.isEmpty())
-		                    
-		                    // both not empty but different
-		                    || (oldAccept != null && !oldAccept.isEmpty()
-		                        && newAccept != null && !newAccept.isEmpty()
-		                        && !oldAccept.equalsIgnoreCase(newAccept))) {		                resultCollector.addDescriptionToConceptMapping(oldDescriptionId, conceptId);		                resultCollector.setFullTranslationChanges(
+			                );
+		        }
+		    } else if (
+		    				// case if oldAccept is empty of null
+		            ((oldAccept == null || oldAccept.isEmpty()) 
+		                && newAccept != null && !newAccept.isEmpty())
+		            
+		            // case if newAccept is empty or null
+		            || ((newAccept == null || newAccept.isEmpty()) 
+		                && oldAccept != null && !oldAccept.isEmpty())
+		            
+		            // both not empty but different
+		            || (oldAccept != null && !oldAccept.isEmpty()
+		                && newAccept != null && !newAccept.isEmpty()
+		                && !oldAccept.equalsIgnoreCase(newAccept))) {
+		        target.addDescriptionToConceptMapping(oldDescriptionId, conceptId);
+		        target.setFullTranslationChanges(
 								oldDescriptionId, 
 								"", //placeholder for preferred term
 								newTerm,
@@ -275,60 +443,44 @@ public class Comparator {
 								"", //placeholder for language reference set 5
 								"", //placeholder for acceptability 5
 								"Acceptability changed from " + oldAccept + " to " + newAccept + " for concept " + conceptId
-			                );
-		            }
-		            break;
-		        }
+			            );
 		    }
+		    return null;
+		}
 
-		    if (!matchFound) {
-		        List<String> copy = new ArrayList<>(newEntry);
-		        
-		        List<String> regexResults = RegexValidator.validateTerm(newLangCode, newTerm);
-		        String quotesResult = regexResults.get(0);
-		        String softHyphenResult =regexResults.get(1);
-		        String spaceAroundSlashResult = regexResults.get(2);
-		        String apostropheResult = regexResults.get(3);
-		        String upperCaseResult = regexResults.get(4);
-		        
-		        if (conf.checkRegex()) {
-					copy.add(18, quotesResult);
-				    copy.add(19, softHyphenResult);
-				    copy.add(20, spaceAroundSlashResult);
-				    copy.add(21, apostropheResult);
-				    copy.add(22, upperCaseResult);
-		        }		       
-		        deltaTranslations.add(copy);
-		    }
+		List<String> copy = new ArrayList<>(newEntry);
+		
+		if (conf.checkRegex()) {
+			// Regex columns 18-22: quotes, soft hyphen, space around slash, apostrophe, upper/lower case
+			copy.addAll(18, RegexValidator.toColumns(newLangCode, RegexValidator.scan(newTerm),
+					termRuleEngine != null && termRuleEngine.hasRules(newLangCode)));
+			if (termRuleEngine != null) {
+				copy.add(termRuleEngine.describe(newLangCode, newTerm));
+			}
 		}
-		logger.info("Delta translations created with {} entries.", deltaTranslations.size());
-		return deltaTranslations;
+		return copy;
 	}
 
 	public List<List<String>> generateDescriptionInactivationDelta() throws IOException, SQLException, ClassNotFoundException {
+		List<List<String>> deltaInactivations = new ArrayList<>();
+		generateDescriptionInactivationDelta(RowSink.into(deltaInactivations));
+		return deltaInactivations;
+	}
+
+	/**
+	 * Emits the description inactivation delta (header first) to {@code sink}.
+	 */
+	public void generateDescriptionInactivationDelta(RowSink sink) throws IOException, SQLException, ClassNotFoundException {
 
 		logger.info("Starting with description inactivation delta...");
 		List<String> headerInactivation = Arrays.asList("Description ID","Language Code", "Concept ID", "Preferred Term (For reference only)", "Term (For reference only)", "Inactivation Reason", "Association Target ID 1",
 				"Association Target ID 2", "Association Target ID 3", "Association Target ID 4", "Notes");
-		List<List<String>> deltaInactivations = new ArrayList<>();
-		deltaInactivations.add(headerInactivation);
+		sink.accept(headerInactivation);
+		int deltaEntries = 1;
 		
 		List<List<String>> allInactivationCurrent =
 		            resultCollector.getDataByType("TRANSLATION_INACTIVATION_CURRENT");
 		
-		// Local vs foreign language according to configuration (countryCode --> LanguageRefSets)
-		List<List<String>> localRows   = new ArrayList<>();
-		List<List<String>> foreignRows = new ArrayList<>();
-		
-	    for (List<String> row : allInactivationCurrent) {
-	        String languageCode = row.get(2) == null ? "" : row.get(2).trim().toLowerCase();
-	        if (conf.isLocalLanguage(languageCode)) {
-	            localRows.add(row);
-	        } else {
-	            foreignRows.add(row); // e.g. en for CH/AT
-	        }
-	    }
-	
 		 
 	    if(conf.isTransformEszett()) {
 
@@ -346,6 +498,17 @@ public class Comparator {
 	                    "All 'ss' terms will be inactivated without verification.");
 	        }
 
+	        // Normalized terms of the current translations, built once for O(1) counterpart checks
+	        Set<String> eszettCounterparts = new HashSet<>();
+	        if (!currentMissing) {
+	            for (List<String> other : currentTranslations) {
+	                String otherTerm = other.get(1);
+	                if (otherTerm != null) {
+	                    eszettCounterparts.add(eszettKey(otherTerm));
+	                }
+	            }
+	        }
+
 	        Iterator<List<String>> iterator = allInactivationCurrent.iterator();
 	        while (iterator.hasNext()) {
 	            List<String> row = iterator.next();
@@ -372,14 +535,7 @@ public class Comparator {
 	                    continue;
 	                }
 
-	                boolean hasEszettCounterpart = currentTranslations.stream()
-	                    .anyMatch(other -> {
-	                        String otherTerm = other.get(1);
-	                        return otherTerm != null
-	                            && otherTerm.replace("ß", "ss").equalsIgnoreCase(term);
-	                    });
-
-	                if (hasEszettCounterpart) {
+	                if (eszettCounterparts.contains(eszettKey(term))) {
 	                    logger.info("Skipping term '{}' – ß-counterpart found in " +
 	                        "NEW_TRANSLATION_CURRENT", term);
 	                    iterator.remove();
@@ -389,13 +545,37 @@ public class Comparator {
 	    }
 		
 		
+		// Local vs foreign language according to configuration (countryCode --> LanguageRefSets),
+		// without the rows skipped above
+		List<List<String>> localRows   = new ArrayList<>();
+		List<List<String>> foreignRows = new ArrayList<>();
+		
+	    for (List<String> row : allInactivationCurrent) {
+	        String languageCode = row.get(2) == null ? "" : row.get(2).trim().toLowerCase();
+	        if (conf.isLocalLanguage(languageCode)) {
+	            localRows.add(row);
+	        } else {
+	            foreignRows.add(row); // e.g. en for CH/AT
+	        }
+	    }
+	
 		logger.info("Fetching translations from DB for local languages only...");		
-		dbConnection.searchDescriptions(localRows); // Fetch descriptions from the database and populate oldTranslation
+		// Fetch descriptions from the database and populate oldTranslation
+		if (conf.isDbSharedExtract()) {
+			descriptionExtract().addInactivations(localRows, resultCollector);
+		} else {
+			List<List<String>> descriptionKey = new ArrayList<>();
+			for (List<String> row : localRows) {
+				descriptionKey.add(new ArrayList<>(row));
+			}
+			extract(List.of("descriptions", descriptionKey), db -> db.searchDescriptions(localRows));
+		}
 		logger.info("Translations fetched. Starting comparison...");
 		
 		// Adding local inactivations to delta
 		for (List<String> newEntry : resultCollector.getDataByType("EXTENSION_INACTIVATION")) {
-			deltaInactivations.add(newEntry);
+			sink.accept(newEntry);
+			deltaEntries++;
 		}
 		
 		// Adding foreign inactivations to delta with note
@@ -418,26 +598,78 @@ public class Comparator {
 	        foreignRow.add("");              // 9: Assoc Target 4
 	        foreignRow.add("Foreign language term – please confirm before inactivation!"); // 10: Notes
 
-	        deltaInactivations.add(foreignRow);
+	        sink.accept(foreignRow);
+	        deltaEntries++;
 	    }
 		
-		logger.info("Delta inactivations created with {} entries.", deltaInactivations.size());	
-		return deltaInactivations;
+		logger.info("Delta inactivations created with {} entries.", deltaEntries);	
 	}
 	
+	/** Delta rows and collected changes of one partition of a parallel comparison. */
+	private static final class ComparePartition {
+
+		private final List<List<String>> deltaRows = new ArrayList<>();
+		private final ResultCollector collector = new ResultCollector();
+	}
+
+	/**
+	 * The DB descriptions of one concept that share a term and language code.
+	 * Keeps the first of them in DB order, which is the one a new translation
+	 * is matched against, and the IDs of the active ones.
+	 */
+	private static final class DescriptionMatch {
+
+		private final List<String> first;
+		private final Set<String> activeDescriptionIds = new HashSet<>();
+
+		DescriptionMatch(List<String> first) {
+			this.first = first;
+		}
+
+		void add(List<String> entry) {
+			if ("1".equals(entry.get(11))) {
+				activeDescriptionIds.add(entry.get(10));
+			}
+		}
+
+		boolean hasOtherActive(String descriptionId) {
+			return activeDescriptionIds.size() > (activeDescriptionIds.contains(descriptionId) ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Key under which a term and its ß/ss spelling variant compare equal: ß is
+	 * replaced by ss and every character is case-folded the way
+	 * {@link String#equalsIgnoreCase(String)} compares it.
+	 */
+	private static String eszettKey(String term) {
+		String normalized = term.replace("ß", "ss");
+		StringBuilder key = new StringBuilder(normalized.length());
+		normalized.codePoints().forEach(c -> key.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+		return key.toString();
+	}
+
 	public List<List<String>> generateDescriptionChangesDelta(String type) throws IOException, SQLException, ClassNotFoundException {
+		List<List<String>> deltaChanges = new ArrayList<>();
+		generateDescriptionChangesDelta(type, RowSink.into(deltaChanges));
+		return deltaChanges;
+	}
+
+	/**
+	 * Emits the collected entries of {@code type} (TRANSLATION_CHANGES or
+	 * TRANSLATION_REACTIVATION) as a changes delta to {@code sink}.
+	 */
+	public void generateDescriptionChangesDelta(String type, RowSink sink) throws IOException, SQLException, ClassNotFoundException {
 		List<String> headerChanges= Arrays.asList("Description ID", "Preferred Term (For reference only)", "Term (For reference only)",
 				"Case significance","Type","Language reference set","Acceptability","Language reference set","Acceptability",
 				"Language reference set","Acceptability","Language reference set","Acceptability","Language reference set",
 				"Acceptability","Notes");
 		
-		List<List<String>> deltaChanges = new ArrayList<>();
-		deltaChanges.add(headerChanges);
+		sink.accept(headerChanges);
 		
 		for (List<String> newEntry : resultCollector.getDataByType(type)) {
-	        deltaChanges.add(newEntry);
+	        sink.accept(newEntry);
 		} 	
-		return deltaChanges;
 	}
 
 	public List<List<List<String>>> checkEszettInExtension() throws ClassNotFoundException, UnsupportedEncodingException, SQLException {
@@ -516,6 +748,16 @@ public class Comparator {
 	}
 	
 	public List<List<String>> generateDeltaOfNotPublishedTranslations() throws IOException, SQLException, ClassNotFoundException {
+		List<List<String>> deltaNotFoundTranslations = new ArrayList<>();
+		generateDeltaOfNotPublishedTranslations(RowSink.into(deltaNotFoundTranslations));
+		return deltaNotFoundTranslations;
+	}
+
+	/**
+	 * Emits the delta of previously delivered translations that are neither in
+	 * the current file nor inactivated (header first) to {@code sink}.
+	 */
+	public void generateDeltaOfNotPublishedTranslations(RowSink sink) throws IOException, SQLException, ClassNotFoundException {
 			logger.info("Starting delta of not published translations...");
 			
 			final int PREV_CONCEPT_ID   = 0;
@@ -534,8 +776,7 @@ public class Comparator {
 					"Association Target ID 2", "Association Target ID 3", "Association Target ID 4", "Notes");
 			
 			
-			List<List<String>> deltaNotFoundTranslations = new ArrayList<>();
-			deltaNotFoundTranslations.add(headerInactivation); 	
+			sink.accept(headerInactivation); 	
 			List<List<String>> previousEntries            = resultCollector.getDataByType("NEW_TRANSLATION_PREVIOUS");
 		    List<List<String>> currentEntries             = resultCollector.getDataByType("NEW_TRANSLATION_CURRENT");
 		    List<List<String>> currentInactivationEntries = resultCollector.getDataByType("TRANSLATION_INACTIVATION_CURRENT");
@@ -592,11 +833,9 @@ public class Comparator {
                 formattedEntry.add("");                 // Association Target ID 4
                 formattedEntry.add("");                 // Notes
 
-                deltaNotFoundTranslations.add(formattedEntry); //TODO: List need to be checked with DB
+                sink.accept(formattedEntry); //TODO: List need to be checked with DB
             }
         }
-        
-        return deltaNotFoundTranslations;
 		}
 		
 	public List<List<String>> checkDuplicateTerms() throws SQLException, ClassNotFoundException {
@@ -620,16 +859,5 @@ public class Comparator {
 	    logger.info("Duplicate term check: {} duplicates found.", result.size() - 1);
 	    return result;
 	}
-	
-	// Used to find the index of the concept that is already in the structuredList.
-	private static int findInnerListIndex(List<List<String>> outerList, String element) {
-		for (int i = 0; i < outerList.size(); i++) {
-			List<String> innerList = outerList.get(i);
-			if (innerList.contains(element)) {
-				return i; // Return the index of the inner list
-			}
-		}
-		return -1; // Return -1 if the element is not found in any inner list
-	}
 
 }
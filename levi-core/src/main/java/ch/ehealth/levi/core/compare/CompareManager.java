@@ -6,9 +6,11 @@ import java.util.List;
 
 import ch.ehealth.levi.core.Conf;
 import ch.ehealth.levi.core.export.BatchExportService;
+import ch.ehealth.levi.core.export.CountingRowSink;
 import ch.ehealth.levi.core.export.ResultCollector;
 import ch.ehealth.levi.core.io.FileReaderUtil;
 import ch.ehealth.levi.core.io.FileWriterUtil;
+import ch.ehealth.levi.core.io.TsvRowSink;
 
 public class CompareManager {
 
@@ -18,6 +20,7 @@ public class CompareManager {
 	private final Comparator comparator;
 	private final BatchExportService batchExportService;
 	private final boolean groupingEnabled;
+	private final SessionDataset dataset;
 
 	// Counts populated after each run* call
 	private int lastAdditionsCount;
@@ -26,12 +29,23 @@ public class CompareManager {
 	private int lastInactivationsCount;
 
     public CompareManager(Conf conf) {
+        this(conf, null);
+    }
+
+	/**
+	 * @param dataset session whose input rows and database extracts are
+	 *                reused, or {@code null} to read and query everything for
+	 *                this manager alone. Results are kept per manager either way.
+	 */
+    public CompareManager(Conf conf, SessionDataset dataset) {
         this.resultCollector   = new ResultCollector();
-        this.reader            = new FileReaderUtil(resultCollector);
+        this.reader            = new FileReaderUtil(resultCollector, conf);
         this.writer            = new FileWriterUtil();
-        this.comparator        = new Comparator(resultCollector, conf);
-        this.batchExportService = new BatchExportService();
+        this.comparator        = new Comparator(resultCollector, conf, dataset);
+        this.batchExportService = new BatchExportService(BatchExportService.DEFAULT_BATCH_SIZE, writer,
+				conf.getWriteThreads());
 		this.groupingEnabled = conf.isGroupingEnabled();
+		this.dataset = dataset;
     }
 
 	public int getLastAdditionsCount()     { return lastAdditionsCount; }
@@ -42,28 +56,31 @@ public class CompareManager {
 
 	public void runTranslationOverview(String path, String destination)
 			throws IOException, ClassNotFoundException, SQLException {
-		reader.readFile(path);
+		readFile(path);
 		writer.writeToFile(destination + "\\TranslationOverview.tsv", comparator.createTranslationsOverview());
 	}
 
 	public void runDeltaDescAdditions(String path, String destination)
 			throws IOException, ClassNotFoundException, SQLException {
-		reader.readFile(path);
-		List<List<String>> additions = comparator.generateDescriptionAdditionAndChangesDelta();
-		lastAdditionsCount = Math.max(0, additions.size() - 1);
-		writer.writeToFile(destination + "\\DeltaDescAdditions.tsv", additions);
+		readFile(path);
+		try (CountingRowSink additions = tsv(destination + "\\DeltaDescAdditions.tsv")) {
+			comparator.generateDescriptionAdditionAndChangesDelta(additions);
+			lastAdditionsCount = additions.getDataRowCount();
+		}
 		if(resultCollector.containsType("TRANSLATION_CHANGES")) {
-			List<List<String>> changes = comparator.generateDescriptionChangesDelta("TRANSLATION_CHANGES");
-			lastChangesCount = Math.max(0, changes.size() - 1);
-			writer.writeToFile(destination + "\\DeltaDescChanges.tsv", changes);
+			try (CountingRowSink changes = tsv(destination + "\\DeltaDescChanges.tsv")) {
+				comparator.generateDescriptionChangesDelta("TRANSLATION_CHANGES", changes);
+				lastChangesCount = changes.getDataRowCount();
+			}
 		}
 	}
 	
 	public void runDeltaDescInactivations(String path, String destination) throws ClassNotFoundException, IOException, SQLException {
-		reader.readFile(path);
-		List<List<String>> inactivations = comparator.generateDescriptionInactivationDelta();
-		lastInactivationsCount = Math.max(0, inactivations.size() - 1);
-		writer.writeToFile(destination + "\\DeltaDescInactivations.tsv", inactivations);
+		readFile(path);
+		try (CountingRowSink inactivations = tsv(destination + "\\DeltaDescInactivations.tsv")) {
+			comparator.generateDescriptionInactivationDelta(inactivations);
+			lastInactivationsCount = inactivations.getDataRowCount();
+		}
 	}
 	
 	/**
@@ -78,8 +95,34 @@ public class CompareManager {
 	 * changes and reactivations deltas.</p>
 	 */
 	public void runGenerateDelta(String path, String destination) throws ClassNotFoundException, IOException, SQLException {
-		reader.readFile(path);
-		
+		readFile(path);
+
+		if (!groupingEnabled) {
+			// Without grouping every delta is streamed straight to its file
+			try (CountingRowSink inactivations = tsv(destination + "\\DeltaDescInactivations.tsv")) {
+				comparator.generateDescriptionInactivationDelta(inactivations);
+				lastInactivationsCount = inactivations.getDataRowCount();
+			}
+			try (CountingRowSink additions = tsv(destination + "\\DeltaDescAdditions.tsv")) {
+				comparator.generateDescriptionAdditionAndChangesDelta(additions);
+				lastAdditionsCount = additions.getDataRowCount();
+			}
+			if (resultCollector.containsType("TRANSLATION_CHANGES")) {
+				try (CountingRowSink changes = tsv(destination + "\\DeltaDescChanges.tsv")) {
+					comparator.generateDescriptionChangesDelta("TRANSLATION_CHANGES", changes);
+					lastChangesCount = changes.getDataRowCount();
+				}
+			}
+			if (resultCollector.containsType("TRANSLATION_REACTIVATION")) {
+				try (CountingRowSink reactivations = tsv(destination + "\\DeltaDescReactivation.tsv")) {
+					comparator.generateDescriptionChangesDelta("TRANSLATION_REACTIVATION", reactivations);
+					lastReactivationsCount = reactivations.getDataRowCount();
+				}
+			}
+			return;
+		}
+
+		// Grouping needs every delta in full to assign concepts to groups
 		List<List<String>> inactivations = comparator.generateDescriptionInactivationDelta();
 		lastInactivationsCount = Math.max(0, inactivations.size() - 1);
 
@@ -98,19 +141,8 @@ public class CompareManager {
 			lastReactivationsCount = Math.max(0, reactivations.size() - 1);
 		}
 
-		if (groupingEnabled) {
-				batchExportService.export(additions, changes, inactivations, reactivations,
-						resultCollector, destination);
-			} else {
-				writer.writeToFile(destination + "\\DeltaDescAdditions.tsv", additions);
-				if (changes != null) {
-					writer.writeToFile(destination + "\\DeltaDescChanges.tsv", changes);
-				}
-				if (reactivations != null) {
-					writer.writeToFile(destination + "\\DeltaDescReactivation.tsv", reactivations);
-				}
-				writer.writeToFile(destination + "\\DeltaDescInactivations.tsv", inactivations);
-			}
+		batchExportService.export(additions, changes, inactivations, reactivations,
+				resultCollector, destination);
 	}
 	
 	public void runCheckEszettInExtension(String destination) throws ClassNotFoundException, IOException, SQLException {
@@ -127,11 +159,12 @@ public class CompareManager {
 	}
 
 	public void runDeltaNotPublishedTranslations (String pathCurrent, String pathPrevious, String destination) throws IOException, ClassNotFoundException, SQLException {
-		reader.readFile(pathCurrent);
-		reader.readFile(pathPrevious);
-		
-		writer.writeToFile(destination + "\\DeltaNotPublishedTranslations.tsv", comparator.generateDeltaOfNotPublishedTranslations());
+		readFile(pathCurrent);
+		readFile(pathPrevious);
 		
+		try (CountingRowSink delta = tsv(destination + "\\DeltaNotPublishedTranslations.tsv")) {
+			comparator.generateDeltaOfNotPublishedTranslations(delta);
+		}
 	}
 
 	/**
@@ -142,9 +175,10 @@ public class CompareManager {
 	 */
 	public void runDeltaNotPublishedTranslationsReusingCurrent(String pathPrevious, String destination)
 			throws IOException, ClassNotFoundException, SQLException {
-		reader.readFile(pathPrevious);
-		writer.writeToFile(destination + "\\DeltaNotPublishedTranslations.tsv",
-				comparator.generateDeltaOfNotPublishedTranslations());
+		readFile(pathPrevious);
+		try (CountingRowSink delta = tsv(destination + "\\DeltaNotPublishedTranslations.tsv")) {
+			comparator.generateDeltaOfNotPublishedTranslations(delta);
+		}
 	}
 	
 	public void runCheckDuplicateTerms(String destination) 
@@ -153,4 +187,17 @@ public class CompareManager {
 	        comparator.checkDuplicateTerms());
 	}
 
+	/** Loads an input file, through the session dataset if there is one. */
+	private void readFile(String path) throws IOException {
+		if (dataset != null) {
+			dataset.loadInto(path, resultCollector);
+		} else {
+			reader.readFile(path);
+		}
+	}
+
+	/** Opens a counting sink that streams rows into a TSV file. */
+	private static CountingRowSink tsv(String filePath) throws IOException {
+		return new CountingRowSink(new TsvRowSink(filePath));
+	}
 }
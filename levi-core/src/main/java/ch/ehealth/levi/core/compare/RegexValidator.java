@@ -2,49 +2,103 @@ package ch.ehealth.levi.core.compare;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
+/**
+ * Checks terms for typographic issues. All rules are evaluated by
+ * {@link #scan(String)} in a single walk over the term; the result is a
+ * bitmask of the {@code FLAG_*} constants, which {@link #toColumns} turns into
+ * the "OK"/"Please check" columns of the delta.
+ */
 public class RegexValidator {
-	private static final Pattern UPPERCASE_PATTERN = Pattern.compile("^\\p{Lu}"); // First letter upper case/lower case
-	private static final Pattern QUOTES_PATTERN = Pattern.compile("[\"“”„]");  // No Quotes    
-	private static final Pattern SPACE_AROUND_SLASH_PATTERN = Pattern.compile("\\s/\\s|\\s/|/\\s"); // No space before and after slash
-	private static final Pattern SOFT_HYPHEN_PATTERN = Pattern.compile("\\u00AD"); // No Soft Hyphen
-	private static final Pattern APOSTROPHE_PATTERN=Pattern.compile("//`");
-	
+	public static final int FLAG_QUOTES = 1; // Quotes: " “ ” „
+	public static final int FLAG_SOFT_HYPHEN = 1 << 1; // Soft hyphen U+00AD
+	public static final int FLAG_SPACE_AROUND_SLASH = 1 << 2; // Whitespace before or after a slash
+	public static final int FLAG_APOSTROPHE = 1 << 3; // The sequence //`
+	public static final int FLAG_STARTS_UPPER = 1 << 4; // First letter is an upper case letter
+
+	private static final String OK = "OK";
+	private static final String CHECK = "Please check";
 
     public static List<String> validateTerm(String languageCode, String term) {
-        List<String> results = new ArrayList<>();
-        
+        return toColumns(languageCode, scan(term));
+    }
+
+    /**
+     * Evaluates all rules in one pass over {@code term}. A {@code null} term
+     * yields no flags.
+     */
+    public static int scan(String term) {
+        if (term == null || term.isEmpty()) {
+            return 0;
+        }
+        int flags = Character.getType(term.codePointAt(0)) == Character.UPPERCASE_LETTER ? FLAG_STARTS_UPPER : 0;
+        int length = term.length();
+        for (int i = 0; i < length; i++) {
+            switch (term.charAt(i)) {
+            case '"', '“', '”', '„' -> flags |= FLAG_QUOTES;
+            case '\u00AD' -> flags |= FLAG_SOFT_HYPHEN;
+            case '/' -> {
+                if ((i > 0 && isWhitespace(term.charAt(i - 1)))
+                        || (i + 1 < length && isWhitespace(term.charAt(i + 1)))) {
+                    flags |= FLAG_SPACE_AROUND_SLASH;
+                }
+            }
+            case '`' -> {
+                if (i > 1 && term.charAt(i - 1) == '/' && term.charAt(i - 2) == '/') {
+                    flags |= FLAG_APOSTROPHE;
+                }
+            }
+            default -> {
+            }
+            }
+        }
+        return flags;
+    }
+
+    /**
+     * Converts the flags of {@link #scan(String)} into the five check columns
+     * (quotes, soft hyphen, space around slash, apostrophe, upper/lower case).
+     */
+    public static List<String> toColumns(String languageCode, int flags) {
+        return toColumns(languageCode, flags, false);
+    }
+
+    /**
+     * Like {@link #toColumns(String, int)}; if {@code termRulesApply}, the
+     * upper/lower case column of a language without a built-in check refers
+     * to the term rules column instead of reporting the term as unchecked.
+     */
+    public static List<String> toColumns(String languageCode, int flags, boolean termRulesApply) {
+        List<String> results = new ArrayList<>(5);
+
         //General checks for all languages
-        boolean hasQuotes = term != null && QUOTES_PATTERN.matcher(term).find();
-        results.add(hasQuotes ? "Please check" : "OK");
-        
-        boolean hasSoftHyphen =term !=null && SOFT_HYPHEN_PATTERN.matcher(term).find();
-        results.add(hasSoftHyphen ? "Please check" : "OK");
-        
-        boolean hasSpaceAround = term != null && SPACE_AROUND_SLASH_PATTERN.matcher(term).find();
-        results.add(hasSpaceAround ? "Please check" : "OK");
-        
-        boolean hasApostropheNotAllowed = term != null && APOSTROPHE_PATTERN.matcher(term).find();
-        results.add(hasApostropheNotAllowed ? "Please check" : "OK");
-
-        
+        results.add(check(flags, FLAG_QUOTES));
+        results.add(check(flags, FLAG_SOFT_HYPHEN));
+        results.add(check(flags, FLAG_SPACE_AROUND_SLASH));
+        results.add(check(flags, FLAG_APOSTROPHE));
+
+        boolean startsUpper = (flags & FLAG_STARTS_UPPER) != 0;
         if (languageCode.equals("de")) {
 			//Specific checks for German language
-        	boolean startsUpper = term != null && UPPERCASE_PATTERN.matcher(term).find();
-        	results.add(startsUpper ? "OK" : "Please check");
-            
-		} else if (languageCode.equals("fr")) {
-        	boolean startsUpper = term != null && UPPERCASE_PATTERN.matcher(term).find();
-        	results.add(startsUpper ? "Please check" : "OK");
-			
-		} else if (languageCode.equals("it")) {
-        	boolean startsUpper = term != null && UPPERCASE_PATTERN.matcher(term).find();
-        	results.add(startsUpper ? "Please check" : "OK");
-        	
+        	results.add(startsUpper ? OK : CHECK);
+
+		} else if (languageCode.equals("fr") || languageCode.equals("it")) {
+        	results.add(startsUpper ? CHECK : OK);
+
+		} else if (termRulesApply) {
+			results.add("see Term rules"); // checked by the configured rules of the language
 		}  else {
 			results.add("language code not recognized and therefore not checked"); // Default case for other languages
 		}
         return results;
     }
+
+    private static String check(int flags, int flag) {
+        return (flags & flag) != 0 ? CHECK : OK;
+    }
+
+    /** Whitespace as matched by {@code \s} in a Java regex. */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
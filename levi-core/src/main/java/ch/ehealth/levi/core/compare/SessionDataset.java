@@ -0,0 +1,135 @@
+package ch.ehealth.levi.core.compare;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.ehealth.levi.core.Conf;
+import ch.ehealth.levi.core.DbConnection;
+import ch.ehealth.levi.core.DescriptionExtract;
+import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.io.FileReaderUtil;
+
+/**
+ * Input rows and database extracts shared by the {@link CompareManager}s of
+ * one session, e.g. all jobs of a GUI queue run.
+ *
+ * <p>
+ * Every input file is parsed at most once and every database extract is
+ * queried at most once per session. The dataset keeps its own rows untouched:
+ * each job receives copies of the rows in its own {@link ResultCollector},
+ * because the comparison adjusts rows in place (language code, ß) and adds
+ * its results to the collector. Jobs therefore produce the same output as
+ * with a fresh {@link CompareManager}, whatever ran before them.
+ * </p>
+ */
+public class SessionDataset {
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionDataset.class);
+
+	private final Conf conf;
+	private final Map<String, ResultCollector> inputs = new HashMap<>();
+	private final Map<List<Object>, ResultCollector> extracts = new HashMap<>();
+	private DescriptionExtract descriptionExtract; // descriptions of every concept requested so far, null if none
+
+	/** A database query that adds its rows to the collector of the connection. */
+	@FunctionalInterface
+	public interface Extract {
+		void query(DbConnection db) throws SQLException, ClassNotFoundException, UnsupportedEncodingException;
+	}
+
+	/**
+	 * @param conf settings used to parse the input files and to query the
+	 *             database for the whole session
+	 */
+	public SessionDataset(Conf conf) {
+		this.conf = conf;
+	}
+
+	/**
+	 * Adds copies of the rows of {@code filePath} to {@code target}; the file is
+	 * only parsed the first time.
+	 */
+	public synchronized void loadInto(String filePath, ResultCollector target) throws IOException {
+		ResultCollector rows = inputs.get(filePath);
+		if (rows == null) {
+			rows = new ResultCollector();
+			new FileReaderUtil(rows, conf).readFile(filePath);
+			inputs.put(filePath, rows);
+		} else {
+			logger.info("Reusing rows of {} loaded earlier in this session.", filePath);
+		}
+		copyInto(rows, target);
+	}
+
+	/**
+	 * Adds copies of the rows of a database extract to {@code target}. The
+	 * extract is queried the first time its {@code key} is requested.
+	 *
+	 * @param key identifies the query and all of its arguments
+	 */
+	public synchronized void extractInto(List<Object> key, ResultCollector target, Extract extract)
+			throws SQLException, ClassNotFoundException, UnsupportedEncodingException {
+		ResultCollector rows = extracts.get(key);
+		if (rows == null) {
+			rows = new ResultCollector();
+			extract.query(new DbConnection(rows, conf));
+			extracts.put(key, rows);
+		} else {
+			logger.info("Reusing database extract '{}' queried earlier in this session.", key.get(0));
+		}
+		copyInto(rows, target);
+	}
+
+	/**
+	 * Returns the description extract of {@code conceptIds}. Only the concepts
+	 * not requested before in this session are read from the database, so a
+	 * queue reads the descriptions of each concept once, however its jobs
+	 * overlap. The returned extract only holds {@code conceptIds}.
+	 */
+	public synchronized DescriptionExtract descriptionExtract(Set<String> conceptIds)
+			throws SQLException, ClassNotFoundException {
+		Set<String> missing = new HashSet<>(conceptIds);
+		if (descriptionExtract != null) {
+			missing.removeAll(descriptionExtract.getConceptIds());
+		}
+		if (descriptionExtract == null || !missing.isEmpty()) {
+			DescriptionExtract read = new DbConnection(new ResultCollector(), conf).extractDescriptions(missing);
+			descriptionExtract = descriptionExtract == null ? read : descriptionExtract.union(read);
+		}
+		if (missing.size() < conceptIds.size()) {
+			logger.info("Reusing descriptions of {} concepts read earlier in this session.",
+					conceptIds.size() - missing.size());
+		}
+		return descriptionExtract.restrictTo(conceptIds);
+	}
+
+	/**
+	 * Releases all rows held by the session.
+	 */
+	public synchronized void clear() {
+		inputs.clear();
+		extracts.clear();
+		descriptionExtract = null;
+	}
+
+	private static void copyInto(ResultCollector rows, ResultCollector target) {
+		for (String type : rows.getTypes()) {
+			List<List<String>> source = rows.getDataByType(type);
+			List<List<String>> copies = new ArrayList<>(source.size());
+			for (List<String> row : source) {
+				copies.add(new ArrayList<>(row));
+			}
+			target.addRows(type, copies);
+		}
+	}
+}
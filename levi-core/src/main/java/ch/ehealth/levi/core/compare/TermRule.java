@@ -0,0 +1,55 @@
+package ch.ehealth.levi.core.compare;
+
+/**
+ * A configurable check of a translated term, evaluated by
+ * {@link TermRuleEngine}.
+ *
+ * <p>
+ * A rule fires when its regular expression is found in the term, or, for a
+ * required rule, when it is not found. For example, the German capitalization
+ * check is the required rule {@code ^\p{Lu}}.
+ * </p>
+ */
+public class TermRule {
+
+	private String name;
+	private String pattern;
+	private boolean required;
+
+	public TermRule() {
+		// Empty constructor for JSON deserialization
+	}
+
+	public TermRule(String name, String pattern, boolean required) {
+		this.name = name;
+		this.pattern = pattern;
+		this.required = required;
+	}
+
+	/** Name reported in the delta when the rule fires. */
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/** Regular expression searched for in the term. */
+	public String getPattern() {
+		return pattern;
+	}
+
+	public void setPattern(String pattern) {
+		this.pattern = pattern;
+	}
+
+	/** {@code true} if the term must contain the pattern, {@code false} if it must not. */
+	public boolean isRequired() {
+		return required;
+	}
+
+	public void setRequired(boolean required) {
+		this.required = required;
+	}
+}
@@ -0,0 +1,139 @@
+package ch.ehealth.levi.core.compare;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Evaluates the configured {@link TermRule}s of a language against translated
+ * terms and reports the rules that fired.
+ *
+ * <p>
+ * Rules are configured per language code; rules under {@link #ALL_LANGUAGES}
+ * apply to every language and are evaluated first. The rule set of a language
+ * is compiled once, on first use, and then shared by all threads, so the
+ * engine can be used from the partitions of a parallel comparison.
+ * </p>
+ */
+public class TermRuleEngine {
+
+	/** Language key of rules that apply to every language. */
+	public static final String ALL_LANGUAGES = "*";
+
+	private static final String OK = "OK";
+
+	private final Map<String, List<TermRule>> rulesByLanguage;
+	private final Map<String, CompiledRule[]> ruleSets = new ConcurrentHashMap<>();
+
+	private static final class CompiledRule {
+
+		private final String name;
+		private final Pattern pattern;
+		private final boolean required;
+
+		CompiledRule(String name, Pattern pattern, boolean required) {
+			this.name = name;
+			this.pattern = pattern;
+			this.required = required;
+		}
+	}
+
+	/**
+	 * @param rulesByLanguage rules per language code
+	 * @throws IllegalArgumentException if a rule has no name or an invalid pattern
+	 */
+	public TermRuleEngine(Map<String, List<TermRule>> rulesByLanguage) {
+		this.rulesByLanguage = rulesByLanguage;
+		// Compile all configured rule sets up front so that errors surface before a run
+		for (String languageCode : rulesByLanguage.keySet()) {
+			ruleSet(languageCode);
+		}
+	}
+
+	/**
+	 * Returns the names of the rules of {@code languageCode} that fire for
+	 * {@code term}, in rule order.
+	 */
+	public List<String> evaluate(String languageCode, String term) {
+		CompiledRule[] rules = ruleSet(languageCode);
+		if (rules.length == 0) {
+			return Collections.emptyList();
+		}
+		String text = term == null ? "" : term;
+		List<String> fired = new ArrayList<>(1);
+		for (CompiledRule rule : rules) {
+			if (rule.pattern.matcher(text).find() != rule.required) {
+				fired.add(rule.name);
+			}
+		}
+		return fired;
+	}
+
+	/**
+	 * Returns whether rules are configured for {@code languageCode} itself, not
+	 * only for {@link #ALL_LANGUAGES}.
+	 */
+	public boolean hasRules(String languageCode) {
+		String key = languageCode == null ? "" : languageCode.trim();
+		for (String configuredLanguage : rulesByLanguage.keySet()) {
+			if (!ALL_LANGUAGES.equals(configuredLanguage) && configuredLanguage.trim().equalsIgnoreCase(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the delta column for {@code term}: "OK", or the names of the
+	 * rules that fired, separated by commas.
+	 */
+	public String describe(String languageCode, String term) {
+		List<String> fired = evaluate(languageCode, term);
+		return fired.isEmpty() ? OK : String.join(", ", fired);
+	}
+
+	private CompiledRule[] ruleSet(String languageCode) {
+		String key = languageCode == null ? "" : languageCode.trim().toLowerCase(Locale.ROOT);
+		return ruleSets.computeIfAbsent(key, this::compile);
+	}
+
+	private CompiledRule[] compile(String languageCode) {
+		List<CompiledRule> compiled = new ArrayList<>();
+		compileInto(compiled, ALL_LANGUAGES);
+		if (!ALL_LANGUAGES.equals(languageCode)) {
+			for (Map.Entry<String, List<TermRule>> entry : rulesByLanguage.entrySet()) {
+				if (entry.getKey().trim().equalsIgnoreCase(languageCode)) {
+					compileInto(compiled, entry.getKey());
+				}
+			}
+		}
+		return compiled.toArray(new CompiledRule[0]);
+	}
+
+	private void compileInto(List<CompiledRule> compiled, String configuredLanguage) {
+		List<TermRule> rules = rulesByLanguage.get(configuredLanguage);
+		if (rules == null) {
+			return;
+		}
+		for (TermRule rule : rules) {
+			if (rule.getName() == null || rule.getName().isBlank()) {
+				throw new IllegalArgumentException("Term rule without name for language '" + configuredLanguage + "'");
+			}
+			if (rule.getPattern() == null) {
+				throw new IllegalArgumentException("Term rule '" + rule.getName() + "' for language '"
+						+ configuredLanguage + "' has no pattern");
+			}
+			try {
+				compiled.add(new CompiledRule(rule.getName(), Pattern.compile(rule.getPattern()), rule.isRequired()));
+			} catch (PatternSyntaxException e) {
+				throw new IllegalArgumentException("Invalid pattern of term rule '" + rule.getName() + "' for language '"
+						+ configuredLanguage + "': " + rule.getPattern(), e);
+			}
+		}
+	}
+}
@@ -3,18 +3,19 @@ package ch.ehealth.levi.core.export;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.ehealth.levi.core.compare.ChangeType;
 import ch.ehealth.levi.core.io.FileWriterUtil;
+import ch.ehealth.levi.core.io.ParallelFileWriter;
 
 /**
  * Groups SNOMED release concepts by their combination of change types and
@@ -46,6 +47,11 @@ import ch.ehealth.levi.core.io.FileWriterUtil;
  * list is split into chunks.  All files within the same group and batch always
  * contain the <em>identical</em> set of concept IDs, guaranteeing alignment.</p>
  *
+ * <h3>Routing</h3>
+ * <p>Every concept is assigned to one (group, batch) output up front, and each
+ * delta is then read once, appending every row to the output of its concept.
+ * Export time therefore grows linearly with the size of the deltas.</p>
+ *
  * <h3>File naming</h3>
  * <ul>
  *   <li>No split: {@code G5_changes.tsv}, {@code G5_additions.tsv}</li>
@@ -102,6 +108,7 @@ public class BatchExportService {
 
     private final int batchSize;
     private final FileWriterUtil writer;
+    private final int writeThreads;
 
     public BatchExportService() {
         this(DEFAULT_BATCH_SIZE, new FileWriterUtil());
@@ -116,11 +123,21 @@ public class BatchExportService {
      * @param writer    file writer to use for output
      */
     public BatchExportService(int batchSize, FileWriterUtil writer) {
+        this(batchSize, writer, 1);
+    }
+
+    /**
+     * @param batchSize    maximum number of concept IDs per batch (must be &gt;= 1)
+     * @param writer       file writer to use for output
+     * @param writeThreads number of files written concurrently (1 = sequential)
+     */
+    public BatchExportService(int batchSize, FileWriterUtil writer, int writeThreads) {
         if (batchSize < 1) {
             throw new IllegalArgumentException("batchSize must be >= 1, got: " + batchSize);
         }
-        this.batchSize = batchSize;
-        this.writer    = writer;
+        this.batchSize    = batchSize;
+        this.writer       = writer;
+        this.writeThreads = writeThreads;
     }
 
     // =========================================================================
@@ -151,7 +168,8 @@ public class BatchExportService {
      * @param resultCollector    used to resolve description ID → concept ID for
      *                           changes and reactivations
      * @param destination        output directory path
-     * @throws IOException if any output file cannot be written
+     * @throws IOException if any output file cannot be written; all other files
+     *                     are still written and every failure is reported
      */
     public void export(
             List<List<String>> additionsDelta,
@@ -171,21 +189,23 @@ public class BatchExportService {
         Map<EnumSet<ChangeType>, List<String>> groups = groupConcepts(matrix);
         logger.info("{} non-empty concept groups identified.", groups.size());
 
-        // Steps 3 + 4 – for each group write aligned, optionally split, files
-        for (Map.Entry<EnumSet<ChangeType>, List<String>> entry : groups.entrySet()) {
-            EnumSet<ChangeType> combination = entry.getKey();
-            List<String>        conceptIds  = entry.getValue();
-            String              groupName   = GROUPS.get(combination);
+        // Step 3 – assign every concept to its (group, batch) output
+        List<BatchOutput> outputs = new ArrayList<>();
+        Map<String, BatchOutput> routes = assignBatches(groups, outputs);
 
-            if (groupName == null) {
-                logger.warn("Unmapped change-type combination {}; skipping {} concept(s).",
-                        combination, conceptIds.size());
-                continue;
-            }
+        // Step 4 – route each delta row to its output in one pass per delta
+        for (ChangeType type : ChangeType.values()) {
+            List<List<String>> delta = selectDelta(
+                    type, additionsDelta, changesDelta, inactivationsDelta, reactivationsDelta);
+            routeRows(type, delta, routes, resultCollector);
+        }
 
-            writeGroupFiles(groupName, combination, conceptIds,
-                    additionsDelta, changesDelta, inactivationsDelta, reactivationsDelta,
-                    resultCollector, destination);
+        // Step 5 – write aligned, optionally split, files
+        try (ParallelFileWriter files = new ParallelFileWriter(writer, writeThreads)) {
+            for (BatchOutput output : outputs) {
+                writeBatchFiles(output, destination, files);
+            }
+            files.awaitAll();
         }
     }
 
@@ -281,79 +301,113 @@ public class BatchExportService {
     }
 
     // =========================================================================
-    // Steps 3 + 4 – write group files with optional batch splitting
+    // Steps 3 – 5 – route rows to aligned batch outputs and write them
     // =========================================================================
 
-    private void writeGroupFiles(
-            String groupName,
-            EnumSet<ChangeType> combination,
-            List<String> groupConceptIds,
-            List<List<String>> additionsDelta,
-            List<List<String>> changesDelta,
-            List<List<String>> inactivationsDelta,
-            List<List<String>> reactivationsDelta,
-            ResultCollector rc,
-            String destination) throws IOException {
-
-        // Split concept ID list into chunks (splitting always by concept ID, never by line)
-        List<List<String>> batches  = splitIntoChunks(groupConceptIds, batchSize);
-        boolean            useSuffix = batches.size() > 1;
+    /**
+     * Rows collected for one batch of one group, per change type. Every list
+     * starts with the header row of its delta.
+     */
+    private static final class BatchOutput {
+        final String              groupName;
+        final EnumSet<ChangeType> combination;
+        final int                 batchIndex;
+        final int                 batchCount;
+        final Map<ChangeType, List<List<String>>> rows = new EnumMap<>(ChangeType.class);
+
+        BatchOutput(String groupName, EnumSet<ChangeType> combination, int batchIndex, int batchCount) {
+            this.groupName   = groupName;
+            this.combination = combination;
+            this.batchIndex  = batchIndex;
+            this.batchCount  = batchCount;
+        }
+    }
 
-        for (int batchIdx = 0; batchIdx < batches.size(); batchIdx++) {
-            Set<String> batchConceptSet = new HashSet<>(batches.get(batchIdx));
-            String      suffix          = useSuffix ? "_batch" + (batchIdx + 1) : "";
+    /**
+     * Splits every group into batches (always by concept ID, never by line) and
+     * returns the concept ID → batch output routing table. The outputs are
+     * added to {@code outputs} in group and batch order.
+     */
+    private Map<String, BatchOutput> assignBatches(
+            Map<EnumSet<ChangeType>, List<String>> groups,
+            List<BatchOutput> outputs) {
 
-            for (ChangeType type : combination) {
-                List<List<String>> delta = selectDelta(
-                        type, additionsDelta, changesDelta, inactivationsDelta, reactivationsDelta);
+        Map<String, BatchOutput> routes = new HashMap<>();
+        for (Map.Entry<EnumSet<ChangeType>, List<String>> entry : groups.entrySet()) {
+            EnumSet<ChangeType> combination = entry.getKey();
+            List<String>        conceptIds  = entry.getValue();
+            String              groupName   = GROUPS.get(combination);
 
-                if (delta == null || delta.size() <= 1) {
-                    // No data rows for this change type (acceptance criterion: no file written)
-                    continue;
-                }
+            if (groupName == null) {
+                logger.warn("Unmapped change-type combination {}; skipping {} concept(s).",
+                        combination, conceptIds.size());
+                continue;
+            }
 
-                List<List<String>> filtered = filterByConceptId(delta, type, batchConceptSet, rc);
-                if (filtered.size() <= 1) {
-                    // Only header, no matching rows – skip
-                    continue;
+            List<List<String>> batches = splitIntoChunks(conceptIds, batchSize);
+            for (int batchIdx = 0; batchIdx < batches.size(); batchIdx++) {
+                BatchOutput output = new BatchOutput(groupName, combination, batchIdx, batches.size());
+                outputs.add(output);
+                for (String conceptId : batches.get(batchIdx)) {
+                    routes.put(conceptId, output);
                 }
-
-                String fileName = destination + File.separator
-                        + groupName + "_" + type.fileNameToken() + suffix + ".tsv";
-                writer.writeToFile(fileName, filtered);
-                logger.info("Group {}, batch {}/{}: wrote {} data rows to '{}'.",
-                        groupName, batchIdx + 1, batches.size(), filtered.size() - 1, fileName);
             }
         }
+        return routes;
     }
 
-    // =========================================================================
-    // Helpers
-    // =========================================================================
-
     /**
-     * Returns the subset of {@code delta} rows (plus the header) whose concept ID
-     * is contained in {@code conceptIdSet}.
+     * Appends every data row of {@code delta} to the output its concept is
+     * assigned to. Rows keep their order within each output.
      */
-    private List<List<String>> filterByConceptId(
-            List<List<String>> delta,
+    private void routeRows(
             ChangeType type,
-            Set<String> conceptIdSet,
+            List<List<String>> delta,
+            Map<String, BatchOutput> routes,
             ResultCollector rc) {
 
-        List<List<String>> result = new ArrayList<>();
-        result.add(delta.get(0)); // always include header
+        if (delta == null || delta.size() <= 1) {
+            // No data rows for this change type (acceptance criterion: no file written)
+            return;
+        }
 
+        List<String> header = delta.get(0);
         for (int i = 1; i < delta.size(); i++) {
             List<String> row       = delta.get(i);
             String       conceptId = extractConceptId(row, type, rc);
-            if (conceptId != null && conceptIdSet.contains(conceptId)) {
-                result.add(row);
+            BatchOutput  output    = (conceptId != null) ? routes.get(conceptId) : null;
+            if (output != null) {
+                output.rows.computeIfAbsent(type, t -> {
+                    List<List<String>> rows = new ArrayList<>();
+                    rows.add(header); // always include header
+                    return rows;
+                }).add(row);
             }
         }
-        return result;
     }
 
+    private void writeBatchFiles(BatchOutput output, String destination, ParallelFileWriter files) {
+        String suffix = output.batchCount > 1 ? "_batch" + (output.batchIndex + 1) : "";
+
+        for (ChangeType type : output.combination) {
+            List<List<String>> rows = output.rows.get(type);
+            if (rows == null) {
+                // Only header, no matching rows – skip
+                continue;
+            }
+
+            String fileName = destination + File.separator
+                    + output.groupName + "_" + type.fileNameToken() + suffix + ".tsv";
+            logger.info("Group {}, batch {}/{}: writing {} data rows to '{}'.",
+                    output.groupName, output.batchIndex + 1, output.batchCount, rows.size() - 1, fileName);
+            files.submit(fileName, rows);
+        }
+    }
+
+    // =========================================================================
+    // Helpers
+    // =========================================================================
+
     /**
      * Extracts the concept ID from a delta row according to the column conventions
      * for each {@link ChangeType}.
@@ -0,0 +1,38 @@
+package ch.ehealth.levi.core.export;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Forwards rows to another sink and counts them.
+ */
+public class CountingRowSink implements RowSink {
+
+	private final RowSink delegate;
+	private int count;
+
+	public CountingRowSink(RowSink delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void accept(List<String> row) throws IOException {
+		delegate.accept(row);
+		count++;
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+	/** Number of rows received, including the header. */
+	public int getCount() {
+		return count;
+	}
+
+	/** Number of data rows received, i.e. without the header. */
+	public int getDataRowCount() {
+		return Math.max(0, count - 1);
+	}
+}
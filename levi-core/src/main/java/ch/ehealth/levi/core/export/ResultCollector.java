@@ -2,7 +2,9 @@ package ch.ehealth.levi.core.export;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -12,7 +14,15 @@ import ch.ehealth.levi.core.compare.Comparator;
 public class ResultCollector {
 	private String type;
 	private List<String> data;
-	private List<ResultCollector> entries = new ArrayList<>();
+
+	/**
+	 * Rows partitioned by entry type (e.g. NEW_TRANSLATION_CURRENT). Each
+	 * partition keeps its rows in insertion order, so type lookups no longer
+	 * have to scan the rows of every other type. Partitions are kept in the
+	 * order in which their type was first added.
+	 */
+	private final Map<String, List<List<String>>> partitions = new LinkedHashMap<>();
+	private int entryCount;
 
 	/**
 	 * Maps description ID → concept ID for TRANSLATION_CHANGES and
@@ -31,7 +41,12 @@ public class ResultCollector {
 	}
 
 	private void addEntry(String type, List<String> data) {
-		entries.add(new ResultCollector(type, data));
+		partitions.computeIfAbsent(type, k -> new ArrayList<>()).add(data);
+		entryCount++;
+	}
+
+	private List<List<String>> partition(String type) {
+		return partitions.getOrDefault(type, Collections.emptyList());
 	}
 
 	public void setFullNewTranslationPrevious(String conceptId, String fsn, String pt, String term,
@@ -120,11 +135,21 @@ public class ResultCollector {
 
 	
 	public List<ResultCollector> getEntriesByType(String type) {
-		return entries.stream().filter(e -> e.getType().equals(type)).collect(Collectors.toList());
+		return partition(type).stream().map(row -> new ResultCollector(type, row)).collect(Collectors.toList());
 	}
 
+	/**
+	 * Returns all entries grouped by type, in the order in which each type was
+	 * first added.
+	 */
 	public List<ResultCollector> getAllEntries() {
-		return new ArrayList<>(entries);
+		List<ResultCollector> all = new ArrayList<>(entryCount);
+		for (Map.Entry<String, List<List<String>>> partition : partitions.entrySet()) {
+			for (List<String> row : partition.getValue()) {
+				all.add(new ResultCollector(partition.getKey(), row));
+			}
+		}
+		return all;
 	}
 
 	/**
@@ -134,32 +159,44 @@ public class ResultCollector {
 	 * @return List of IDs
 	 */
 	public List<String> getIds() {
-		return entries.stream().map(e -> e.getData().get(0)).collect(Collectors.toList());
+		return partitions.values().stream().flatMap(List::stream).map(row -> row.get(0)).collect(Collectors.toList());
 	}
 
 	public List<String> getOnlyData() {
-		return entries.stream().flatMap(e -> e.getData().stream()) // TODO: no flatMap, should return List<List<String>>
+		return partitions.values().stream().flatMap(List::stream).flatMap(List::stream) // TODO: no flatMap, should return List<List<String>>
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Returns the rows of the given type. The returned list is a copy and may be
+	 * modified by the caller; the rows themselves are shared with the collector.
+	 */
 	public List<List<String>> getDataByType(String type) {
-		return entries.stream().filter(e -> e.getType().equals(type)).map(ResultCollector::getData)
-				.collect(Collectors.toList());
+		return new ArrayList<>(partition(type));
 	}
 	
 	public List<String> getIdsByType(String type) {
-	    return entries.stream()
-	        .filter(e -> e.getType().equals(type))
-	        .map(e -> e.getData().get(0)) // Concept ID
-	        .collect(Collectors.toList());
+		List<List<String>> rows = partition(type);
+		List<String> ids = new ArrayList<>(rows.size());
+		for (List<String> row : rows) {
+			ids.add(row.get(0)); // Concept ID
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the number of entries of the given type without copying them.
+	 */
+	public int countByType(String type) {
+		return partition(type).size();
 	}
 	
 	public boolean containsType(String type) {
-	    return entries.stream().anyMatch(e -> e.getType().equals(type));
+	    return !partition(type).isEmpty();
 	}
 
 	public boolean isEmpty() {
-		return entries.isEmpty();
+		return entryCount == 0;
 	}
 
 	public String getType() {
@@ -188,8 +225,41 @@ public class ResultCollector {
 		return descriptionToConceptId.get(descriptionId);
 	}
 
+	/**
+	 * Returns the entry types present, in the order in which each type was
+	 * first added.
+	 */
+	public List<String> getTypes() {
+		return new ArrayList<>(partitions.keySet());
+	}
+
+	/**
+	 * Appends already built rows of the given type, e.g. rows restored from
+	 * the parsed-input cache.
+	 */
+	public void addRows(String type, List<List<String>> rows) {
+		for (List<String> row : rows) {
+			addEntry(type, row);
+		}
+	}
+
+	/**
+	 * Appends all entries of {@code other} to this collector, keeping their
+	 * order. Used to combine collectors filled concurrently, e.g. by parallel
+	 * database shards, into one deterministic result.
+	 */
+	public void mergeFrom(ResultCollector other) {
+		for (Map.Entry<String, List<List<String>>> partition : other.partitions.entrySet()) {
+			for (List<String> row : partition.getValue()) {
+				addEntry(partition.getKey(), row);
+			}
+		}
+		descriptionToConceptId.putAll(other.descriptionToConceptId);
+	}
+
 	public void clear() {
-		entries.clear();
+		partitions.clear();
+		entryCount = 0;
 		descriptionToConceptId.clear();
 	}
 
@@ -0,0 +1,33 @@
+package ch.ehealth.levi.core.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the rows of a delta one at a time, header first.
+ *
+ * <p>
+ * The delta generators in {@link ch.ehealth.levi.core.compare.Comparator}
+ * emit their rows to a sink instead of building the whole output in memory.
+ * A sink may write the rows straight to a file, count them, or collect them
+ * for further processing such as the {@link BatchExportService}.
+ * </p>
+ */
+@FunctionalInterface
+public interface RowSink extends Closeable {
+
+	void accept(List<String> row) throws IOException;
+
+	@Override
+	default void close() throws IOException {
+		// nothing to release by default
+	}
+
+	/**
+	 * Returns a sink that appends every row to {@code rows}.
+	 */
+	static RowSink into(List<List<String>> rows) {
+		return rows::add;
+	}
+}
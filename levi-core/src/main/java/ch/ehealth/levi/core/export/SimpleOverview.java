@@ -1,10 +1,6 @@
 package ch.ehealth.levi.core.export;
 
-import java.io.IOException;
-import java.util.List;
-
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 
 import ch.ehealth.levi.core.processor.CsvProcessor;
 
@@ -14,31 +10,12 @@ public class SimpleOverview extends CsvProcessor{
 	
 	public SimpleOverview(CSVReader csvReader, ResultCollector collector) {
         super(csvReader);
-        // Assign the injected collector so it's available in process()
+        // Assign the injected collector so it's available in processRow()
         this.collector = collector;
     }
 
     @Override
-    public void process() throws IOException {
-        List<String[]> rows = null;
-		try {
-			rows = csvReader.readAll();
-		} catch (IOException | CsvException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		
-		// defensive: if reading failed rows may be null
-		if (rows == null || rows.isEmpty()) {
-			return;
-		}
-		
-		boolean isFirstRow = true;
-        for (String[] row : rows) {
-        	if (isFirstRow) {
-				isFirstRow = false;
-				continue; // Skip the header row
-			}
+    protected void processRow(String[] row) {
         	String conceptId = row[0];
         	collector.setFullNewTranslationCurrent(
 	        		conceptId, "", 
@@ -59,6 +36,5 @@ public class SimpleOverview extends CsvProcessor{
 	        		"", // placeholder for acceptabilityId5
 	        		"" // placeholder for notes
 	        		);
-        }
     }
 }
\ No newline at end of file
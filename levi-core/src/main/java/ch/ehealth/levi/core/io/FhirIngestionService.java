@@ -0,0 +1,208 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ca.uhn.fhir.parser.DataFormatException;
+import ch.ehealth.levi.core.Conf;
+import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.processor.FhirJsonValueSetProcessor;
+
+/**
+ * Loads the designations of several FHIR ValueSets into a
+ * {@link ResultCollector}: a directory of JSON files, each holding a ValueSet
+ * or a Bundle of ValueSets, or a single such file.
+ *
+ * <p>
+ * The files are split into their ValueSet resources first: the resource type
+ * is read with a streaming parser, a ValueSet file is handed to HAPI as it is
+ * and only a Bundle is read into a tree to take out its entries. The resources
+ * are then parsed with the shared FHIR context on up to
+ * {@link Conf#getParseThreads()} threads. Every resource is parsed into its
+ * own collector and the collectors are merged in input order (files sorted by
+ * name, Bundle entries in Bundle order), so the rows are the same as when the
+ * resources are parsed one after another.
+ * </p>
+ */
+public class FhirIngestionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(FhirIngestionService.class);
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final ResultCollector resultCollector;
+	private final Conf conf;
+
+	public FhirIngestionService(ResultCollector collector, Conf conf) {
+		this.resultCollector = collector;
+		this.conf = conf;
+	}
+
+	/**
+	 * A ValueSet resource and the file it came from: the file itself, read when
+	 * it is parsed, or the JSON of a Bundle entry.
+	 */
+	private static final class ValueSetSource {
+
+		private final String name;
+		private final Path file;
+		private final String json;
+
+		ValueSetSource(String name, Path file, String json) {
+			this.name = name;
+			this.file = file;
+			this.json = json;
+		}
+	}
+
+	/**
+	 * Returns the {@code resourceType} of the JSON resource in {@code file}, or
+	 * {@code null} if it has none. Only the top-level fields are scanned; nested
+	 * objects are skipped without being read into memory.
+	 *
+	 * @throws IOException if the file cannot be read or is not valid JSON
+	 */
+	public static String resourceType(Path file) throws IOException {
+		try (JsonParser parser = MAPPER.getFactory().createParser(file.toFile())) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("resourceType".equals(field)) {
+					return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+				}
+				parser.skipChildren();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Loads the ValueSets of {@code path}, a JSON file or a directory of JSON
+	 * files.
+	 *
+	 * @throws IOException if a file cannot be read or holds no ValueSet or
+	 *                     Bundle
+	 */
+	public void ingest(Path path) throws IOException {
+		List<Path> files;
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> entries = Files.list(path)) {
+				files = entries.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().endsWith(".json"))
+						.sorted().toList();
+			}
+		} else {
+			files = List.of(path);
+		}
+
+		List<ValueSetSource> valueSets = new ArrayList<>();
+		for (Path file : files) {
+			split(file, valueSets);
+		}
+		logger.info("Parsing {} FHIR ValueSets from {} file(s)...", valueSets.size(), files.size());
+
+		int threads = Math.min(conf.getParseThreads(), valueSets.size());
+		if (threads <= 1) {
+			for (ValueSetSource valueSet : valueSets) {
+				parse(valueSet, resultCollector);
+			}
+			return;
+		}
+		parseInParallel(valueSets, threads);
+	}
+
+	/**
+	 * Adds the ValueSets of {@code file} to {@code valueSets}: the file itself,
+	 * or the ValueSet entries of a Bundle.
+	 */
+	private void split(Path file, List<ValueSetSource> valueSets) throws IOException {
+		String resourceType = resourceType(file);
+		String name = file.getFileName().toString();
+
+		if ("ValueSet".equals(resourceType)) {
+			valueSets.add(new ValueSetSource(name, file, null));
+		} else if ("Bundle".equals(resourceType)) {
+			JsonNode resource = MAPPER.readTree(file.toFile());
+			int entryIndex = 0;
+			for (JsonNode entry : resource.path("entry")) {
+				JsonNode entryResource = entry.path("resource");
+				if ("ValueSet".equals(entryResource.path("resourceType").asText(null))) {
+					valueSets.add(new ValueSetSource(name + " entry " + entryIndex, null, entryResource.toString()));
+				} else {
+					logger.warn("Skipping non-ValueSet entry {} of Bundle {}", entryIndex, name);
+				}
+				entryIndex++;
+			}
+		} else {
+			throw new IOException("Expected a FHIR ValueSet or Bundle in " + file + " but found " + resourceType);
+		}
+	}
+
+	private void parseInParallel(List<ValueSetSource> valueSets, int threads) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "levi-fhir-parser");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<ResultCollector>> futures = new ArrayList<>(valueSets.size());
+			for (ValueSetSource valueSet : valueSets) {
+				futures.add(executor.submit(() -> {
+					ResultCollector collector = new ResultCollector();
+					parse(valueSet, collector);
+					return collector;
+				}));
+			}
+
+			for (Future<ResultCollector> future : futures) {
+				resultCollector.mergeFrom(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing FHIR ValueSets", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioException) {
+				throw ioException;
+			}
+			throw new IOException("Failed to parse FHIR ValueSet: " + cause.getMessage(), cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void parse(ValueSetSource valueSet, ResultCollector collector) throws IOException {
+		FhirJsonValueSetProcessor processor = new FhirJsonValueSetProcessor(collector, conf);
+		try {
+			if (valueSet.file == null) {
+				processor.processValueSet(valueSet.json);
+			} else {
+				try (Reader reader = Files.newBufferedReader(valueSet.file, StandardCharsets.UTF_8)) {
+					processor.processValueSet(reader);
+				}
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid FHIR ValueSet in " + valueSet.name + ": " + e.getMessage(), e);
+		}
+	}
+}
@@ -3,7 +3,6 @@ package ch.ehealth.levi.core.io;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,39 +11,133 @@ import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 
+import ch.ehealth.levi.core.Conf;
 import ch.ehealth.levi.core.export.ResultCollector;
 import ch.ehealth.levi.core.export.SimpleOverview;
+import ch.ehealth.levi.core.processor.CsvProcessor;
 import ch.ehealth.levi.core.processor.DescriptionAdditionLoader;
 import ch.ehealth.levi.core.processor.DescriptionInactivationLoader;
-import ch.ehealth.levi.core.processor.FhirJsonValueSetProcessor;
+import ch.ehealth.levi.core.processor.FhirJsonValueSetStreamProcessor;
 import ch.ehealth.levi.core.processor.PropCsvProcessor;
 import ch.ehealth.levi.core.processor.SiAdditionsCsvProcessor;
+import ch.ehealth.levi.core.processor.SheetRowConsumer;
 import ch.ehealth.levi.core.processor.SiInactivationsCSVProcessor;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 public class FileReaderUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(FileReaderUtil.class);
 
 	private ResultCollector resultCollector;
+	private final Conf conf;
+	private final ParsedInputCache inputCache;
+	private boolean readFailed; // an error was logged while parsing the file
+	private boolean languagePrompted; // a language code was asked for while parsing the file
 
 	public FileReaderUtil(ResultCollector collector) {
+		this(collector, new Conf());
+	}
+
+	/**
+	 * @param conf supplies the reading options (parse threads, FHIR streaming,
+	 *             input cache) and the language reference sets of FHIR
+	 *             designations
+	 */
+	public FileReaderUtil(ResultCollector collector, Conf conf) {
+		this(collector, conf, conf.getInputCacheDir() == null || conf.getInputCacheDir().isBlank() ? null
+				: new ParsedInputCache(Path.of(conf.getInputCacheDir()), "country=" + conf.getCountryCode()));
+	}
+
+	private FileReaderUtil(ResultCollector collector, Conf conf, ParsedInputCache inputCache) {
 		this.resultCollector = collector;
+		this.conf = conf;
+		this.inputCache = inputCache;
 	}
 
 	/**
 	 * Reads a CSV file and populates the `Compare` class with the extracted data.
 	 *
+	 * <p>
+	 * If an input cache is configured, the rows of a file that was parsed
+	 * before and has not changed since are restored from the cache instead.
+	 * </p>
+	 *
 	 * @param csvFile The file path to the CSV file.
 	 * @throws IOException If an error occurs during file reading.
 	 */
 	public void readFile(String filePath) throws IOException {
+		if (inputCache == null || !isCacheable(filePath)) {
+			parseFile(filePath);
+			return;
+		}
+
+		ParsedInputCache.Key key;
+		try {
+			key = inputCache.keyOf(Path.of(filePath));
+		} catch (IOException e) {
+			logger.warn("Could not fingerprint {} for the input cache: {}", filePath, e.getMessage());
+			parseFile(filePath);
+			return;
+		}
+		ResultCollector cached = inputCache.load(key);
+		if (cached != null) {
+			logger.info("Using cached rows of unchanged file: {}", filePath);
+			resultCollector.mergeFrom(cached);
+			return;
+		}
+
+		ResultCollector parsed = new ResultCollector();
+		FileReaderUtil uncached = new FileReaderUtil(parsed, conf, null);
+		uncached.parseFile(filePath);
+		resultCollector.mergeFrom(parsed);
+		if (uncached.languagePrompted) {
+			logger.info("Not caching {}: its language code was entered, not read from the file", filePath);
+		} else if (!uncached.readFailed) {
+			inputCache.store(key, parsed);
+		}
+	}
+
+	/**
+	 * Files whose rows depend on more than their content and the parse
+	 * settings are not cached: directories, and SNOMED International
+	 * inactivation files, whose language code is asked for on every read.
+	 * Excel files are cached unless their inactivation sheet lacks a language
+	 * code column, which is only known once they are parsed.
+	 */
+	private static boolean isCacheable(String filePath) {
+		if (!Files.isRegularFile(Path.of(filePath))) {
+			return false;
+		}
+		String fileType = (String) checkFilePathExtension(filePath)[0];
+		return !"Inactivations.tsv".equals(fileType) && !"Unknown file type".equals(fileType);
+	}
+
+	private void parseFile(String filePath) throws IOException {
+
+		if (Files.isDirectory(Path.of(filePath))) {
+			// A directory is read as a set of FHIR ValueSet/Bundle JSON files
+			logger.info("Processing FHIR JSON directory: {}", filePath);
+			try {
+				new FhirIngestionService(resultCollector, conf).ingest(Path.of(filePath));
+			} catch (IOException e) {
+				logger.error("Error reading FHIR JSON directory: {}", filePath, e);
+				readFailed = true;
+			}
+			return;
+		}
 
 		// Determine file type and delimiter
 		Object[] fileInfo = checkFilePathExtension(filePath);
@@ -55,78 +148,106 @@ public class FileReaderUtil {
 		}
 		String releaseType = (String) fileInfo[2];
 
-		if ("Excel".equals(fileType)) {
-			// Read Excel file using Apache POI
+		if ("Excel".equals(fileType) && filePath.endsWith(".xlsx")) {
+			// Stream .xlsx sheets row by row instead of loading the whole workbook
+			try {
+				logger.info("Processing Excel file: {}", filePath);
+				streamExcel(filePath, releaseType);
+			} catch (IOException e) {
+				logger.error("Error reading Excel file: {}", filePath, e);
+				readFailed = true;
+			}
+
+		} else if ("Excel".equals(fileType)) {
+			// Read legacy .xls file using Apache POI
 			try (FileInputStream fis = new FileInputStream(filePath);
-					Workbook workbook = filePath.endsWith(".xlsx") ? new XSSFWorkbook(fis) : new HSSFWorkbook(fis)) {
+					Workbook workbook = new HSSFWorkbook(fis)) {
 
 				logger.info("Processing Excel file: {}", filePath);
 				processExcel(workbook, releaseType);
 
 			} catch (IOException e) {
 				logger.error("Error reading Excel file: {}", filePath, e);
+				readFailed = true;
 			}
 
 		} else if ("JSON".equals(fileType)) {
-            // Read JSON file using ValueSetProcessor
             logger.info("Processing FHIR JSON file: {}", filePath);
-            try (FileReader fileReader = new FileReader(filePath)) {
-                StringBuilder jsonContent = new StringBuilder();
-                int ch;
-                while ((ch = fileReader.read()) != -1) {
-                    jsonContent.append((char) ch);
+            try {
+                if (conf.isFhirStreaming() && !"Bundle".equals(FhirIngestionService.resourceType(Path.of(filePath)))) {
+                    // Stream the designations into the collector without building the resource;
+                    // a Bundle is split into its ValueSets below
+                    try (InputStream in = new BufferedInputStream(new FileInputStream(filePath))) {
+                        new FhirJsonValueSetStreamProcessor(resultCollector, conf).processValueSet(in);
+                    }
+                } else {
+                    // A ValueSet or a Bundle of ValueSets, parsed with the shared FHIR context
+                    new FhirIngestionService(resultCollector, conf).ingest(Path.of(filePath));
                 }
-
-                FhirJsonValueSetProcessor processor = new FhirJsonValueSetProcessor(resultCollector);
-                processor.processValueSet(jsonContent.toString());
             } catch (IOException e) {
                 logger.error("Error reading JSON file: {}", filePath, e);
+                readFailed = true;
             }
 
         } else { // TODO: need solution for separator for CSV/TSV files
 			// Read CSV/TSV file using OpenCSV
-			CSVParser parser = new CSVParserBuilder().withSeparator(fileseparator).withQuoteChar('"').withEscapeChar('\\')
-					.withStrictQuotes(false).build();
-
-			try (CSVReader csvReader = new CSVReaderBuilder(new FileReader(filePath)).withCSVParser(parser).build()) {
-
-				switch (fileType) {
-				case ".propcsv.csv":
-					new PropCsvProcessor(csvReader, resultCollector).process();
-					break;
-				case ".termspace.csv":
-					new SimpleOverview(csvReader, resultCollector).process(); //TODO: Implement Termspace CSV processing
-					break;
-				case "Additions.tsv":
-					logger.info("Processing SNOMED International `Additions.tsv` file...");
-					new SiAdditionsCsvProcessor(csvReader, resultCollector).process();
-					break;
-				case "Inactivations.tsv":
-					logger.info("Processing SNOMED International `Inactivations.tsv` file...");
-					new SiInactivationsCSVProcessor(csvReader, resultCollector).process();
-					break;
-				case ".simpleOverview.tsv":
-					logger.info("Processing `.simpleOverview.tsv` file...");
-					new SimpleOverview(csvReader, resultCollector).process();
-					break;
-//				case ".txt": TODO: Is this needed?
-//					System.out.println("Processing RF2 file...");
-//					processDescriptionRF2File(csvReader);
-//					break;
- 				default:
-					logger.warn("{} Not recognized. Please check the file type.", fileType);
-					System.exit(0);
+			char separator = fileseparator;
+			Supplier<CSVParser> parser = () -> new CSVParserBuilder().withSeparator(separator).withQuoteChar('"')
+					.withEscapeChar('\\').withStrictQuotes(false).build();
+
+			try {
+				if (conf.getParseThreads() > 1 && separator == '\t') {
+					// Parse large TSV files on several threads, rows still arrive in file order
+					CsvProcessor processor = createCsvProcessor(fileType, null);
+					try (ParallelTsvParser.Rows rows = new ParallelTsvParser(conf.getParseThreads(), Charset.defaultCharset(), parser)
+							.open(Path.of(filePath))) {
+						processor.process(rows::next);
+					}
+				} else {
+					try (CSVReader csvReader = new CSVReaderBuilder(new FileReader(filePath)).withCSVParser(parser.get())
+							.build()) {
+						createCsvProcessor(fileType, csvReader).process();
+					}
 				}
-
-
-
 			} catch (IOException e) {
 				logger.error("Error reading CSV file: {}", filePath, e);
+				readFailed = true;
 			} catch (NoSuchElementException e) {
 				logger.error("The CSV is malformed or has syntax issues. Please delete all columns after 'Target acceptable' in the CSV and try again.", e);
+				readFailed = true;
 			}
 		}
 	}
+
+	/**
+	 * Creates the processor for a CSV/TSV file type. The reader may be
+	 * {@code null} if the rows are supplied by a {@link ParallelTsvParser}.
+	 */
+	private CsvProcessor createCsvProcessor(String fileType, CSVReader csvReader) {
+		switch (fileType) {
+		case ".propcsv.csv":
+			return new PropCsvProcessor(csvReader, resultCollector);
+		case ".termspace.csv":
+			return new SimpleOverview(csvReader, resultCollector); //TODO: Implement Termspace CSV processing
+		case "Additions.tsv":
+			logger.info("Processing SNOMED International `Additions.tsv` file...");
+			return new SiAdditionsCsvProcessor(csvReader, resultCollector);
+		case "Inactivations.tsv":
+			logger.info("Processing SNOMED International `Inactivations.tsv` file...");
+			return new SiInactivationsCSVProcessor(csvReader, resultCollector);
+		case ".simpleOverview.tsv":
+			logger.info("Processing `.simpleOverview.tsv` file...");
+			return new SimpleOverview(csvReader, resultCollector);
+//		case ".txt": TODO: Is this needed?
+//			System.out.println("Processing RF2 file...");
+//			processDescriptionRF2File(csvReader);
+//			break;
+		default:
+			logger.warn("{} Not recognized. Please check the file type.", fileType);
+			System.exit(0);
+			return null;
+		}
+	}
 	
 
 	/**
@@ -179,6 +300,20 @@ public class FileReaderUtil {
 		return new Object[] { "Unknown file type", '\t', releaseType };
 	}
 
+	/**
+	 * Streams the "Description Additions" and "Description Inactivations" sheets
+	 * of an {@code .xlsx} file to their loaders one row at a time.
+	 */
+	private void streamExcel(String filePath, String releaseType) throws IOException {
+		Map<String, SheetRowConsumer> consumers = new LinkedHashMap<>();
+		consumers.put("Description Additions",
+				new DescriptionAdditionLoader().rowConsumer(resultCollector, releaseType));
+		DescriptionInactivationLoader inactivations = new DescriptionInactivationLoader();
+		consumers.put("Description Inactivations", inactivations.rowConsumer(resultCollector, releaseType));
+		new XlsxStreamingReader().read(filePath, consumers);
+		languagePrompted |= inactivations.isLanguagePrompted();
+	}
+
 	private void processExcel(Workbook workbook, String releaseType) throws IOException {
 		logger.info("Processing additions via DescriptionAdditionLoader...");
 		int numberOfSheets = workbook.getNumberOfSheets();
@@ -195,7 +330,9 @@ public class FileReaderUtil {
 
 			case "Description Inactivations":
 				logger.info("Starting processing description inactivations");
-				new DescriptionInactivationLoader().loadAndInsertExcel(sheet, resultCollector, releaseType);
+				DescriptionInactivationLoader inactivations = new DescriptionInactivationLoader();
+				inactivations.loadAndInsertExcel(sheet, resultCollector, releaseType);
+				languagePrompted |= inactivations.isLanguagePrompted();
 
 				break;
 
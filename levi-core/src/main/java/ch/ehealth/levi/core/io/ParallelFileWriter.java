@@ -0,0 +1,130 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes several output files concurrently through a {@link FileWriterUtil}
+ * on a bounded thread pool.
+ *
+ * <p>
+ * Writes to the same path are executed in the order they were submitted, so
+ * a later write of a file always wins. {@link #awaitAll()} waits for every
+ * submitted write and reports all failures at once: the thrown
+ * {@link IOException} names the number of failed files and carries each
+ * failure as a suppressed exception. With one thread, files are written
+ * directly on the calling thread, exactly as with {@link FileWriterUtil}.
+ * </p>
+ */
+public class ParallelFileWriter implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelFileWriter.class);
+
+	private final FileWriterUtil writer;
+	private final ExecutorService executor;
+	private final Map<String, CompletableFuture<Void>> lastWriteByPath = new HashMap<>();
+	private final List<String> failedPaths = new ArrayList<>();
+	private final List<Throwable> failures = new ArrayList<>();
+
+	/**
+	 * @param writer  writer used for each file
+	 * @param threads maximum number of files written at the same time; values
+	 *                below 2 write sequentially on the calling thread
+	 */
+	public ParallelFileWriter(FileWriterUtil writer, int threads) {
+		this.writer = writer;
+		this.executor = threads > 1 ? Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "levi-file-writer");
+			t.setDaemon(true);
+			return t;
+		}) : null;
+	}
+
+	/**
+	 * Schedules {@code data} to be written to {@code filePath}.
+	 */
+	public void submit(String filePath, List<List<String>> data) {
+		if (executor == null) {
+			try {
+				writer.writeToFile(filePath, data);
+			} catch (IOException | RuntimeException e) {
+				recordFailure(filePath, e);
+			}
+			return;
+		}
+
+		CompletableFuture<Void> previous = lastWriteByPath.getOrDefault(filePath,
+				CompletableFuture.completedFuture(null));
+		CompletableFuture<Void> write = previous.handle((ignored, error) -> null)
+				.thenRunAsync(() -> {
+					try {
+						writer.writeToFile(filePath, data);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, executor)
+				.whenComplete((ignored, error) -> {
+					if (error != null) {
+						recordFailure(filePath, error instanceof CompletionException ? error.getCause() : error);
+					}
+				});
+		lastWriteByPath.put(filePath, write);
+	}
+
+	/**
+	 * Waits until all submitted files are written.
+	 *
+	 * @throws IOException if at least one file could not be written
+	 */
+	public void awaitAll() throws IOException {
+		if (!lastWriteByPath.isEmpty()) {
+			try {
+				CompletableFuture.allOf(lastWriteByPath.values().toArray(new CompletableFuture<?>[0]))
+						.handle((ignored, error) -> null).join();
+			} finally {
+				lastWriteByPath.clear();
+			}
+		}
+
+		synchronized (failures) {
+			if (failures.isEmpty()) {
+				return;
+			}
+			IOException aggregated = new IOException("Failed to write " + failures.size() + " file(s): "
+					+ String.join(", ", failedPaths));
+			for (Throwable failure : failures) {
+				aggregated.addSuppressed(failure);
+			}
+			failures.clear();
+			failedPaths.clear();
+			throw aggregated;
+		}
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private void recordFailure(String filePath, Throwable error) {
+		Throwable cause = error instanceof UncheckedIOException ? error.getCause() : error;
+		logger.error("Failed to write {}: {}", filePath, cause.getMessage());
+		synchronized (failures) {
+			failedPaths.add(filePath);
+			failures.add(cause);
+		}
+	}
+}
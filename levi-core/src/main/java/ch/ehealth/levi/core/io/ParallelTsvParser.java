@@ -0,0 +1,260 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+/**
+ * Parses a large tab-separated file on several threads while delivering its
+ * rows in file order.
+ *
+ * <p>
+ * The file is memory-mapped in chunks that end at line boundaries. Chunks are
+ * parsed in parallel, a bounded number ahead of the consumer, and their rows
+ * are handed out chunk by chunk in input order. Each line is parsed by an
+ * OpenCSV parser built with the same settings as the sequential reader, so the
+ * rows are the same as with {@link CSVReader}.
+ * </p>
+ *
+ * <p>
+ * A line can only be parsed on its own if it contains no embedded line break.
+ * From the first line that OpenCSV would continue on the next line (an open
+ * quote) or that contains a bare carriage return, the rest of the file is read
+ * sequentially with a {@link CSVReader}.
+ * </p>
+ */
+public class ParallelTsvParser {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelTsvParser.class);
+
+	public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+	private final int threads;
+	private final int chunkSize;
+	private final Charset charset;
+	private final Supplier<CSVParser> parserFactory;
+
+	/**
+	 * @param threads       number of parsing threads
+	 * @param charset       encoding of the file
+	 * @param parserFactory creates the OpenCSV parser used for each chunk
+	 */
+	public ParallelTsvParser(int threads, Charset charset, Supplier<CSVParser> parserFactory) {
+		this(threads, DEFAULT_CHUNK_SIZE, charset, parserFactory);
+	}
+
+	/**
+	 * @param chunkSize approximate number of bytes parsed as one unit of work
+	 */
+	public ParallelTsvParser(int threads, int chunkSize, Charset charset, Supplier<CSVParser> parserFactory) {
+		this.threads = Math.max(1, threads);
+		this.chunkSize = chunkSize;
+		this.charset = charset;
+		this.parserFactory = parserFactory;
+	}
+
+	/**
+	 * Starts parsing {@code file}. The returned rows must be closed.
+	 */
+	public Rows open(Path file) throws IOException {
+		return new Rows(file);
+	}
+
+	/** Parsed rows of one chunk. */
+	private static final class Chunk {
+
+		private final List<String[]> rows = new ArrayList<>();
+		/** Offset of the first line that must be read sequentially, or -1. */
+		private long sequentialFrom = -1;
+	}
+
+	/**
+	 * The rows of one file in input order.
+	 */
+	public final class Rows implements Closeable {
+
+		private final FileChannel channel;
+		private final long size;
+		private final ExecutorService executor;
+		private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+		private long nextChunkStart;
+		private Chunk current;
+		private int index;
+		private CSVReader sequential;
+
+		private Rows(Path file) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.READ);
+			this.size = channel.size();
+			this.executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread t = new Thread(r, "levi-tsv-parser");
+				t.setDaemon(true);
+				return t;
+			});
+			// Parse at most two chunks per thread ahead of the consumer
+			for (int i = 0; i < threads * 2 && submitNextChunk(); i++) {
+			}
+		}
+
+		/**
+		 * @return the next row, or {@code null} after the last row
+		 */
+		public String[] next() throws IOException {
+			while (true) {
+				if (sequential != null) {
+					try {
+						return sequential.readNext();
+					} catch (CsvValidationException e) {
+						throw new IOException("Invalid row: " + e.getMessage(), e);
+					}
+				}
+				if (current != null) {
+					if (index < current.rows.size()) {
+						return current.rows.get(index++);
+					}
+					if (current.sequentialFrom >= 0) {
+						readSequentiallyFrom(current.sequentialFrom);
+						continue;
+					}
+				}
+				if (pending.isEmpty()) {
+					return null;
+				}
+				current = await(pending.poll());
+				index = 0;
+				submitNextChunk();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			stopParsing();
+			try {
+				if (sequential != null) {
+					sequential.close();
+				}
+			} finally {
+				channel.close();
+			}
+		}
+
+		private boolean submitNextChunk() throws IOException {
+			if (nextChunkStart >= size) {
+				return false;
+			}
+			long start = nextChunkStart;
+			long end = lineEndAfter(Math.min(size, start + chunkSize));
+			nextChunkStart = end;
+			pending.add(executor.submit(() -> parseChunk(start, end)));
+			return true;
+		}
+
+		/** Returns the offset just after the first line break at or after {@code offset}. */
+		private long lineEndAfter(long offset) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(8192);
+			long position = offset;
+			while (position < size) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int i = 0; i < read; i++) {
+					if (buffer.get(i) == '\n') {
+						return position + i + 1;
+					}
+				}
+				position += read;
+			}
+			return size;
+		}
+
+		private Chunk parseChunk(long start, long end) throws IOException {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+			CSVParser parser = parserFactory.get();
+			Chunk chunk = new Chunk();
+			int length = buffer.limit();
+			int lineStart = 0;
+			boolean bareCarriageReturn = false;
+			for (int i = 0; i <= length; i++) {
+				byte b = i < length ? buffer.get(i) : (byte) '\n';
+				if (b == '\r' && i + 1 < length && buffer.get(i + 1) != '\n') {
+					bareCarriageReturn = true;
+				}
+				if (b != '\n' || (i == length && lineStart == length)) {
+					continue;
+				}
+				int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+				byte[] bytes = new byte[lineEnd - lineStart];
+				buffer.get(lineStart, bytes);
+				String[] row = bareCarriageReturn ? null : parser.parseLineMulti(new String(bytes, charset));
+				if (row == null || parser.isPending()) {
+					chunk.sequentialFrom = start + lineStart;
+					break;
+				}
+				chunk.rows.add(row);
+				lineStart = i + 1;
+			}
+			return chunk;
+		}
+
+		private void readSequentiallyFrom(long offset) throws IOException {
+			logger.info("Line at byte {} spans several lines; reading the rest of the file sequentially.", offset);
+			stopParsing();
+			current = null;
+			sequential = new CSVReaderBuilder(
+					new InputStreamReader(Channels.newInputStream(channel.position(offset)), charset))
+					.withCSVParser(parserFactory.get()).build();
+		}
+
+		/**
+		 * Drops the chunks not parsed yet. Running tasks are not interrupted, as
+		 * an interrupt during I/O would close the shared channel.
+		 */
+		private void stopParsing() {
+			for (Future<Chunk> chunk : pending) {
+				chunk.cancel(false);
+			}
+			pending.clear();
+			executor.shutdown();
+		}
+
+		private Chunk await(Future<Chunk> chunk) throws IOException {
+			try {
+				return chunk.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while parsing");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException io) {
+					throw io;
+				}
+				throw new IOException("Failed to parse chunk: " + e.getCause().getMessage(), e.getCause());
+			}
+		}
+	}
+}
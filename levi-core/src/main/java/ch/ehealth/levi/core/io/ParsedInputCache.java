@@ -0,0 +1,238 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+
+/**
+ * Stores the rows parsed from an input file in a local cache directory, so
+ * that later runs on the same file skip POI/OpenCSV/HAPI parsing.
+ *
+ * <p>
+ * An entry is keyed by the absolute path of the input file; it is only used
+ * if the file still has the recorded size, modification time and SHA-256
+ * content hash, and if it was written with the same parse settings. Entries
+ * are written to a temporary file and moved into place, so an interrupted run
+ * never leaves a truncated entry behind.
+ * </p>
+ *
+ * <p>
+ * The entry format is compact: every distinct cell value is written once and
+ * referenced by index afterwards, as the same language reference sets,
+ * language codes and empty cells repeat on every row.
+ * </p>
+ *
+ * <p>
+ * Cache errors never fail a run: a damaged or unreadable entry is treated as
+ * a miss and a failed write is logged.
+ * </p>
+ */
+public class ParsedInputCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParsedInputCache.class);
+
+	private static final int MAGIC = 0x4C455649; // "LEVI"
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int NEW_VALUE = -1;
+	private static final int NULL_VALUE = -2;
+
+	private final Path directory;
+	private final String settings;
+
+	/**
+	 * @param directory cache directory, created on first write
+	 * @param settings  parse settings that change the parsed rows; entries
+	 *                  written with other settings are not used
+	 */
+	public ParsedInputCache(Path directory, String settings) {
+		this.directory = directory;
+		this.settings = settings;
+	}
+
+	/** Identifies one version of an input file. */
+	public static final class Key {
+
+		private final String path;
+		private final long size;
+		private final long modified;
+		private final byte[] contentHash;
+
+		private Key(String path, long size, long modified, byte[] contentHash) {
+			this.path = path;
+			this.size = size;
+			this.modified = modified;
+			this.contentHash = contentHash;
+		}
+	}
+
+	/**
+	 * Computes the key of the current version of {@code file}.
+	 */
+	public Key keyOf(Path file) throws IOException {
+		Path absolute = file.toAbsolutePath().normalize();
+		long size = Files.size(absolute);
+		long modified = Files.getLastModifiedTime(absolute).toMillis();
+		MessageDigest digest = sha256();
+		try (InputStream in = Files.newInputStream(absolute)) {
+			byte[] buffer = new byte[1 << 16];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return new Key(absolute.toString(), size, modified, digest.digest());
+	}
+
+	/**
+	 * Returns the cached rows of {@code key}, or {@code null} if there is no
+	 * valid entry.
+	 */
+	public ResultCollector load(Key key) {
+		Path entry = entryPath(key);
+		if (!Files.isRegularFile(entry)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry), 1 << 16))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.path.equals(in.readUTF())
+					|| in.readLong() != key.size || in.readLong() != key.modified
+					|| !Arrays.equals(key.contentHash, in.readNBytes(key.contentHash.length))
+					|| !settings.equals(in.readUTF())) {
+				return null;
+			}
+
+			ResultCollector collector = new ResultCollector();
+			List<String> values = new ArrayList<>();
+			int types = in.readInt();
+			for (int t = 0; t < types; t++) {
+				String type = readValue(in, values);
+				int rowCount = in.readInt();
+				List<List<String>> rows = new ArrayList<>(rowCount);
+				for (int r = 0; r < rowCount; r++) {
+					int columns = in.readInt();
+					List<String> row = new ArrayList<>(columns);
+					for (int c = 0; c < columns; c++) {
+						row.add(readValue(in, values));
+					}
+					rows.add(row);
+				}
+				collector.addRows(type, rows);
+			}
+			return collector;
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Ignoring unreadable input cache entry {}: {}", entry, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the rows of {@code collector} as the entry of {@code key}.
+	 */
+	public void store(Key key, ResultCollector collector) {
+		Path entry = entryPath(key);
+		Path temp = null;
+		try {
+			Files.createDirectories(directory);
+			temp = Files.createTempFile(directory, "entry", ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key.path);
+				out.writeLong(key.size);
+				out.writeLong(key.modified);
+				out.write(key.contentHash);
+				out.writeUTF(settings);
+
+				Map<String, Integer> values = new HashMap<>();
+				List<String> types = collector.getTypes();
+				out.writeInt(types.size());
+				for (String type : types) {
+					writeValue(out, type, values);
+					List<List<String>> rows = collector.getDataByType(type);
+					out.writeInt(rows.size());
+					for (List<String> row : rows) {
+						out.writeInt(row.size());
+						for (String value : row) {
+							writeValue(out, value, values);
+						}
+					}
+				}
+			}
+			Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("Could not write input cache entry for {}: {}", key.path, e.getMessage());
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException ignored) {
+					// the temporary file is left behind
+				}
+			}
+		}
+	}
+
+	private Path entryPath(Key key) {
+		byte[] pathHash = sha256().digest(key.path.getBytes(StandardCharsets.UTF_8));
+		return directory.resolve(HexFormat.of().formatHex(pathHash) + ".bin");
+	}
+
+	private static void writeValue(DataOutputStream out, String value, Map<String, Integer> values)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(NULL_VALUE);
+			return;
+		}
+		Integer index = values.get(value);
+		if (index != null) {
+			out.writeInt(index);
+			return;
+		}
+		values.put(value, values.size());
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(NEW_VALUE);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readValue(DataInputStream in, List<String> values) throws IOException {
+		int index = in.readInt();
+		if (index == NULL_VALUE) {
+			return null;
+		}
+		if (index != NEW_VALUE) {
+			return values.get(index);
+		}
+		String value = new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+		values.add(value);
+		return value;
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.ehealth.levi.core.export.RowSink;
+
+/**
+ * Writes rows to a UTF-8 TSV file as they arrive, in the same format as
+ * {@link FileWriterUtil#writeToFile(String, List)}.
+ */
+public class TsvRowSink implements RowSink {
+
+	private static final Logger logger = LoggerFactory.getLogger(TsvRowSink.class);
+
+	private final String filePath;
+	private final BufferedWriter writer;
+	private int lines;
+
+	public TsvRowSink(String filePath) throws IOException {
+		this.filePath = filePath;
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePath), StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void accept(List<String> row) throws IOException {
+		writer.write(String.join("\t", row));
+		writer.newLine();
+		lines++;
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+		logger.info("File written: {} ({} lines)", filePath, lines);
+	}
+}
@@ -0,0 +1,135 @@
+package ch.ehealth.levi.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import ch.ehealth.levi.core.processor.SheetRowConsumer;
+
+/**
+ * Reads {@code .xlsx} workbooks with the POI SAX event model instead of
+ * building an {@code XSSFWorkbook}. Each worksheet is parsed as an XML stream
+ * and handed to a {@link SheetRowConsumer} one row at a time, so memory use is
+ * bounded by the size of a row (plus the shared strings table) rather than by
+ * the size of the workbook.
+ */
+public class XlsxStreamingReader {
+
+	private static final Logger logger = LoggerFactory.getLogger(XlsxStreamingReader.class);
+
+	/**
+	 * Streams the rows of every sheet whose name has a consumer in
+	 * {@code consumers}. Sheets without a consumer are skipped unparsed.
+	 *
+	 * @param filePath  path to the {@code .xlsx} file
+	 * @param consumers sheet name → consumer receiving that sheet's rows
+	 * @throws IOException if the file cannot be opened or is not a valid workbook
+	 */
+	public void read(String filePath, Map<String, SheetRowConsumer> consumers) throws IOException {
+		try (OPCPackage pkg = OPCPackage.open(filePath, PackageAccess.READ)) {
+			XSSFReader xssfReader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			StylesTable styles = xssfReader.getStylesTable();
+			DataFormatter formatter = new DataFormatter();
+
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+			while (sheets.hasNext()) {
+				try (InputStream sheetStream = sheets.next()) {
+					String sheetName = sheets.getSheetName();
+					SheetRowConsumer consumer = consumers.get(sheetName);
+					if (consumer == null) {
+						continue;
+					}
+					logger.info("Streaming sheet '{}'...", sheetName);
+					RowForwarder forwarder = new RowForwarder(consumer);
+					XMLReader parser = XMLHelper.newXMLReader();
+					parser.setContentHandler(
+							new XSSFSheetXMLHandler(styles, null, strings, forwarder, formatter, true));
+					parser.parse(new InputSource(sheetStream));
+					forwarder.finish();
+					logger.info("Sheet '{}' done: {} data rows.", sheetName, forwarder.dataRows);
+				}
+			}
+		} catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+			throw new IOException("Failed to stream Excel file: " + filePath, e);
+		}
+	}
+
+	/**
+	 * Collects the cells of the current row into a column-indexed list and
+	 * forwards it to the consumer when the row ends. The first row of the sheet
+	 * is passed as header; if the sheet has no row 0, an empty header is used.
+	 */
+	private static final class RowForwarder implements SheetContentsHandler {
+
+		private final SheetRowConsumer consumer;
+		private final List<String> cells = new ArrayList<>();
+		private boolean headerSeen;
+		private int nextColumn;
+		private long dataRows;
+
+		private RowForwarder(SheetRowConsumer consumer) {
+			this.consumer = consumer;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			cells.clear();
+			nextColumn = 0;
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			if (rowNum == 0) {
+				headerSeen = true;
+				consumer.startSheet(new ArrayList<>(cells));
+				return;
+			}
+			if (!headerSeen) {
+				headerSeen = true;
+				consumer.startSheet(new ArrayList<>());
+			}
+			consumer.consumeRow(new ArrayList<>(cells));
+			dataRows++;
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+			// Missing cells are not reported by the event model; pad them
+			while (cells.size() < column) {
+				cells.add("");
+			}
+			cells.add(formattedValue == null ? "" : formattedValue);
+			nextColumn = column + 1;
+		}
+
+		private void finish() {
+			if (!headerSeen) {
+				consumer.startSheet(new ArrayList<>());
+			}
+		}
+	}
+}
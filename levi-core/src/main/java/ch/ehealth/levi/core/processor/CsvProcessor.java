@@ -3,13 +3,88 @@ package ch.ehealth.levi.core.processor;
 import java.io.IOException;
 
 import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
 
+/**
+ * Processes a CSV/TSV file one row at a time, so that a file is never held in
+ * memory as a whole.
+ *
+ * <p>The first row is passed to {@link #processHeader(String[])}, every
+ * following row to {@link #processRow(String[])}, in file order. Rows are read
+ * from the {@link CSVReader} given to the constructor, or from any other
+ * {@link RowSource} passed to {@link #process(RowSource)}; in the latter case
+ * the reader may be {@code null}.</p>
+ */
 public abstract class CsvProcessor {
 	protected CSVReader csvReader;
 
+    /**
+     * Supplies parsed rows in file order.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+
+        /**
+         * @return the next row, or {@code null} after the last row
+         */
+        String[] next() throws IOException;
+    }
+
     public CsvProcessor(CSVReader csvReader) {
         this.csvReader = csvReader;
     }
 
-    public abstract void process() throws IOException;
+    /**
+     * Reads all rows of the file and hands them to the processor.
+     *
+     * @throws IOException if the file cannot be read or a row is malformed
+     */
+    public void process() throws IOException {
+        process(() -> {
+            try {
+                return csvReader.readNext();
+            } catch (CsvValidationException e) {
+                throw new IOException("Invalid row " + csvReader.getLinesRead() + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Hands all rows of {@code rows} to the processor.
+     *
+     * @throws IOException if a row cannot be read
+     */
+    public void process(RowSource rows) throws IOException {
+        beforeRows();
+        boolean isFirstRow = true;
+        String[] row;
+        while ((row = rows.next()) != null) {
+            if (isFirstRow) {
+                isFirstRow = false;
+                processHeader(row);
+                continue;
+            }
+            processRow(row);
+        }
+    }
+
+    /**
+     * Called once before the first row is read.
+     */
+    protected void beforeRows() throws IOException {
+        // Nothing to prepare by default
+    }
+
+    /**
+     * Called once with the first row of the file before any data row. The
+     * header is skipped by default.
+     */
+    protected void processHeader(String[] header) {
+        // The header carries no data
+    }
+
+    /**
+     * Called for every data row after the header.
+     */
+    protected abstract void processRow(String[] row) throws IOException;
 }
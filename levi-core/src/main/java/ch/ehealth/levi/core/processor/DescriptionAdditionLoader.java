@@ -1,5 +1,8 @@
 package ch.ehealth.levi.core.processor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -12,29 +15,53 @@ public class DescriptionAdditionLoader {
 
 
 	public void loadAndInsertExcel(Sheet sheet, ResultCollector collector, String releaseType) {
+		SheetRowConsumer consumer = rowConsumer(collector, releaseType);
+		consumer.startSheet(getRowAsStrings(sheet.getRow(0)));
         int rowCount = sheet.getPhysicalNumberOfRows();
         for (int i = 1; i < rowCount; i++) { // skip header
             Row row = sheet.getRow(i);
             if (row == null) continue;
+            consumer.consumeRow(getRowAsStrings(row));
+        }
+    }
+
+	/**
+	 * Returns a consumer that inserts description additions row by row, used by
+	 * the streaming XLSX reader.
+	 */
+	public SheetRowConsumer rowConsumer(ResultCollector collector, String releaseType) {
+		return new SheetRowConsumer() {
+			@Override
+			public void startSheet(List<String> header) {
+				// Columns are fixed, nothing to detect
+			}
+
+			@Override
+			public void consumeRow(List<String> cells) {
+				insertRow(cells, collector, releaseType);
+			}
+		};
+	}
 
-            String conceptId = getCellAsString(row.getCell(0));
-            String fsn = getCellAsString(row.getCell(1));
-            String pt = getCellAsString(row.getCell(2));
-            String term = getCellAsString(row.getCell(3));
-            String languageCode = getCellAsString(row.getCell(4));
-            String caseSignificance = getCellAsString(row.getCell(5));
-            String type = getCellAsString(row.getCell(6));
-            String language_reference_set = getCellAsString(row.getCell(7));
-			String acceptabilityId = getCellAsString(row.getCell(8));
-			String language_reference_set2 = getCellAsString(row.getCell(9));
-			String acceptabilityId2 = getCellAsString(row.getCell(10));
-			String language_reference_set3 = getCellAsString(row.getCell(11));
-			String acceptabilityId3 = getCellAsString(row.getCell(12));
-			String language_reference_set4 = getCellAsString(row.getCell(13));
-			String acceptabilityId4 = getCellAsString(row.getCell(14));
-			String language_reference_set5 = getCellAsString(row.getCell(15));
-			String acceptabilityId5 = getCellAsString(row.getCell(16));
-            String notes = getCellAsString(row.getCell(17));
+	private void insertRow(List<String> cells, ResultCollector collector, String releaseType) {
+            String conceptId = cell(cells, 0);
+            String fsn = cell(cells, 1);
+            String pt = cell(cells, 2);
+            String term = cell(cells, 3);
+            String languageCode = cell(cells, 4);
+            String caseSignificance = cell(cells, 5);
+            String type = cell(cells, 6);
+            String language_reference_set = cell(cells, 7);
+			String acceptabilityId = cell(cells, 8);
+			String language_reference_set2 = cell(cells, 9);
+			String acceptabilityId2 = cell(cells, 10);
+			String language_reference_set3 = cell(cells, 11);
+			String acceptabilityId3 = cell(cells, 12);
+			String language_reference_set4 = cell(cells, 13);
+			String acceptabilityId4 = cell(cells, 14);
+			String language_reference_set5 = cell(cells, 15);
+			String acceptabilityId5 = cell(cells, 16);
+            String notes = cell(cells, 17);
 
             if(releaseType.equals("previous")) {
             	collector.setFullNewTranslationPrevious(
@@ -57,7 +84,21 @@ public class DescriptionAdditionLoader {
 	                    notes
 	                );
 			}   
-        }
+    }
+
+    private static String cell(List<String> cells, int index) {
+    	return index < cells.size() ? cells.get(index) : "";
+    }
+
+    private List<String> getRowAsStrings(Row row) {
+    	List<String> cells = new ArrayList<>();
+    	if (row == null) {
+    		return cells;
+    	}
+    	for (int i = 0; i < row.getLastCellNum(); i++) {
+    		cells.add(getCellAsString(row.getCell(i)));
+    	}
+    	return cells;
     }
 
     
@@ -1,5 +1,7 @@
 package ch.ehealth.levi.core.processor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import org.apache.poi.ss.usermodel.Cell;
@@ -16,59 +18,93 @@ public class DescriptionInactivationLoader {
 	private static final Logger logger = LoggerFactory.getLogger(DescriptionInactivationLoader.class);
 	//TODO: Add check if the file is empty or has no rows
 
-	public void loadAndInsertExcel(Sheet sheet, ResultCollector collector, String releaseType) {
-		Row header = sheet.getRow(0);
-		int rowCount = sheet.getPhysicalNumberOfRows();
-        boolean hasLanguageCode = false;
-        int languageCodeColumnIndex = -1;
-        String language = null;
-
-        
-        if (header != null) {
-            for (Cell cell : header) {
-                String headerValue = getCellAsString(cell);
-                if (headerValue != null && headerValue.toLowerCase().contains("language code".toLowerCase())) {
-                    hasLanguageCode = true;
-                    languageCodeColumnIndex = cell.getColumnIndex();
-                    break;
-                }
-            }
-        }
-        
-        // If no 'Language Code' column is found, prompt the user for input
-        if (!hasLanguageCode) {
-            @SuppressWarnings("resource")
-			Scanner scanner = new Scanner(System.in);
-            while (true) {
-                logger.info("No 'Language Code' column found in inactivation tab. Please enter the language code (de, fr, it): ");
-                language = scanner.nextLine().trim().toLowerCase();
-                if (language.equals("de") || language.equals("fr") || language.equals("it")) {
-                    break;
-                } else {
-                    logger.info("Invalid language code. Please enter 'de', 'fr', or 'it'.");
-                }
-            }
-        }
+	private boolean languagePrompted; // the language code was entered by the user
 
+	/**
+	 * Returns whether a sheet without a language code column was read, so that
+	 * the language of its rows was entered by the user rather than read from
+	 * the file.
+	 */
+	public boolean isLanguagePrompted() {
+		return languagePrompted;
+	}
 
+	public void loadAndInsertExcel(Sheet sheet, ResultCollector collector, String releaseType) {
+		SheetRowConsumer consumer = rowConsumer(collector, releaseType);
+		consumer.startSheet(getRowAsStrings(sheet.getRow(0)));
+		int rowCount = sheet.getPhysicalNumberOfRows();
         for (int i = 1; i < rowCount; i++) { // skip header
             Row row = sheet.getRow(i);
             if (row == null) continue;
+            consumer.consumeRow(getRowAsStrings(row));
+        }
+    }
+
+	/**
+	 * Returns a consumer that inserts description inactivations row by row, used
+	 * by the streaming XLSX reader. The header passed to
+	 * {@link SheetRowConsumer#startSheet(List)} decides which column layout is used.
+	 */
+	public SheetRowConsumer rowConsumer(ResultCollector collector, String releaseType) {
+		return new InactivationRowConsumer(collector, releaseType);
+	}
+
+	private final class InactivationRowConsumer implements SheetRowConsumer {
+
+		private final ResultCollector collector;
+		private final String releaseType;
+		private boolean hasLanguageCode = false;
+		private int languageCodeColumnIndex = -1;
+		private String language = null;
+
+		private InactivationRowConsumer(ResultCollector collector, String releaseType) {
+			this.collector = collector;
+			this.releaseType = releaseType;
+		}
+
+		@Override
+		public void startSheet(List<String> header) {
+			for (int i = 0; i < header.size(); i++) {
+				String headerValue = header.get(i);
+				if (headerValue != null && headerValue.toLowerCase().contains("language code".toLowerCase())) {
+					hasLanguageCode = true;
+					languageCodeColumnIndex = i;
+					break;
+				}
+			}
+
+	        // If no 'Language Code' column is found, prompt the user for input
+	        if (!hasLanguageCode) {
+	            languagePrompted = true;
+	            @SuppressWarnings("resource")
+				Scanner scanner = new Scanner(System.in);
+	            while (true) {
+	                logger.info("No 'Language Code' column found in inactivation tab. Please enter the language code (de, fr, it): ");
+	                language = scanner.nextLine().trim().toLowerCase();
+	                if (language.equals("de") || language.equals("fr") || language.equals("it")) {
+	                    break;
+	                } else {
+	                    logger.info("Invalid language code. Please enter 'de', 'fr', or 'it'.");
+	                }
+	            }
+	        }
+		}
+
+		@Override
+		public void consumeRow(List<String> cells) {
             String descriptionId = null;
             String term = null;
             String conceptId = null;
             
             if(!hasLanguageCode) { //for older version of inactivation files without language code column
-            	descriptionId = getCellAsString(row.getCell(0));
-				term = getCellAsString(row.getCell(2));
-				conceptId = getCellAsString(row.getCell(9));
+            	descriptionId = cell(cells, 0);
+				term = cell(cells, 2);
+				conceptId = cell(cells, 9);
 			} else { //for newer version of inactivation files with language code column
-	            descriptionId = getCellAsString(row.getCell(0));
-				term = getCellAsString(row.getCell(4));
-				conceptId = getCellAsString(row.getCell(2));
-				if (hasLanguageCode) {
-					language = getCellAsString(row.getCell(1));;
-				}
+	            descriptionId = cell(cells, 0);
+				term = cell(cells, 4);
+				conceptId = cell(cells, 2);
+				language = cell(cells, 1);
 			}
 			
 			//if language code is present, use from the cell
@@ -78,7 +114,7 @@ public class DescriptionInactivationLoader {
 			}
 			
 	        if (hasLanguageCode && languageCodeColumnIndex >= 0) {
-	            String dynamicLang = getCellAsString(row.getCell(languageCodeColumnIndex));
+	            String dynamicLang = cell(cells, languageCodeColumnIndex);
 	            if (dynamicLang != null && !dynamicLang.isEmpty()) {
 	            	language = dynamicLang.trim().toLowerCase();
 	            }
@@ -93,9 +129,23 @@ public class DescriptionInactivationLoader {
 			} else {
 				collector.setFullInactivationsCurrent(descriptionId, term, language, conceptId);
 			}   
-        }
+		}
+	}
+
+    private static String cell(List<String> cells, int index) {
+    	return index < cells.size() ? cells.get(index) : "";
     }
 
+    private List<String> getRowAsStrings(Row row) {
+    	List<String> cells = new ArrayList<>();
+    	if (row == null) {
+    		return cells;
+    	}
+    	for (int i = 0; i < row.getLastCellNum(); i++) {
+    		cells.add(getCellAsString(row.getCell(i)));
+    	}
+    	return cells;
+    }
 
  
     private String getCellAsString(Cell cell) {
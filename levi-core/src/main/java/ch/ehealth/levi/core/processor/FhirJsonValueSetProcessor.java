@@ -5,23 +5,54 @@ import ca.uhn.fhir.parser.IParser;
 import ch.ehealth.levi.core.Conf;
 import ch.ehealth.levi.core.export.ResultCollector;
 
+import java.io.Reader;
+
 import org.hl7.fhir.r4.model.ValueSet;
 
 
 public class FhirJsonValueSetProcessor {
 
-    private final FhirContext fhirContext = FhirContext.forR4();
-    private final IParser jsonParser = fhirContext.newJsonParser();
+    // Parsers are not thread-safe, so each processor creates its own from the shared context
+    private final IParser jsonParser = sharedContext().newJsonParser();
     private final ResultCollector resultCollector;
-    private static Conf conf = new Conf();
+    private final Conf conf;
+
+    /** Creates the R4 context on first use; it is expensive to build and thread-safe. */
+    private static final class ContextHolder {
+        private static final FhirContext R4 = FhirContext.forR4();
+    }
 
     public FhirJsonValueSetProcessor(ResultCollector collector) {
+        this(collector, new Conf());
+    }
+
+    /**
+     * @param conf supplies the country code of the language reference sets
+     */
+    public FhirJsonValueSetProcessor(ResultCollector collector, Conf conf) {
         this.resultCollector = collector;
+        this.conf = conf;
+    }
+
+    /**
+     * Returns the R4 context shared by all FHIR processing in the application.
+     */
+    public static FhirContext sharedContext() {
+        return ContextHolder.R4;
     }
 
     public void processValueSet(String jsonContent) {
-        ValueSet valueSet = jsonParser.parseResource(ValueSet.class, jsonContent);
+        processValueSet(jsonParser.parseResource(ValueSet.class, jsonContent));
+    }
+
+    /**
+     * Parses the ValueSet from {@code reader} without first reading it into a string.
+     */
+    public void processValueSet(Reader reader) {
+        processValueSet(jsonParser.parseResource(ValueSet.class, reader));
+    }
 
+    public void processValueSet(ValueSet valueSet) {
         if (valueSet.hasCompose() && valueSet.getCompose().hasInclude()) {
             valueSet.getCompose().getInclude().forEach(include -> {
                 if (include.hasConcept()) {
@@ -32,7 +63,7 @@ public class FhirJsonValueSetProcessor {
 							 concept.getDesignation().forEach(designation-> {
 								 String language = designation.getLanguage();
 								 String value = designation.getValue();
-								 String baseLanguageCode = language.split("-")[0];
+								 String baseLanguageCode = language == null ? "" : language.split("-")[0];
 							     String languageReferenceSet = conf.getLanguageRefSetId(baseLanguageCode);
 								 resultCollector.setFullNewTranslationCurrent(
 			                                code,
@@ -0,0 +1,195 @@
+package ch.ehealth.levi.core.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import ch.ehealth.levi.core.Conf;
+import ch.ehealth.levi.core.export.ResultCollector;
+
+/**
+ * Reads the designations of a FHIR ValueSet (JSON) with Jackson's streaming
+ * parser and adds them to the {@link ResultCollector} while reading.
+ *
+ * <p>
+ * Unlike {@link FhirJsonValueSetProcessor}, no HAPI object model is built:
+ * only {@code compose.include[].concept[]} is read, one concept at a time, and
+ * everything else is skipped. Memory use therefore does not grow with the
+ * size of the ValueSet. Each designation yields the same
+ * NEW_TRANSLATION_CURRENT entry as with {@link FhirJsonValueSetProcessor}.
+ * </p>
+ *
+ * <p>
+ * Nothing reaches the collector before the {@code resourceType} is known to
+ * be ValueSet: designations read ahead of it are held back until it is, and
+ * dropped if the document turns out to be another resource or has no type.
+ * </p>
+ */
+public class FhirJsonValueSetStreamProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(FhirJsonValueSetStreamProcessor.class);
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final ResultCollector resultCollector;
+	private final Conf conf;
+	private int designations;
+	/** Designations read before {@code resourceType}; {@code null} once it was checked. */
+	private ResultCollector pending;
+
+	public FhirJsonValueSetStreamProcessor(ResultCollector collector, Conf conf) {
+		this.resultCollector = collector;
+		this.conf = conf;
+	}
+
+	/**
+	 * Reads one ValueSet resource from {@code in}.
+	 *
+	 * @throws IOException if the input is not a JSON ValueSet or cannot be read
+	 */
+	public void processValueSet(InputStream in) throws IOException {
+		designations = 0;
+		pending = new ResultCollector();
+		try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("FHIR JSON must contain a resource object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("resourceType".equals(field)) {
+					if (!"ValueSet".equals(parser.getValueAsString())) {
+						throw new IOException("Expected a FHIR ValueSet but found " + parser.getValueAsString());
+					}
+					resultCollector.mergeFrom(pending);
+					pending = null;
+				} else if ("compose".equals(field) && value == JsonToken.START_OBJECT) {
+					readCompose(parser);
+				} else {
+					parser.skipChildren();
+				}
+			}
+			if (pending != null) {
+				throw new IOException("FHIR JSON resource has no resourceType");
+			}
+		} finally {
+			pending = null;
+		}
+		logger.info("FHIR ValueSet read: {} designations.", designations);
+	}
+
+	private void readCompose(JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			if (parser.nextToken() == JsonToken.START_ARRAY && "include".equals(field)) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					if (parser.currentToken() == JsonToken.START_OBJECT) {
+						readInclude(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void readInclude(JsonParser parser) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			if (parser.nextToken() == JsonToken.START_ARRAY && "concept".equals(field)) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					if (parser.currentToken() == JsonToken.START_OBJECT) {
+						readConcept(parser);
+					} else {
+						parser.skipChildren();
+					}
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private void readConcept(JsonParser parser) throws IOException {
+		String code = null;
+		String display = null;
+		// (language, value) pairs; emitted at the end because "display" may follow "designation"
+		List<String[]> conceptDesignations = new ArrayList<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if ("code".equals(field)) {
+				code = parser.getValueAsString();
+			} else if ("display".equals(field)) {
+				display = parser.getValueAsString();
+			} else if ("designation".equals(field) && value == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					if (parser.currentToken() == JsonToken.START_OBJECT) {
+						conceptDesignations.add(readDesignation(parser));
+					} else {
+						parser.skipChildren();
+					}
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+		for (String[] designation : conceptDesignations) {
+			addDesignation(code, display, designation[0], designation[1]);
+		}
+	}
+
+	private String[] readDesignation(JsonParser parser) throws IOException {
+		String language = null;
+		String value = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if ("language".equals(field)) {
+				language = parser.getValueAsString();
+			} else if ("value".equals(field)) {
+				value = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return new String[] { language, value };
+	}
+
+	private void addDesignation(String code, String display, String language, String value) {
+		String baseLanguageCode = language == null ? "" : language.split("-")[0];
+		String languageReferenceSet = conf.getLanguageRefSetId(baseLanguageCode);
+		ResultCollector target = pending != null ? pending : resultCollector;
+		target.setFullNewTranslationCurrent(
+				code,
+				display, // Using display as FSN (Fully Specified Name)
+				"", // PT (Preferred Term)
+				value, // Term
+				baseLanguageCode, // Language code
+				"", // Case significance
+				"", // Type
+				languageReferenceSet, // language_reference_set
+				"", // acceptabilityId
+				"", // language_reference_set2
+				"", // acceptabilityId2
+				"", // language_reference_set3
+				"", // acceptabilityId3
+				"", // language_reference_set4
+				"", // acceptabilityId4
+				"", // language_reference_set5
+				"", // acceptabilityId5
+				""  // Notes
+		);
+		designations++;
+	}
+}
@@ -1,10 +1,6 @@
 package ch.ehealth.levi.core.processor;
 
-import java.io.IOException;
-import java.util.List;
-
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 
 import ch.ehealth.levi.core.Conf;
 import ch.ehealth.levi.core.export.ResultCollector;
@@ -20,25 +16,8 @@ public class PropCsvProcessor extends CsvProcessor{
     }
 
 	 @Override
-	    public void process() throws IOException {
+	    protected void processRow(String[] row) {
 	        // Implementiere die Logik für .propcsv.csv
-	        List<String[]> rows = null;
-			try {
-				rows = csvReader.readAll();
-			} catch (IOException e) {
-				e.printStackTrace();
-			} catch (CsvException e) {
-				e.printStackTrace();
-			}
-			
-			boolean isFirstRow = true;
-	        for (String[] row : rows) {
-	        	
-	        	if (isFirstRow) {
-		        	isFirstRow = false;
-		        	continue; // Skip the header row
-	        	}
-	        	
 	    		// Determine the language based on cell content
 				String languageCode = null;
 				String conceptId = row[1];
@@ -76,6 +55,5 @@ public class PropCsvProcessor extends CsvProcessor{
 				        		);
 				    }
 				}
-	        }
 	    }
 }
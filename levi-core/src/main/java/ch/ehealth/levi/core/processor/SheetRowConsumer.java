@@ -0,0 +1,23 @@
+package ch.ehealth.levi.core.processor;
+
+import java.util.List;
+
+/**
+ * Receives the rows of one worksheet one at a time, so that a sheet can be
+ * processed without holding the whole workbook in memory.
+ *
+ * <p>Cell values are passed as strings indexed by column; cells that are
+ * missing in the file are represented by an empty string.</p>
+ */
+public interface SheetRowConsumer {
+
+	/**
+	 * Called once with the first row of the sheet before any data row.
+	 */
+	void startSheet(List<String> header);
+
+	/**
+	 * Called for every data row after the header, in sheet order.
+	 */
+	void consumeRow(List<String> cells);
+}
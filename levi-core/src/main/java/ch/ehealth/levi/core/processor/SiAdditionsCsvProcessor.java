@@ -1,10 +1,6 @@
 package ch.ehealth.levi.core.processor;
 
-import java.io.IOException;
-import java.util.List;
-
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 
 import ch.ehealth.levi.core.export.ResultCollector;
 
@@ -18,21 +14,7 @@ public class SiAdditionsCsvProcessor extends CsvProcessor{
     }
 	
 	 @Override
-	    public void process() throws IOException {
-	        List<String[]> rows = null;
-			try {
-				rows = csvReader.readAll();
-			} catch (IOException | CsvException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
-			}
-			boolean isFirstRow = true;
-	        for (String[] row : rows) {
-	        	
-	        	if (isFirstRow) {
-	        		isFirstRow = false;
-	        		continue; // Skip the header row
-	        	}
+	    protected void processRow(String[] row) {
 	        	String conceptId = row[0];
 	        	String fsn = row[1];
 	        	String pt = row[2];
@@ -62,7 +44,6 @@ public class SiAdditionsCsvProcessor extends CsvProcessor{
 		        		language_reference_set5, acceptabilityId5,
 		        		notes
 		        		);
-	        }
 	    }
 
 }
@@ -1,11 +1,8 @@
 package ch.ehealth.levi.core.processor;
 
-import java.io.IOException;
-import java.util.List;
 import java.util.Scanner;
 
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 
 import ch.ehealth.levi.core.export.ResultCollector;
 
@@ -16,6 +13,7 @@ public class SiInactivationsCSVProcessor extends CsvProcessor{
 
 		private static final Logger logger = LoggerFactory.getLogger(TermspaceInactivationsCsvProcessor.class);
 		private ResultCollector collector;
+		private String languageCode;
 		
 		public SiInactivationsCSVProcessor(CSVReader csvReader, ResultCollector collector) {
 	        super(csvReader);
@@ -23,11 +21,7 @@ public class SiInactivationsCSVProcessor extends CsvProcessor{
 	    }
 		
 		 @Override
-		    public void process() throws IOException {
-		        List<String[]> rows = null;
-		        boolean isFirstRow = true;
-		        String languageCode = null;
-		        
+		    protected void beforeRows() {
 		        @SuppressWarnings("resource")
 				Scanner scanner = new Scanner(System.in);
 	            while (true) {
@@ -39,24 +33,16 @@ public class SiInactivationsCSVProcessor extends CsvProcessor{
 	                    logger.info("Invalid language code. Please enter 'de', 'fr', or 'it'.");
 	                }
 	            }
-				try {
-					rows = csvReader.readAll();
-				} catch (IOException | CsvException e) {
-					logger.error("Failed to read CSV rows: {}", e.getMessage());
-				}
-		        for (String[] row : rows) {
-		        	if (isFirstRow) {
-						isFirstRow = false;
-						continue;
-					}
-					
-					String descriptionId = row[0];
-					String term = row[4];
-					String conceptId = row[2];
-										
-					collector.setFullInactivationsCurrent(
-							descriptionId, term, languageCode, conceptId);
-				}
+		    }
+
+		 @Override
+		    protected void processRow(String[] row) {
+				String descriptionId = row[0];
+				String term = row[4];
+				String conceptId = row[2];
+									
+				collector.setFullInactivationsCurrent(
+						descriptionId, term, languageCode, conceptId);
 		    }
 	
 	
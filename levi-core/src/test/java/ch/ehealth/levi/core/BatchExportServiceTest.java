@@ -0,0 +1,108 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import ch.ehealth.levi.core.export.BatchExportService;
+import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.io.FileWriterUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchExportService.
+ *
+ * The file writer is mocked and records the written files, so the tests
+ * check grouping, routing and batch alignment without touching the disk.
+ */
+public class BatchExportServiceTest {
+
+    private static final String DEST = "out";
+
+    private final Map<String, List<List<String>>> written = new LinkedHashMap<>();
+    private FileWriterUtil writer;
+    private ResultCollector collector;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        writer = Mockito.mock(FileWriterUtil.class);
+        Mockito.doAnswer(invocation -> {
+            written.put(invocation.getArgument(0), new ArrayList<>(invocation.<List<List<String>>>getArgument(1)));
+            return null;
+        }).when(writer).writeToFile(Mockito.anyString(), Mockito.anyList());
+        collector = new ResultCollector();
+    }
+
+    private static String file(String name) {
+        return DEST + File.separator + name;
+    }
+
+    private static List<List<String>> delta(List<String> header, List<List<String>> rows) {
+        List<List<String>> delta = new ArrayList<>();
+        delta.add(header);
+        delta.addAll(rows);
+        return delta;
+    }
+
+    @Test
+    public void testRowsAreRoutedToTheirGroups() throws IOException {
+        List<List<String>> additions = delta(List.of("conceptId"),
+                List.of(List.of("100"), List.of("200"), List.of("100")));
+        List<List<String>> inactivations = delta(List.of("descId", "lang", "conceptId"),
+                List.of(List.of("D1", "de", "200"), List.of("D2", "de", "300")));
+
+        new BatchExportService(1000, writer).export(additions, null, inactivations, null, collector, DEST);
+
+        assertEquals(List.of(file("G2_additions.tsv"), file("G8_additions.tsv"), file("G8_inactivations.tsv"),
+                file("G3_inactivations.tsv")), new ArrayList<>(written.keySet()), "Files should follow group order");
+        assertEquals(List.of(List.of("conceptId"), List.of("100"), List.of("100")),
+                written.get(file("G2_additions.tsv")), "Both rows of concept 100 should be kept in order");
+        assertEquals(List.of(List.of("descId", "lang", "conceptId"), List.of("D1", "de", "200")),
+                written.get(file("G8_inactivations.tsv")), "Inactivation of concept 200 belongs to G8");
+    }
+
+    @Test
+    public void testBatchesStayAlignedAcrossChangeTypes() throws IOException {
+        List<List<String>> additions = delta(List.of("conceptId"),
+                List.of(List.of("1"), List.of("2"), List.of("3")));
+        List<List<String>> inactivations = delta(List.of("descId", "lang", "conceptId"),
+                List.of(List.of("D3", "de", "3"), List.of("D1", "de", "1"), List.of("D2", "de", "2")));
+
+        new BatchExportService(2, writer).export(additions, null, inactivations, null, collector, DEST);
+
+        assertEquals(4, written.size(), "Two batches with two files each should be written");
+        assertEquals(List.of(List.of("conceptId"), List.of("1"), List.of("2")),
+                written.get(file("G8_additions_batch1.tsv")), "First batch should hold concepts 1 and 2");
+        assertEquals(List.of(List.of("descId", "lang", "conceptId"), List.of("D1", "de", "1"),
+                List.of("D2", "de", "2")), written.get(file("G8_inactivations_batch1.tsv")),
+                "Inactivations of batch 1 should cover the same concepts");
+        assertEquals(List.of(List.of("descId", "lang", "conceptId"), List.of("D3", "de", "3")),
+                written.get(file("G8_inactivations_batch2.tsv")), "Concept 3 should be in batch 2");
+    }
+
+    @Test
+    public void testChangesAreResolvedThroughResultCollector() throws IOException {
+        collector.addDescriptionToConceptMapping("D9", "900");
+        List<List<String>> changes = delta(List.of("descId"), List.of(List.of("D9"), List.of("UNKNOWN")));
+
+        new BatchExportService(1000, writer).export(null, changes, null, null, collector, DEST);
+
+        assertEquals(List.of(List.of("descId"), List.of("D9")), written.get(file("G1_changes.tsv")),
+                "Resolvable changes should be written to G1, unresolvable ones dropped");
+    }
+
+    @Test
+    public void testEmptyDeltasWriteNothing() throws IOException {
+        new BatchExportService(1000, writer).export(null, null, null, null, collector, DEST);
+
+        assertTrue(written.isEmpty(), "No files should be written without data rows");
+    }
+}
@@ -0,0 +1,114 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BulkLoader.
+ *
+ * The driver statement is mocked, so the tests check the generated
+ * LOAD DATA statement and the loaded TSV file without a database.
+ */
+public class BulkLoaderTest {
+
+    @Test
+    public void testEncodeEscapesSpecialCharacters() {
+        byte[] line = BulkLoader.encode(Arrays.asList("a\tb", "c\\d", "e\nf", null));
+
+        assertEquals("a\\tb\tc\\\\d\te\\nf\t\\N\n", new String(line, StandardCharsets.UTF_8),
+                "Tabs, backslashes, newlines and nulls should be escaped");
+    }
+
+    @Test
+    public void testRowInputStreamConcatenatesRows() throws IOException {
+        List<List<String>> rows = List.of(List.of("Straße", "100"), List.of("Term", "200"));
+        InputStream in = new BulkLoader.RowInputStream(rows.iterator());
+
+        String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals("Straße\t100\nTerm\t200\n", content, "Rows should be streamed as UTF-8 TSV lines");
+    }
+
+    @Test
+    public void testRowInputStreamOnEmptyRowsIsEmpty() throws IOException {
+        InputStream in = new BulkLoader.RowInputStream(List.<List<String>>of().iterator());
+
+        assertEquals(-1, in.read(), "No rows should produce an empty stream");
+    }
+
+    @Test
+    public void testLoadReadsRowsFromFileInPrivateDirectory() throws SQLException, IOException {
+        Connection connection = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        List<Path> files = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
+        Mockito.when(statement.executeLargeUpdate(Mockito.anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            Path file = Path.of(sql.substring(sql.indexOf('\'') + 1, sql.indexOf('\'', sql.indexOf('\'') + 1)));
+            files.add(file);
+            contents.add(Files.readString(file, StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        long loaded = BulkLoader.load(connection, "temp_concept_ids", List.of("conceptId"),
+                List.of(List.of("100"), List.of("200")));
+
+        assertEquals(2L, loaded, "Should return the number of loaded rows");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(statement).executeLargeUpdate(sql.capture());
+        assertTrue(sql.getValue().startsWith("LOAD DATA LOCAL INFILE"), "Should issue LOAD DATA LOCAL INFILE");
+        assertTrue(sql.getValue().contains("INTO TABLE temp_concept_ids"), "Should target the given table");
+        assertTrue(sql.getValue().endsWith("(conceptId)"), "Should list the given columns");
+        assertEquals(BulkLoader.directory(), files.get(0).getParent(),
+                "Rows should be loaded from the private bulk load directory");
+        assertEquals("100\n200\n", contents.get(0), "The file should hold the rows as TSV lines");
+        assertFalse(Files.exists(files.get(0)), "The file should be deleted after the load");
+        Mockito.verify(statement).close();
+    }
+
+    @Test
+    public void testLoadDeletesFileWhenServerRejectsIt() throws SQLException, IOException {
+        Connection connection = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeLargeUpdate(Mockito.anyString()))
+                .thenThrow(new SQLException("Loading local data is disabled", "42000",
+                        BulkLoader.ER_CLIENT_LOCAL_FILES_DISABLED));
+
+        SQLException thrown = assertThrows(SQLException.class,
+                () -> BulkLoader.load(connection, "tmp_pairs", List.of("term"), List.of(List.of("Term"))));
+
+        assertTrue(BulkLoader.isRefused(thrown), "A disabled local infile should be reported as refused");
+        try (Stream<Path> left = Files.list(BulkLoader.directory())) {
+            assertEquals(0, left.count(), "No row file should be left behind");
+        }
+    }
+
+    @Test
+    public void testOnlyDisabledLocalInfileCountsAsRefused() {
+        assertTrue(BulkLoader.isRefused(new SQLException("not allowed", "42000", BulkLoader.ER_NOT_ALLOWED_COMMAND)));
+        assertTrue(BulkLoader.isRefused(
+                new SQLException("disabled", "42000", BulkLoader.ER_CLIENT_LOCAL_FILES_DISABLED)));
+        assertFalse(BulkLoader.isRefused(new SQLException("Deadlock found", "40001", 1213)),
+                "A deadlock is a failure of this load only");
+        assertFalse(BulkLoader.isRefused(new SQLException("Communications link failure", "08S01", 0)),
+                "A lost connection is a failure of this load only");
+    }
+}
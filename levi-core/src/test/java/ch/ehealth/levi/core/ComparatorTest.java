@@ -3,9 +3,11 @@ package ch.ehealth.levi.core;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import ch.ehealth.levi.core.compare.Comparator;
+import ch.ehealth.levi.core.compare.TermRule;
 import ch.ehealth.levi.core.export.ResultCollector;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +18,7 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for the Comparator class.
@@ -536,6 +539,43 @@ public class ComparatorTest {
         assertEquals("term\u00df", inactivations.get(0).get(1), "Eszett should only be transformed for German");
     }
 
+    @SuppressWarnings("unchecked")
+    private List<List<String>> searchedInactivations() throws SQLException, ClassNotFoundException {
+        ArgumentCaptor<List<List<String>>> rows = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(mockDbConnection).searchDescriptions(rows.capture());
+        return rows.getValue();
+    }
+
+    @Test
+    public void testGenerateDescriptionInactivationDelta_SsTermWithEszettCounterpartIsSkipped() throws IOException, SQLException, ClassNotFoundException {
+        conf.setTransformEszett(true);
+        // Counterpart differs in case and spells ß; it is the Swiss form of the same term
+        resultCollector.setFullNewTranslationCurrent("C1", "STRA\u00dfE", "PT", "STRA\u00dfE", "de", "CS", "Type", "Ref", "Acc",
+            "", "", "", "", "", "", "", "", "");
+        resultCollector.setFullInactivationsCurrent("D1", "Strasse", "de", "C1");
+        resultCollector.setFullInactivationsCurrent("D2", "Gasse", "de", "C2");
+
+        comparator.generateDescriptionInactivationDelta();
+
+        List<List<String>> searched = searchedInactivations();
+        assertEquals(1, searched.size(), "The 'ss' term with a ß-counterpart should not be inactivated");
+        assertEquals("D2", searched.get(0).get(0), "Other 'ss' terms should still be inactivated");
+    }
+
+    @Test
+    public void testGenerateDescriptionInactivationDelta_SsTermWithoutEszettCounterpartIsKept() throws IOException, SQLException, ClassNotFoundException {
+        conf.setTransformEszett(true);
+        resultCollector.setFullNewTranslationCurrent("C1", "Stra\u00dfenbahn", "PT", "Stra\u00dfenbahn", "de", "CS", "Type", "Ref",
+            "Acc", "", "", "", "", "", "", "", "", "");
+        resultCollector.setFullInactivationsCurrent("D1", "Strasse", "de", "C1");
+
+        comparator.generateDescriptionInactivationDelta();
+
+        List<List<String>> searched = searchedInactivations();
+        assertEquals(1, searched.size(), "The 'ss' term without ß-counterpart should be inactivated");
+        assertEquals("Strasse", searched.get(0).get(1), "The term should be kept as it is");
+    }
+
     @Test
     public void testGenerateDescriptionInactivationDelta_HeaderIsPresentAlways() throws IOException, SQLException, ClassNotFoundException {
         Mockito.doNothing().when(mockDbConnection).searchDescriptions(Mockito.anyList());
@@ -626,6 +666,113 @@ public class ComparatorTest {
         assertEquals(1, result.size(), "Delta should contain only header when no new translations exist");
     }
 
+    @Test
+    public void testGenerateDescriptionAdditionDelta_InactiveMatchIsReactivated() throws IOException, SQLException, ClassNotFoundException {
+        System.setIn(new ByteArrayInputStream("\n".getBytes()));
+        Mockito.doNothing().when(mockDbConnection).searchTranslations(Mockito.anySet());
+
+        resultCollector.setFullNewTranslationCurrent(
+            "C1", "FSN", "PT", "Old term", "de", "CS", "Type", "Ref", "Acc",
+            "", "", "", "", "", "", "", "", "Note"
+        );
+        resultCollector.setFullExtensionTranslation(
+            "C1", "1", "", "", "Old term", "de", "CS", "Type", "Ref", "Acc", "D1", "0");
+
+        List<List<String>> result = comparator.generateDescriptionAdditionAndChangesDelta();
+
+        assertEquals(1, result.size(), "Matched entry should not appear as an addition");
+        List<List<String>> reactivations = resultCollector.getDataByType("TRANSLATION_REACTIVATION");
+        assertEquals(1, reactivations.size(), "Inactive match should be reactivated");
+        assertEquals("D1", reactivations.get(0).get(0), "Reactivation should refer to the inactive description");
+    }
+
+    @Test
+    public void testGenerateDescriptionAdditionDelta_NoReactivationWhenActiveDuplicateExists() throws IOException, SQLException, ClassNotFoundException {
+        System.setIn(new ByteArrayInputStream("\n".getBytes()));
+        Mockito.doNothing().when(mockDbConnection).searchTranslations(Mockito.anySet());
+
+        resultCollector.setFullNewTranslationCurrent(
+            "C1", "FSN", "PT", "Old term", "de", "CS", "Type", "Ref", "Acc",
+            "", "", "", "", "", "", "", "", "Note"
+        );
+        resultCollector.setFullExtensionTranslation(
+            "C1", "1", "", "", "Old term", "de", "CS", "Type", "Ref", "Acc", "D1", "0");
+        resultCollector.setFullExtensionTranslation(
+            "C1", "1", "", "", "Old term", "de", "CS", "Type", "Ref", "Acc", "D2", "1");
+
+        List<List<String>> result = comparator.generateDescriptionAdditionAndChangesDelta();
+
+        assertEquals(1, result.size(), "Matched entry should not appear as an addition");
+        assertFalse(resultCollector.containsType("TRANSLATION_REACTIVATION"),
+            "Inactive match should not be reactivated when an active duplicate exists");
+    }
+
+    @Test
+    public void testGenerateDescriptionAdditionDelta_ReportsFiredTermRules() throws IOException, SQLException, ClassNotFoundException {
+        conf.setRegexCheck(true);
+        conf.setTermRules(Map.of("nl", List.of(new TermRule("Lower case start", "^\\p{Ll}", true))));
+        System.setIn(new ByteArrayInputStream("\n".getBytes()));
+        Mockito.doNothing().when(mockDbConnection).searchTranslations(Mockito.anySet());
+
+        resultCollector.setFullNewTranslationCurrent(
+            "C1", "FSN", "PT", "Acuut myocardinfarct", "nl", "CS", "Type", "Ref", "Acc",
+            "", "", "", "", "", "", "", "", "Note"
+        );
+
+        List<List<String>> result = comparator.generateDescriptionAdditionAndChangesDelta();
+
+        assertEquals("Term rules", result.get(0).get(23), "Header should contain the term rules column");
+        assertEquals("Lower case start", result.get(1).get(23), "Fired rule should be reported in the delta");
+        assertEquals("see Term rules", result.get(1).get(22),
+            "The case column should refer to the term rules instead of reporting the term as unchecked");
+    }
+
+    @Test
+    public void testGenerateDescriptionAdditionDelta_ParallelMatchesSequential() throws Exception {
+        ResultCollector sequential = collectorWithMixedTranslations();
+        List<List<String>> sequentialDelta = additionDelta(sequential, 1);
+
+        ResultCollector parallel = collectorWithMixedTranslations();
+        List<List<String>> parallelDelta = additionDelta(parallel, 4);
+
+        assertEquals(sequentialDelta, parallelDelta, "Parallel delta should equal the sequential delta");
+        assertEquals(sequential.getDataByType("TRANSLATION_CHANGES"), parallel.getDataByType("TRANSLATION_CHANGES"),
+            "Parallel changes should equal the sequential changes");
+        assertEquals(sequential.getDataByType("TRANSLATION_REACTIVATION"),
+            parallel.getDataByType("TRANSLATION_REACTIVATION"),
+            "Parallel reactivations should equal the sequential reactivations");
+        assertEquals("C2999", parallel.getConceptIdForDescription("D2999"),
+            "Description mappings of all partitions should be merged");
+    }
+
+    /** 5000 new translations: additions, acceptability changes and reactivations in turn. */
+    private static ResultCollector collectorWithMixedTranslations() {
+        ResultCollector collector = new ResultCollector();
+        for (int i = 0; i < 5000; i++) {
+            String conceptId = "C" + i;
+            collector.setFullNewTranslationCurrent(
+                conceptId, "FSN", "PT", "Term " + i, "de", "CS", "Type", "Ref", "New",
+                "", "", "", "", "", "", "", "", "Note"
+            );
+            if (i % 3 != 0) {
+                String status = i % 3 == 1 ? "1" : "0";
+                collector.setFullExtensionTranslation(
+                    conceptId, "1", "", "", "Term " + i, "de", "CS", "Type", "Ref", "Old", "D" + i, status);
+            }
+        }
+        return collector;
+    }
+
+    private List<List<String>> additionDelta(ResultCollector collector, int compareThreads) throws Exception {
+        conf.setCompareThreads(compareThreads);
+        Comparator comparatorUnderTest = new Comparator(collector, conf);
+        Field dbConnectionField = Comparator.class.getDeclaredField("dbConnection");
+        dbConnectionField.setAccessible(true);
+        dbConnectionField.set(comparatorUnderTest, mockDbConnection);
+        System.setIn(new ByteArrayInputStream("\n".getBytes()));
+        return comparatorUnderTest.generateDescriptionAdditionAndChangesDelta();
+    }
+
     // =========================================================
     // Tests for Comparator.checkEszettInExtension()
     // =========================================================
@@ -686,4 +833,50 @@ public class ComparatorTest {
         boolean found = inactivations.stream().skip(1).anyMatch(row -> row.contains("Stra\u00dfe"));
         assertTrue(found, "Inactivation row should preserve the original term with 'ß'");
     }
+
+    // =========================================================
+    // Tests for Comparator.createTranslationsOverview()
+    // =========================================================
+
+    @Test
+    public void testCreateTranslationsOverview_MergesTermsPerConcept() throws Exception {
+        Mockito.doNothing().when(mockDbConnection).getOverviewOfTranslationsDB(Mockito.anySet());
+
+        resultCollector.setFullExtensionTranslation("C1", "1", "", "", "Heart", "en", "CS", "900000000000003001", "", "", "D1", "1");
+        resultCollector.setFullExtensionTranslation("C1", "1", "", "", "Herz", "de", "CS", "900000000000013009", "", "", "D2", "1");
+        resultCollector.setFullExtensionTranslation("C1", "1", "", "", "Coeur", "fr", "CS", "900000000000013009", "", "", "D3", "1");
+        resultCollector.setFullExtensionTranslation("C1", "1", "", "", "Herzmuskel", "de", "CS", "900000000000013009", "", "", "D4", "1");
+
+        List<List<String>> result = comparator.createTranslationsOverview();
+
+        assertEquals(2, result.size(), "Overview should contain the header and one row per concept");
+        assertEquals(List.of("C1", "Heart", "1", "TODO", "Herz | Herzmuskel", "Coeur", "TODO"), result.get(1));
+    }
+
+    @Test
+    public void testCreateTranslationsOverview_LargeInputMatchesExpectedLayout() throws Exception {
+        Mockito.doNothing().when(mockDbConnection).getOverviewOfTranslationsDB(Mockito.anySet());
+
+        int conceptCount = 40_000;
+        // Interleave the term kinds so that updates hit rows created much earlier
+        for (int i = 0; i < conceptCount; i++) {
+            resultCollector.setFullExtensionTranslation("C" + i, "1", "", "", "FSN " + i, "en", "CS", "900000000000003001", "", "", "F" + i, "1");
+        }
+        for (int i = 0; i < conceptCount; i++) {
+            resultCollector.setFullExtensionTranslation("C" + i, "1", "", "", "de " + i, "DE", "CS", "900000000000013009", "", "", "A" + i, "1");
+        }
+        for (int i = conceptCount - 1; i >= 0; i--) {
+            resultCollector.setFullExtensionTranslation("C" + i, "1", "", "", "fr " + i, "fr", "CS", "900000000000013009", "", "", "B" + i, "1");
+            resultCollector.setFullExtensionTranslation("C" + i, "1", "", "", "de syn " + i, "de", "CS", "900000000000013009", "", "", "S" + i, "1");
+        }
+
+        List<List<String>> result = comparator.createTranslationsOverview();
+
+        assertEquals(conceptCount + 1, result.size(), "Overview should contain the header and one row per concept");
+        assertEquals("Concept ID", result.get(0).get(0), "Header should be kept as first row");
+        for (int i = 0; i < conceptCount; i++) {
+            List<String> expected = List.of("C" + i, "FSN " + i, "1", "TODO", "de " + i + " | de syn " + i, "fr " + i, "TODO");
+            assertEquals(expected, result.get(i + 1), "Unexpected overview row for concept C" + i);
+        }
+    }
 }
@@ -41,6 +41,23 @@ public class ConfTest {
         assertEquals(password, conf.getPASSWORD(), "DB password should be correctly set and retrieved");
     }
 
+    @Test
+    public void testUseSnapshotTablesDefaultsToFullHistory() {
+        assertFalse(conf.isUseSnapshotTables(), "Snapshot tables should be opt-in");
+        conf.setUseSnapshotTables(true);
+        assertTrue(conf.isUseSnapshotTables(), "Snapshot query mode should be correctly set and retrieved");
+    }
+
+    @Test
+    public void testParallelQueryModesDefaultToSerial() {
+        assertEquals(1, conf.getDbQueryShards(), "Description lookups should run in one shard by default");
+        assertFalse(conf.isDbPipelined(), "Pipelined batch loading should be opt-in");
+        conf.setDbQueryShards(4);
+        conf.setDbPipelined(true);
+        assertEquals(4, conf.getDbQueryShards(), "Shard count should be correctly set and retrieved");
+        assertTrue(conf.isDbPipelined(), "Pipelined mode should be correctly set and retrieved");
+    }
+
     @Test
     public void testSetAndGetCountryCodeCH() {
         conf.setCountryCode("CH");
@@ -0,0 +1,158 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConnectionPool.
+ *
+ * Physical connections are replaced by Mockito mocks through the
+ * package-private factory constructor, so no database is required.
+ */
+public class ConnectionPoolTest {
+
+    private final List<Connection> opened = new ArrayList<>();
+
+    private Connection newMockConnection() throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        opened.add(connection);
+        return connection;
+    }
+
+    private ConnectionPool newPool(int size, long idleTimeoutMillis) {
+        return new ConnectionPool(this::newMockConnection, size, idleTimeoutMillis, 1);
+    }
+
+    @Test
+    public void testReleasedConnectionIsReused() throws SQLException {
+        ConnectionPool pool = newPool(2, 60_000);
+
+        Connection first = pool.borrow();
+        pool.release(first);
+        Connection second = pool.borrow();
+
+        assertSame(first, second, "Released connection should be handed out again");
+        assertEquals(1, opened.size(), "Only one physical connection should be opened");
+    }
+
+    @Test
+    public void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        ConnectionPool pool = newPool(2, 60_000);
+
+        Connection first = pool.borrow();
+        pool.release(first);
+        Mockito.when(first.isValid(Mockito.anyInt())).thenReturn(false);
+
+        Connection second = pool.borrow();
+
+        assertNotSame(first, second, "Invalid connection should not be reused");
+        Mockito.verify(first).close();
+    }
+
+    @Test
+    public void testClosedConnectionIsNotReturnedToPool() throws SQLException {
+        ConnectionPool pool = newPool(2, 60_000);
+
+        Connection first = pool.borrow();
+        Mockito.when(first.isClosed()).thenReturn(true);
+        pool.release(first);
+
+        assertEquals(0, pool.idleCount(), "Closed connection should be discarded on release");
+    }
+
+    @Test
+    public void testEvictIdleClosesExpiredConnections() throws SQLException {
+        ConnectionPool pool = newPool(2, 0);
+
+        Connection first = pool.borrow();
+        pool.release(first);
+        pool.evictIdle();
+
+        assertEquals(0, pool.idleCount(), "Expired idle connection should be evicted");
+        Mockito.verify(first).close();
+    }
+
+    @Test
+    public void testPoolSizeIsRespected() throws SQLException {
+        ConnectionPool pool = newPool(2, 60_000);
+
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        pool.release(a);
+        Connection c = pool.borrow();
+
+        assertSame(a, c, "Third borrow should reuse the released connection");
+        assertEquals(2, opened.size(), "No more connections than the pool size should be opened");
+        pool.release(b);
+        pool.release(c);
+        assertEquals(2, pool.idleCount(), "Both connections should be idle after release");
+    }
+
+    @Test
+    public void testCloseClosesIdleConnections() throws SQLException {
+        ConnectionPool pool = newPool(2, 60_000);
+
+        Connection first = pool.borrow();
+        pool.release(first);
+        pool.close();
+
+        Mockito.verify(first).close();
+        assertEquals(0, pool.idleCount(), "Pool should not keep connections after close");
+    }
+
+    @Test
+    public void testShutdownStopsIdleSweep() {
+        Conf conf = new Conf();
+        conf.setDbUrl("jdbc:mysql://mock/" + UUID.randomUUID());
+        ConnectionPool pool = ConnectionPool.forConf(conf); // no connection is opened before the first borrow
+        assertTrue(pool.isEvictionScheduled(), "Shared pool should sweep idle connections");
+
+        ConnectionPool.shutdownAll();
+
+        assertFalse(pool.isEvictionScheduled(), "Closed pool should no longer be swept");
+    }
+
+    @Test
+    public void testDiscardedConnectionIsClosedAndFreesItsSlot() throws SQLException {
+        ConnectionPool pool = newPool(1, 60_000);
+
+        Connection first = pool.borrow();
+        pool.discard(first);
+        Connection second = pool.borrow();
+
+        Mockito.verify(first).close();
+        assertNotSame(first, second, "Discarded connection should not be handed out again");
+        assertEquals(0, pool.idleCount(), "Discarded connection should not be kept idle");
+    }
+
+    @Test
+    public void testBulkLoadOnlyAllowsLocalInfileFromPrivateDirectory() throws IOException {
+        Conf conf = new Conf();
+        assertNull(ConnectionPool.connectionProperties(conf).getProperty("allowLoadLocalInfileInPath"),
+                "Local infile should not be allowed without bulk loading");
+
+        conf.setDbBulkLoad(true);
+        Properties props = ConnectionPool.connectionProperties(conf);
+
+        assertNull(props.getProperty("allowLoadLocalInfile"), "Arbitrary client files should never be readable");
+        assertEquals(BulkLoader.directory().toString(), props.getProperty("allowLoadLocalInfileInPath"),
+                "Only the bulk load directory should be readable");
+    }
+
+    @Test
+    public void testInvalidPoolSizeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> newPool(0, 60_000));
+    }
+}
@@ -1,36 +1,92 @@
 package ch.ehealth.levi.core;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import ch.ehealth.levi.core.export.ResultCollector;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for DbConnection.
  *
- * DB-dependent methods (connect, searchTranslations, etc.) require a live
- * database and are covered by integration tests. This class focuses on the
- * static batch-query builders and the hasColumn() utility that can be tested
- * without a real connection.
+ * The results of DB-dependent methods (searchTranslations, etc.) require a
+ * live database and are covered by integration tests. This class covers the
+ * static batch-query builders and the hasColumn() utility, and runs the
+ * DB-dependent methods on mocked pooled connections (registered through
+ * ConnectionPool.register) to check how they use the pool and statements.
  */
 public class DbConnectionTest {
 
     private DbConnection dbConnection;
 
+    /** Every statement created on a mocked connection, in creation order. */
+    private final List<Statement> statements = new CopyOnWriteArrayList<>();
+
     @BeforeEach
     public void setUp() {
         dbConnection = new DbConnection(new ResultCollector(), new Conf());
     }
 
+    @AfterEach
+    public void tearDown() {
+        ConnectionPool.shutdownAll();
+    }
+
+    /**
+     * Returns a configuration whose pool hands out mocked connections. Every
+     * query returns an empty result set.
+     */
+    private Conf mockedDatabase(int poolSize, Consumer<Conf> settings) {
+        Conf conf = new Conf();
+        conf.setDbUrl("jdbc:mysql://mock/" + UUID.randomUUID());
+        conf.setDbPoolSize(poolSize);
+        settings.accept(conf);
+        ConnectionPool.register(conf, new ConnectionPool(this::newMockConnection, poolSize, 60_000, 1));
+        return conf;
+    }
+
+    private Connection newMockConnection() throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(connection.createStatement()).thenAnswer(invocation -> newMockStatement(Statement.class));
+        Mockito.when(connection.createStatement(Mockito.anyInt(), Mockito.anyInt()))
+                .thenAnswer(invocation -> newMockStatement(Statement.class));
+        Mockito.when(connection.prepareStatement(Mockito.anyString()))
+                .thenAnswer(invocation -> newMockStatement(PreparedStatement.class));
+        Mockito.when(connection.prepareStatement(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenAnswer(invocation -> newMockStatement(PreparedStatement.class));
+        return connection;
+    }
+
+    private <T extends Statement> T newMockStatement(Class<T> type) throws SQLException {
+        T statement = Mockito.mock(type);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getMetaData()).thenReturn(Mockito.mock(ResultSetMetaData.class));
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenReturn(rs);
+        if (statement instanceof PreparedStatement ps) {
+            Mockito.when(ps.executeQuery()).thenReturn(rs);
+        }
+        statements.add(statement);
+        return statement;
+    }
+
     // =========================================================
     // buildBatchedQueries()  – batch size 500
     // =========================================================
@@ -258,4 +314,192 @@ public class DbConnectionTest {
         assertDoesNotThrow(() -> dbConnection.disconnect(),
             "disconnect() should not throw when no connection has been opened");
     }
+
+    // =========================================================
+    // Fetch mode (Conf#getDbFetchSize)
+    // =========================================================
+
+    @Test
+    public void testDefaultFetchSizeBuffersResults() throws Exception {
+        Conf conf = mockedDatabase(2, c -> { });
+
+        new DbConnection(new ResultCollector(), conf).searchEszett();
+
+        assertEquals(0, conf.getDbFetchSize(), "Buffering whole results should stay the default");
+        assertFalse(statements.isEmpty(), "The query should run on a pooled connection");
+        for (Statement statement : statements) {
+            Mockito.verify(statement, Mockito.never()).setFetchSize(Mockito.anyInt());
+        }
+        assertNull(ConnectionPool.connectionProperties(conf).getProperty("useCursorFetch"),
+                "Cursor fetching should not be enabled by default");
+    }
+
+    @Test
+    public void testNegativeFetchSizeStreamsRows() throws Exception {
+        Conf conf = mockedDatabase(2, c -> c.setDbFetchSize(-1));
+
+        new DbConnection(new ResultCollector(), conf).searchEszett();
+
+        Mockito.verify(statements.get(0)).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    public void testPositiveFetchSizeUsesServerSideCursor() throws Exception {
+        Conf conf = mockedDatabase(2, c -> c.setDbFetchSize(500));
+
+        new DbConnection(new ResultCollector(), conf).searchDuplicateTerms();
+
+        Mockito.verify(statements.get(0)).setFetchSize(500);
+        assertEquals("true", ConnectionPool.connectionProperties(conf).getProperty("useCursorFetch"),
+                "Positive fetch sizes need useCursorFetch on the connection");
+    }
+
+    // =========================================================
+    // Snapshot tables (Conf#isUseSnapshotTables)
+    // =========================================================
+
+    @Test
+    public void testSnapshotQueriesRunWithPoolOfOne() {
+        Conf conf = mockedDatabase(1, c -> c.setUseSnapshotTables(true));
+        DbConnection db = new DbConnection(new ResultCollector(), conf);
+
+        // The snapshot check needs the only connection; it must run before the query borrows it
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            db.searchTranslations(Set.of("100"));
+            db.getOverviewOfTranslationsDB(Set.of("100"));
+            db.searchDescriptions(List.of(List.of("1001", "Term", "de", "100")));
+            db.extractDescriptions(Set.of("100"));
+        }, "Snapshot queries should not wait for a second connection");
+    }
+
+    @Test
+    public void testSnapshotQueriesKeepTheLatestVersionPerTerm() throws Exception {
+        Conf conf = mockedDatabase(1, c -> c.setUseSnapshotTables(true));
+        DbConnection db = new DbConnection(new ResultCollector(), conf);
+        db.searchTranslations(Set.of("100"));
+        db.searchEszett();
+        db.searchDuplicateTerms();
+
+        List<String> queries = new ArrayList<>();
+        for (Statement statement : statements) {
+            Mockito.mockingDetails(statement).getInvocations().stream()
+                    .filter(invocation -> invocation.getMethod().getName().equals("executeQuery")
+                            && invocation.getArguments().length == 1)
+                    .forEach(invocation -> queries.add(invocation.getArgument(0)));
+        }
+        List<String> lookups = queries.stream().filter(sql -> sql.contains("snap_")).toList();
+        assertEquals(3, lookups.size(), "Every lookup should read the snapshots");
+        for (String sql : lookups) {
+            assertFalse(sql.matches("(?s).*snap_description\\b(?!_).*"),
+                    "Lookups should read the latest row per term, not per description ID");
+        }
+        assertTrue(lookups.get(1).contains("INNER JOIN full_refset_Language fr"),
+                "The ß check should join every language reference set row, as on the full tables");
+    }
+
+    @Test
+    public void testShardedSnapshotLookupUsesEveryPooledConnection() {
+        // As many shards as pooled connections: every shard holds one while it queries
+        Conf conf = mockedDatabase(2, c -> {
+            c.setUseSnapshotTables(true);
+            c.setDbQueryShards(2);
+        });
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 15_000; i++) {
+            rows.add(List.of(String.valueOf(i), "Term " + i, "de", String.valueOf(100 + i)));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> new DbConnection(new ResultCollector(), conf).searchDescriptions(rows),
+                "Sharded snapshot lookups should not wait for a free connection");
+        long pairLoads = statements.stream()
+                .filter(statement -> statement instanceof PreparedStatement)
+                .count();
+        assertTrue(pairLoads >= 2, "Both shards should load and query their pairs");
+    }
+
+    // =========================================================
+    // runPipelined() – two sessions, loads overlapped with queries
+    // =========================================================
+
+    @Test
+    public void testPipelinedRunQueriesBatchesInOrder() throws SQLException {
+        Conf conf = mockedDatabase(2, c -> { });
+        DbConnection db = new DbConnection(new ResultCollector(), conf);
+        Map<Connection, List<Integer>> loaded = new ConcurrentHashMap<>();
+        List<List<Integer>> queried = new ArrayList<>();
+        List<Connection> querySessions = new ArrayList<>();
+        Set<Connection> setUp = ConcurrentHashMap.newKeySet();
+        Set<Connection> cleanedUp = ConcurrentHashMap.newKeySet();
+
+        db.runPipelined(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), 3, setUp::add,
+                (session, batch) -> loaded.put(session, List.copyOf(batch)),
+                session -> {
+                    queried.add(loaded.get(session));
+                    querySessions.add(session);
+                }, cleanedUp::add);
+
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8), List.of(9)), queried,
+                "Every batch should be queried once, in batch order");
+        assertEquals(2, setUp.size(), "Two sessions should be set up");
+        assertNotSame(querySessions.get(0), querySessions.get(1), "Consecutive batches should use both sessions");
+        assertSame(querySessions.get(0), querySessions.get(2), "Sessions should alternate between batches");
+        assertEquals(setUp, cleanedUp, "Both sessions should be cleaned up");
+        assertEquals(2, ConnectionPool.forConf(conf).idleCount(), "Both sessions should go back to the pool");
+    }
+
+    @Test
+    public void testPipelinedRunPropagatesFailingLoad() {
+        Conf conf = mockedDatabase(2, c -> { });
+        DbConnection db = new DbConnection(new ResultCollector(), conf);
+        SQLException failure = new SQLException("load failed");
+        List<List<Integer>> queried = new ArrayList<>();
+
+        SQLException thrown = assertThrows(SQLException.class, () -> db.runPipelined(List.of(0, 1, 2, 3, 4), 2,
+                session -> { }, (session, batch) -> {
+                    if (batch.contains(2)) {
+                        throw failure;
+                    }
+                }, session -> queried.add(List.of()), session -> { }));
+
+        assertSame(failure, thrown, "The load failure should be rethrown as is");
+        assertEquals(1, queried.size(), "Batches after the failed load should not be queried");
+        assertEquals(2, ConnectionPool.forConf(conf).idleCount(),
+                "Sessions should go back to the pool once the loader has stopped");
+    }
+
+    // =========================================================
+    // bulkLoad() – fallback to batch inserts
+    // =========================================================
+
+    @Test
+    public void testBulkLoadIsOnlyDisabledWhenLocalInfileIsRefused() throws SQLException {
+        Conf conf = new Conf();
+        conf.setDbBulkLoad(true);
+        DbConnection db = new DbConnection(new ResultCollector(), conf);
+        Connection session = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(session.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeLargeUpdate(Mockito.anyString()))
+                .thenThrow(new SQLException("Deadlock found", "40001", 1213))
+                .thenThrow(new SQLException("Loading local data is disabled", "42000",
+                        BulkLoader.ER_CLIENT_LOCAL_FILES_DISABLED));
+        List<List<String>> rows = List.of(List.of("100"));
+
+        try {
+            assertFalse(db.bulkLoad(session, "temp_concept_ids", List.of("conceptId"), rows),
+                    "A failed load should fall back to batch inserts");
+            assertFalse(DbConnection.bulkLoadUnavailable, "A deadlock should not disable bulk loading");
+
+            assertFalse(db.bulkLoad(session, "temp_concept_ids", List.of("conceptId"), rows),
+                    "A refused load should fall back to batch inserts");
+            assertTrue(DbConnection.bulkLoadUnavailable, "A refused load should disable bulk loading");
+
+            assertFalse(db.bulkLoad(session, "temp_concept_ids", List.of("conceptId"), rows));
+            Mockito.verify(statement, Mockito.times(2)).executeLargeUpdate(Mockito.anyString());
+            Mockito.verify(statement, Mockito.times(2)).execute("TRUNCATE TABLE temp_concept_ids");
+        } finally {
+            DbConnection.bulkLoadUnavailable = false;
+        }
+    }
 }
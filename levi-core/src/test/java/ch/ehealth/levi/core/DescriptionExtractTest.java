@@ -0,0 +1,122 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the DescriptionExtract class.
+ * Tests that the translation, overview and inactivation lookups are answered from one extract.
+ */
+public class DescriptionExtractTest {
+
+    private static DescriptionExtract sampleExtract() {
+        DescriptionExtract extract = new DescriptionExtract(Set.of("100001", "100002"));
+        // id, conceptId, term, languageCode, typeId, caseSignificanceId, effectiveTime, descriptionActive, conceptActive, acceptabilityId
+        extract.add("D1", "100001", "Herzinfarkt", "de", "T", "C", "20240101", "1", "1", "PREF");
+        extract.add("D2", "100001", "heart attack", "en", "T", "C", "20230101", "1", "1", null);
+        extract.add("D3", "100001", "Infarctus", "fr", "T", "C", "20240101", "0", "1", "ACC");
+        extract.add("D4", "100001", "Infarctus", "fr", "T", "C", "20250101", "1", "1", "ACC");
+        extract.add("D5", "100002", "Grippe", "de", "T", "C", "20250101", "0", "1", "ACC");
+        return extract;
+    }
+
+    @Test
+    public void testTranslationsContainOnlyLocalLanguages() {
+        ResultCollector collector = new ResultCollector();
+        sampleExtract().addTranslations(collector, new Conf());
+
+        List<List<String>> rows = collector.getDataByType("EXTENSION_TRANSLATION");
+        assertEquals(4, rows.size(), "Only de/fr/it descriptions should be added for CH");
+        assertEquals("PREF", rows.get(0).get(9), "Acceptability should be taken from the extract");
+        assertEquals("D1", rows.get(0).get(10), "Description ID should be kept");
+    }
+
+    @Test
+    public void testOverviewContainsActiveDescriptionsOnce() {
+        DescriptionExtract extract = sampleExtract();
+        extract.add("D1", "100001", "Herzinfarkt", "de", "T", "C", "20240101", "1", "1", "ACC"); // second refset row
+        ResultCollector collector = new ResultCollector();
+        extract.addOverview(collector, new Conf());
+
+        assertEquals(List.of("100001", "100001", "100001"), collector.getIdsByType("TRANSLATION_OVERVIEW"),
+            "Each active description should be listed once, in every language");
+        assertEquals(3, collector.countByType("EXTENSION_TRANSLATION"), "Overview should add matching translations");
+    }
+
+    @Test
+    public void testInactivationUsesMostRecentDescriptionWithTerm() {
+        ResultCollector collector = new ResultCollector();
+        List<List<String>> inactivations = List.of(
+            Arrays.asList("X1", "Infarctus", "FR", "100001"),
+            Arrays.asList("X2", "Grippe", "de", "100002"),
+            Arrays.asList("X3", "Unbekannt", "de", "100001"));
+        sampleExtract().addInactivations(inactivations, collector);
+
+        List<List<String>> rows = collector.getDataByType("EXTENSION_INACTIVATION");
+        assertEquals(1, rows.size(), "Only active, known terms should be found");
+        assertEquals("D4", rows.get(0).get(0), "The most recent description with the term should be used");
+    }
+
+    @Test
+    public void testInactivationTermIsComparedLikeTheCollation() {
+        DescriptionExtract extract = sampleExtract();
+        extract.add("D6", "100002", "Fußpilz", "de", "T", "C", "20250101", "1", "1", "PREF");
+        extract.add("D7", "100002", "Ulcère", "fr", "T", "C", "20250101", "1", "1", "PREF");
+        ResultCollector collector = new ResultCollector();
+        extract.addInactivations(List.of(
+            Arrays.asList("X1", "HERZINFARKT", "de", "100001"),
+            Arrays.asList("X2", "Fusspilz", "de", "100002"),
+            Arrays.asList("X3", "ulcere", "fr", "100002")), collector);
+
+        assertEquals(List.of("D1", "D6", "D7"), collector.getIdsByType("EXTENSION_INACTIVATION"),
+            "Terms should match ignoring case and accents and with ß equal to ss");
+    }
+
+    @Test
+    public void testChangedTermKeepsItsEarlierVersion() {
+        DescriptionExtract extract = new DescriptionExtract(Set.of("100003"));
+        // D8 was renamed in 2024; the extract holds the latest version of each of its terms
+        extract.add("D8", "100003", "Grippe", "de", "T", "C", "20200101", "1", "1", "PREF");
+        extract.add("D8", "100003", "Influenza", "de", "T", "C", "20240101", "1", "1", "PREF");
+
+        ResultCollector translations = new ResultCollector();
+        extract.addTranslations(translations, new Conf());
+        assertEquals(2, translations.countByType("EXTENSION_TRANSLATION"),
+            "Translations should list every term of the description, as searchTranslations does");
+
+        ResultCollector inactivations = new ResultCollector();
+        extract.addInactivations(List.of(Arrays.asList("X1", "Grippe", "de", "100003")), inactivations);
+        assertEquals(List.of("D8"), inactivations.getIdsByType("EXTENSION_INACTIVATION"),
+            "The earlier term should still be found, as searchDescriptions does");
+
+        ResultCollector overview = new ResultCollector();
+        extract.addOverview(overview, new Conf());
+        List<List<String>> rows = overview.getDataByType("TRANSLATION_OVERVIEW");
+        assertEquals(1, rows.size(), "The overview should list the description once");
+        assertEquals("Influenza", rows.get(0).get(1), "The overview should show the current term");
+    }
+
+    @Test
+    public void testRestrictedUnionOnlyReportsRequestedConcepts() {
+        DescriptionExtract other = new DescriptionExtract(Set.of("100003"));
+        other.add("D6", "100003", "Fieber", "de", "T", "C", "20250101", "1", "1", "PREF");
+
+        DescriptionExtract union = sampleExtract().union(other);
+        assertEquals(Set.of("100001", "100002", "100003"), union.getConceptIds(), "Union should hold all concepts");
+        assertEquals(6, union.size(), "Union should hold the descriptions of both extracts");
+
+        DescriptionExtract restricted = union.restrictTo(Set.of("100002", "100003"));
+        assertEquals(Set.of("100002", "100003"), restricted.getConceptIds(), "Only requested concepts should be kept");
+        ResultCollector collector = new ResultCollector();
+        restricted.addTranslations(collector, new Conf());
+        assertEquals(List.of("100002", "100003"), collector.getIdsByType("EXTENSION_TRANSLATION"),
+            "Descriptions of other concepts should not be reported");
+    }
+}
@@ -0,0 +1,106 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.io.FhirIngestionService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for the FhirIngestionService class.
+ * Tests loading directories of ValueSets and Bundles in parallel.
+ */
+public class FhirIngestionServiceTest {
+
+    private static String valueSet(String code, String language, String value) {
+        return "{\"resourceType\":\"ValueSet\",\"compose\":{\"include\":[{\"concept\":[{\"code\":\"" + code
+            + "\",\"display\":\"Display " + code + "\",\"designation\":[{\"language\":\"" + language
+            + "\",\"value\":\"" + value + "\"}]}]}]}}";
+    }
+
+    private static void writeInputs(Path dir) throws IOException {
+        Files.writeString(dir.resolve("a-valueset.json"), valueSet("1", "de-CH", "Eins"), StandardCharsets.UTF_8);
+        StringBuilder bundle = new StringBuilder("{\"resourceType\":\"Bundle\",\"type\":\"collection\",\"entry\":[");
+        for (int i = 2; i <= 30; i++) {
+            bundle.append(i > 2 ? "," : "").append("{\"resource\":").append(valueSet(String.valueOf(i), "fr", "Terme " + i))
+                .append('}');
+        }
+        bundle.append(",{\"resource\":{\"resourceType\":\"CodeSystem\",\"status\":\"active\"}}]}");
+        Files.writeString(dir.resolve("b-bundle.json"), bundle.toString(), StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("notes.txt"), "not FHIR", StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testDirectoryOfValueSetsAndBundlesIsLoadedInOrder(@TempDir Path tempDir) throws IOException {
+        writeInputs(tempDir);
+
+        ResultCollector collector = new ResultCollector();
+        new FhirIngestionService(collector, new Conf()).ingest(tempDir);
+
+        List<List<String>> rows = collector.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(30, rows.size(), "Every ValueSet designation should be loaded, other resources skipped");
+        assertEquals("1", rows.get(0).get(0), "Files should be read in name order");
+        assertEquals("de", rows.get(0).get(4), "Language should be reduced to the base language code");
+        assertEquals("Terme 30", rows.get(29).get(3), "Bundle entries should keep Bundle order");
+    }
+
+    @Test
+    public void testParallelParsingMatchesSequential(@TempDir Path tempDir) throws IOException {
+        writeInputs(tempDir);
+
+        ResultCollector sequential = new ResultCollector();
+        new FhirIngestionService(sequential, new Conf()).ingest(tempDir);
+
+        Conf conf = new Conf();
+        conf.setParseThreads(4);
+        ResultCollector parallel = new ResultCollector();
+        new FhirIngestionService(parallel, conf).ingest(tempDir);
+
+        assertEquals(sequential.getDataByType("NEW_TRANSLATION_CURRENT"), parallel.getDataByType("NEW_TRANSLATION_CURRENT"),
+            "Parallel parsing should produce the same rows in the same order");
+    }
+
+    @Test
+    public void testOtherResourceTypeIsRejected(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("patient.json");
+        Files.writeString(file, "{\"resourceType\":\"Patient\"}", StandardCharsets.UTF_8);
+
+        IOException e = assertThrows(IOException.class,
+            () -> new FhirIngestionService(new ResultCollector(), new Conf()).ingest(file));
+        assertTrue(e.getMessage().contains("Patient"), "Error should name the unexpected resource type");
+    }
+
+    @Test
+    public void testResourceTypeIsReadFromTheTopLevelFields(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("late-type.json");
+        Files.writeString(file, "{\"id\":\"vs\",\"meta\":{\"resourceType\":\"Bundle\"},\"compose\":{\"include\":[]},"
+            + "\"resourceType\":\"ValueSet\"}", StandardCharsets.UTF_8);
+        assertEquals("ValueSet", FhirIngestionService.resourceType(file), "Nested resourceType fields should be skipped");
+
+        Path untyped = tempDir.resolve("untyped.json");
+        Files.writeString(untyped, "{\"compose\":{\"resourceType\":\"ValueSet\"}}", StandardCharsets.UTF_8);
+        assertNull(FhirIngestionService.resourceType(untyped), "A file without a top-level resourceType has none");
+        assertThrows(IOException.class, () -> new FhirIngestionService(new ResultCollector(), new Conf()).ingest(untyped));
+    }
+
+    @Test
+    public void testValueSetFileIsParsedFromTheFile(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("valueset.json");
+        Files.writeString(file, valueSet("42", "it", "Quarantadue"), StandardCharsets.UTF_8);
+
+        ResultCollector collector = new ResultCollector();
+        new FhirIngestionService(collector, new Conf()).ingest(file);
+
+        List<List<String>> rows = collector.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(1, rows.size());
+        assertEquals("Quarantadue", rows.get(0).get(3));
+    }
+}
@@ -1,11 +1,26 @@
 package ch.ehealth.levi.core;
 
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import ch.ehealth.levi.core.export.ResultCollector;
 import ch.ehealth.levi.core.io.FileReaderUtil;
+import ch.ehealth.levi.core.processor.FhirJsonValueSetStreamProcessor;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * Unit tests for the FileReaderUtil class.
  * Tests file type detection and path processing.
@@ -178,4 +193,142 @@ public class FileReaderUtilTest {
         assertEquals("Unknown file type", resultUpper[0], "Uppercase .XLSX is not recognized");
         assertEquals("Excel", resultLower[0], "Lowercase .xlsx should be recognized");
     }
+
+    // Streaming XLSX reading
+
+    @Test
+    public void testReadXlsxStreamsAdditionsAndInactivations(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("current.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(file.toFile())) {
+            Sheet additions = workbook.createSheet("Description Additions");
+            additions.createRow(0).createCell(0).setCellValue("Concept ID");
+            for (int i = 1; i <= 3; i++) {
+                Row row = additions.createRow(i);
+                row.createCell(0).setCellValue("C" + i);
+                row.createCell(3).setCellValue("Term " + i); // FSN and PT left empty
+                row.createCell(4).setCellValue("de");
+            }
+            workbook.createSheet("Ignored").createRow(0).createCell(0).setCellValue("x");
+            Sheet inactivations = workbook.createSheet("Description Inactivations");
+            Row header = inactivations.createRow(0);
+            header.createCell(0).setCellValue("Description ID");
+            header.createCell(1).setCellValue("Language Code");
+            Row row = inactivations.createRow(1);
+            row.createCell(0).setCellValue("D1");
+            row.createCell(1).setCellValue("FR");
+            row.createCell(2).setCellValue("C9");
+            row.createCell(4).setCellValue("Terme");
+            workbook.write(out);
+        }
+
+        ResultCollector collector = new ResultCollector();
+        new FileReaderUtil(collector).readFile(file.toString());
+
+        List<List<String>> added = collector.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(3, added.size(), "All addition rows should be loaded");
+        assertEquals("C2", added.get(1).get(0), "Rows should keep sheet order");
+        assertEquals("", added.get(1).get(1), "Missing cells should be read as empty strings");
+        assertEquals("Term 2", added.get(1).get(3), "Term should be read from column 3");
+
+        List<List<String>> inactivated = collector.getDataByType("TRANSLATION_INACTIVATION_CURRENT");
+        assertEquals(List.of(List.of("D1", "Terme", "fr", "C9")), inactivated,
+            "Inactivation row should use the language code column layout");
+    }
+
+    @Test
+    public void testReadAdditionsTsvStreamsRowsAfterHeader(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("SI_Additions.tsv");
+        StringBuilder content = new StringBuilder("Concept ID\tFSN\tPT\tTerm\tLanguage Code");
+        for (int i = 0; i < 13; i++) {
+            content.append("\tColumn").append(i);
+        }
+        content.append('\n');
+        for (int i = 1; i <= 3; i++) {
+            content.append("C").append(i).append("\tFSN\tPT\tTerm ").append(i).append("\tde");
+            content.append("\t".repeat(13)).append('\n');
+        }
+        Files.writeString(file, content.toString(), StandardCharsets.UTF_8);
+
+        ResultCollector collector = new ResultCollector();
+        new FileReaderUtil(collector).readFile(file.toString());
+
+        List<List<String>> added = collector.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(3, added.size(), "Header should be skipped and every data row loaded");
+        assertEquals("C1", added.get(0).get(0), "Rows should keep file order");
+        assertEquals("Term 3", added.get(2).get(3), "Term should be read from column 3");
+    }
+
+    @Test
+    public void testStreamedValueSetMatchesHapiParsing(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("valueset.json");
+        Files.writeString(file, "{\"resourceType\":\"ValueSet\",\"id\":\"vs\","
+            + "\"meta\":{\"tag\":[{\"code\":\"x\"}]},"
+            + "\"compose\":{\"include\":[{\"system\":\"http://snomed.info/sct\",\"concept\":["
+            + "{\"code\":\"22298006\",\"designation\":[{\"language\":\"de-CH\",\"value\":\"Myokardinfarkt\"},"
+            + "{\"language\":\"fr-CH\",\"use\":{\"code\":\"900000000000013009\"},\"value\":\"infarctus du myocarde\"}],"
+            + "\"display\":\"Myocardial infarction\"},"
+            + "{\"code\":\"38341003\",\"display\":\"Hypertension\",\"designation\":[{\"language\":\"it\",\"value\":\"ipertensione\"}]}"
+            + "]}]}}", StandardCharsets.UTF_8);
+
+        ResultCollector parsed = new ResultCollector();
+        new FileReaderUtil(parsed).readFile(file.toString());
+
+        Conf conf = new Conf();
+        conf.setFhirStreaming(true);
+        ResultCollector streamed = new ResultCollector();
+        new FileReaderUtil(streamed, conf).readFile(file.toString());
+
+        List<List<String>> rows = streamed.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(3, rows.size(), "Every designation should be loaded");
+        assertEquals("Myocardial infarction", rows.get(0).get(1), "Display after the designations should be used as FSN");
+        assertEquals("fr", rows.get(1).get(4), "Language should be reduced to the base language code");
+        assertEquals(parsed.getDataByType("NEW_TRANSLATION_CURRENT"), rows,
+            "Streamed rows should equal the rows of the HAPI parser");
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStreamedResourceWithoutValueSetTypeAddsNoRows() {
+        String compose = "\"compose\":{\"include\":[{\"concept\":[{\"code\":\"1\",\"display\":\"One\","
+            + "\"designation\":[{\"language\":\"de\",\"value\":\"Eins\"}]}]}]}";
+
+        ResultCollector untyped = new ResultCollector();
+        IOException e = assertThrows(IOException.class,
+            () -> new FhirJsonValueSetStreamProcessor(untyped, new Conf()).processValueSet(json("{" + compose + "}")));
+        assertTrue(e.getMessage().contains("resourceType"), "Error should name the missing resourceType");
+        assertTrue(untyped.getDataByType("NEW_TRANSLATION_CURRENT").isEmpty(), "No rows should be added");
+
+        ResultCollector lateType = new ResultCollector();
+        assertThrows(IOException.class, () -> new FhirJsonValueSetStreamProcessor(lateType, new Conf())
+            .processValueSet(json("{" + compose + ",\"resourceType\":\"CodeSystem\"}")));
+        assertTrue(lateType.getDataByType("NEW_TRANSLATION_CURRENT").isEmpty(),
+            "Rows read before a wrong resourceType should not be added");
+
+        ResultCollector lateValueSet = new ResultCollector();
+        assertDoesNotThrow(() -> new FhirJsonValueSetStreamProcessor(lateValueSet, new Conf())
+            .processValueSet(json("{" + compose + ",\"resourceType\":\"ValueSet\"}")));
+        assertEquals(1, lateValueSet.getDataByType("NEW_TRANSLATION_CURRENT").size(),
+            "Rows read before a ValueSet resourceType should be added once it is seen");
+    }
+
+    @Test
+    public void testBundleIsLoadedWhenStreaming(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("bundle.json");
+        Files.writeString(file, "{\"resourceType\":\"Bundle\",\"type\":\"collection\",\"entry\":["
+            + "{\"resource\":{\"resourceType\":\"ValueSet\",\"compose\":{\"include\":[{\"concept\":["
+            + "{\"code\":\"1\",\"display\":\"One\",\"designation\":[{\"language\":\"fr\",\"value\":\"Un\"}]}]}]}}}]}",
+            StandardCharsets.UTF_8);
+
+        Conf conf = new Conf();
+        conf.setFhirStreaming(true);
+        ResultCollector collector = new ResultCollector();
+        new FileReaderUtil(collector, conf).readFile(file.toString());
+
+        List<List<String>> rows = collector.getDataByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(1, rows.size(), "The ValueSets of a Bundle should be loaded with streaming on");
+        assertEquals("Un", rows.get(0).get(3));
+    }
 }
@@ -0,0 +1,89 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.ehealth.levi.core.io.FileWriterUtil;
+import ch.ehealth.levi.core.io.ParallelFileWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ParallelFileWriter.
+ */
+public class ParallelFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<List<String>> rows(String... values) {
+        return Arrays.stream(values).map(List::of).toList();
+    }
+
+    @Test
+    public void testWritesAllFilesConcurrently() throws IOException {
+        try (ParallelFileWriter files = new ParallelFileWriter(new FileWriterUtil(), 4)) {
+            for (int i = 0; i < 20; i++) {
+                files.submit(tempDir.resolve("file" + i + ".tsv").toString(), rows("header", "row" + i));
+            }
+            files.awaitAll();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(List.of("header", "row" + i),
+                    Files.readAllLines(tempDir.resolve("file" + i + ".tsv"), StandardCharsets.UTF_8),
+                    "Every submitted file should be written completely");
+        }
+    }
+
+    @Test
+    public void testWritesToSamePathKeepSubmissionOrder() throws IOException {
+        Path target = tempDir.resolve("same.tsv");
+        try (ParallelFileWriter files = new ParallelFileWriter(new FileWriterUtil(), 4)) {
+            for (int i = 0; i < 10; i++) {
+                files.submit(target.toString(), rows("version" + i));
+            }
+            files.awaitAll();
+        }
+
+        assertEquals(List.of("version9"), Files.readAllLines(target, StandardCharsets.UTF_8),
+                "The last submitted write of a path should win");
+    }
+
+    @Test
+    public void testFailuresAreAggregated() throws IOException {
+        String missingDir = tempDir.resolve("missing").toString();
+        String good = tempDir.resolve("good.tsv").toString();
+
+        try (ParallelFileWriter files = new ParallelFileWriter(new FileWriterUtil(), 3)) {
+            files.submit(missingDir + "/a.tsv", rows("a"));
+            files.submit(good, rows("ok"));
+            files.submit(missingDir + "/b.tsv", rows("b"));
+
+            IOException e = assertThrows(IOException.class, files::awaitAll);
+            assertTrue(e.getMessage().startsWith("Failed to write 2 file(s)"), "Message should count failures");
+            assertEquals(2, e.getSuppressed().length, "Each failure should be attached");
+        }
+        assertTrue(Files.exists(Path.of(good)), "Successful files should still be written");
+    }
+
+    @Test
+    public void testSingleThreadWritesSequentiallyAndAggregates() throws IOException {
+        String missing = tempDir.resolve("missing").resolve("a.tsv").toString();
+        String good = tempDir.resolve("good.tsv").toString();
+
+        try (ParallelFileWriter files = new ParallelFileWriter(new FileWriterUtil(), 1)) {
+            files.submit(missing, rows("a"));
+            files.submit(good, rows("ok"));
+            assertTrue(Files.exists(Path.of(good)), "Sequential mode should write immediately");
+            assertThrows(IOException.class, files::awaitAll);
+        }
+    }
+}
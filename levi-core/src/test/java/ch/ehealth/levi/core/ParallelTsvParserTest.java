@@ -0,0 +1,107 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+import ch.ehealth.levi.core.io.ParallelTsvParser;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ParallelTsvParser.
+ * Compares the parsed rows with the sequential OpenCSV reader.
+ */
+public class ParallelTsvParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Supplier<CSVParser> PARSER = () -> new CSVParserBuilder().withSeparator('\t')
+        .withQuoteChar('"').withEscapeChar('\\').withStrictQuotes(false).build();
+
+    @Test
+    public void testRowsMatchSequentialReaderInOrder() throws Exception {
+        StringBuilder content = new StringBuilder("Concept ID\tTerm\tLanguage Code\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("C").append(i).append("\tTerm ").append(i).append("\tde\n");
+            if (i % 50 == 0) {
+                content.append("C").append(i).append("\t\"Quoted\" term\tfr\r\n");
+                content.append("\n");
+                content.append("C").append(i).append("\tBack\\\\slash\tit\n");
+            }
+        }
+        content.append("Last\tline\twithout newline");
+        Path file = write(content.toString());
+
+        assertRowsEqual(readSequentially(file), readInParallel(file));
+    }
+
+    @Test
+    public void testMultiLineFieldFallsBackToSequentialReading() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("C").append(i).append("\tTerm ").append(i).append("\tde\n");
+            if (i == 120) {
+                content.append("C-multi\t\"Term spanning\ntwo lines\"\tde\n");
+            }
+        }
+        Path file = write(content.toString());
+
+        List<String[]> parallel = readInParallel(file);
+        assertRowsEqual(readSequentially(file), parallel);
+        assertEquals("Term spanning\ntwo lines", parallel.get(121)[1], "Multi-line field should be read as one value");
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("Additions.tsv");
+        Files.writeString(file, content, Charset.defaultCharset());
+        return file;
+    }
+
+    private static List<String[]> readSequentially(Path file) throws IOException, CsvValidationException {
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader reader = new CSVReaderBuilder(new FileReader(file.toFile())).withCSVParser(PARSER.get()).build()) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String[]> readInParallel(Path file) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        // Small chunks so that the file is split into many parts
+        ParallelTsvParser parser = new ParallelTsvParser(4, 256, Charset.defaultCharset(), PARSER);
+        try (ParallelTsvParser.Rows parsed = parser.open(file)) {
+            String[] row;
+            while ((row = parsed.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRowsEqual(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size(), "Should read the same number of rows");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Arrays.asList(expected.get(i)), Arrays.asList(actual.get(i)), "Row " + i + " should match");
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ch.ehealth.levi.core;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+import ch.ehealth.levi.core.io.FileReaderUtil;
+import ch.ehealth.levi.core.io.ParsedInputCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the ParsedInputCache class.
+ * Tests storing, restoring and invalidating parsed input rows.
+ */
+public class ParsedInputCacheTest {
+
+    private static ResultCollector sampleRows() {
+        ResultCollector collector = new ResultCollector();
+        collector.setFullInactivationsCurrent("D1", "Terme", "fr", "C1");
+        collector.addRows("NEW_TRANSLATION_CURRENT", List.of(
+            Arrays.asList("C1", "FSN", "", "Größe", "de", null),
+            Arrays.asList("C2", "FSN", "", "Taille", "fr", "")));
+        return collector;
+    }
+
+    @Test
+    public void testStoredRowsAreRestored(@TempDir Path tempDir) throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.xlsx"), "content");
+        ParsedInputCache cache = new ParsedInputCache(tempDir.resolve("cache"), "country=CH");
+        ResultCollector rows = sampleRows();
+
+        cache.store(cache.keyOf(input), rows);
+        ResultCollector restored = cache.load(cache.keyOf(input));
+
+        assertNotNull(restored, "Entry of an unchanged file should be found");
+        assertEquals(rows.getTypes(), restored.getTypes(), "Types should keep their order");
+        for (String type : rows.getTypes()) {
+            assertEquals(rows.getDataByType(type), restored.getDataByType(type), "Rows of " + type + " should be restored");
+        }
+        restored.getDataByType("NEW_TRANSLATION_CURRENT").get(0).set(3, "Groesse");
+        assertEquals("Größe", cache.load(cache.keyOf(input)).getDataByType("NEW_TRANSLATION_CURRENT").get(0).get(3),
+            "Restored rows should be independent copies");
+    }
+
+    @Test
+    public void testChangedFileOrSettingsMissTheCache(@TempDir Path tempDir) throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.xlsx"), "content");
+        FileTime modified = Files.getLastModifiedTime(input);
+        ParsedInputCache cache = new ParsedInputCache(tempDir.resolve("cache"), "country=CH");
+        cache.store(cache.keyOf(input), sampleRows());
+
+        ParsedInputCache otherSettings = new ParsedInputCache(tempDir.resolve("cache"), "country=AT");
+        assertNull(otherSettings.load(otherSettings.keyOf(input)), "Entry written with other settings should not be used");
+
+        Files.writeString(input, "CONTENT");
+        Files.setLastModifiedTime(input, modified);
+        assertNull(cache.load(cache.keyOf(input)), "Same size and time but other content should miss the cache");
+    }
+
+    @Test
+    public void testFileReaderRestoresUnchangedFileFromCache(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("test.simpleOverview.tsv");
+        Files.writeString(file, "Concept ID\tTerm\tType\tLanguage\tStatus\nC1\tTerm 1\tT\tde\t1\nC2\tTerm 2\tT\tfr\t1\n",
+            StandardCharsets.UTF_8);
+        Conf conf = new Conf();
+        conf.setInputCacheDir(tempDir.resolve("cache").toString());
+
+        ResultCollector first = new ResultCollector();
+        new FileReaderUtil(first, conf).readFile(file.toString());
+        ResultCollector second = new ResultCollector();
+        new FileReaderUtil(second, conf).readFile(file.toString());
+
+        try (Stream<Path> entries = Files.list(tempDir.resolve("cache"))) {
+            assertEquals(1, entries.filter(p -> p.toString().endsWith(".bin")).count(), "One entry should be stored");
+        }
+        assertFalse(first.isEmpty(), "File should be parsed");
+        for (String type : first.getTypes()) {
+            assertEquals(first.getDataByType(type), second.getDataByType(type), "Cached rows should equal parsed rows");
+        }
+    }
+
+    @Test
+    public void testExcelWithEnteredLanguageCodeIsNotCached(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("current.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(file.toFile())) {
+            Sheet inactivations = workbook.createSheet("Description Inactivations");
+            inactivations.createRow(0).createCell(0).setCellValue("Description ID"); // no Language Code column
+            Row row = inactivations.createRow(1);
+            row.createCell(0).setCellValue("D1");
+            row.createCell(1).setCellValue("Terme");
+            row.createCell(2).setCellValue("C9");
+            workbook.write(out);
+        }
+        Conf conf = new Conf();
+        conf.setInputCacheDir(tempDir.resolve("cache").toString());
+
+        ResultCollector collector = new ResultCollector();
+        InputStream in = System.in;
+        try {
+            System.setIn(new ByteArrayInputStream("fr\n".getBytes(StandardCharsets.UTF_8)));
+            new FileReaderUtil(collector, conf).readFile(file.toString());
+        } finally {
+            System.setIn(in);
+        }
+
+        assertEquals("fr", collector.getDataByType("TRANSLATION_INACTIVATION_CURRENT").get(0).get(2),
+            "Rows should use the entered language code");
+        if (Files.isDirectory(tempDir.resolve("cache"))) {
+            try (Stream<Path> entries = Files.list(tempDir.resolve("cache"))) {
+                assertEquals(0, entries.filter(p -> p.toString().endsWith(".bin")).count(),
+                    "Rows with an entered language code should not be cached");
+            }
+        }
+    }
+}
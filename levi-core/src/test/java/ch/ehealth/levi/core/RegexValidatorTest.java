@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import ch.ehealth.levi.core.compare.RegexValidator;
 
 import java.util.List;
+import java.util.regex.Pattern;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -235,9 +236,51 @@ public class RegexValidatorTest {
             "Should indicate unknown language for case check");
     }
 
+    @Test
+    public void testUnknownLanguageCodeWithTermRulesRefersToThem() {
+        int flags = RegexValidator.scan("Acuut myocardinfarct");
+        assertEquals("see Term rules", RegexValidator.toColumns("nl", flags, true).get(4),
+            "Case column should refer to the term rules of the language");
+        assertEquals(RegexValidator.toColumns("de", flags, false), RegexValidator.toColumns("de", flags, true),
+            "Languages with a built-in case check should keep it");
+    }
+
     @Test
     public void testValidationResultsSize() {
         List<String> results = RegexValidator.validateTerm("de", "Test");
         assertEquals(5, results.size(), "Should always return exactly 5 validation results");
     }
+
+    // Test the single-pass scanner against the original regular expressions
+
+    @Test
+    public void testScanMatchesRegexRules() {
+        Pattern upper = Pattern.compile("^\\p{Lu}");
+        Pattern quotes = Pattern.compile("[\"\u201C\u201D\u201E]");
+        Pattern spaceAroundSlash = Pattern.compile("\\s/\\s|\\s/|/\\s");
+        Pattern softHyphen = Pattern.compile("\\u00AD");
+        Pattern apostrophe = Pattern.compile("//`");
+        String[] terms = { "", "Diabetes", "diabetes", "\u00C4rztin", "\u00E9tat", "A / B", "A/ B", "A /B", "A/B",
+            "A\t/B", "\"quoted\"", "\u201Eanf\u00FChrung\u201C", "Soft\u00ADhyphen", "path//`x", "/`", "//",
+            "/ ", " /", "1 Tablette" };
+
+        for (String term : terms) {
+            int flags = RegexValidator.scan(term);
+            assertEquals(upper.matcher(term).find(), (flags & RegexValidator.FLAG_STARTS_UPPER) != 0,
+                "Upper case flag should match regex for '" + term + "'");
+            assertEquals(quotes.matcher(term).find(), (flags & RegexValidator.FLAG_QUOTES) != 0,
+                "Quotes flag should match regex for '" + term + "'");
+            assertEquals(spaceAroundSlash.matcher(term).find(), (flags & RegexValidator.FLAG_SPACE_AROUND_SLASH) != 0,
+                "Space around slash flag should match regex for '" + term + "'");
+            assertEquals(softHyphen.matcher(term).find(), (flags & RegexValidator.FLAG_SOFT_HYPHEN) != 0,
+                "Soft hyphen flag should match regex for '" + term + "'");
+            assertEquals(apostrophe.matcher(term).find(), (flags & RegexValidator.FLAG_APOSTROPHE) != 0,
+                "Apostrophe flag should match regex for '" + term + "'");
+        }
+    }
+
+    @Test
+    public void testScanNullTermHasNoFlags() {
+        assertEquals(0, RegexValidator.scan(null), "Null term should not raise any flag");
+    }
 }
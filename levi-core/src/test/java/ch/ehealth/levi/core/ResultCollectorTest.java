@@ -238,4 +238,53 @@ public class ResultCollectorTest {
         List<String> ids = collector.getIdsByType("NEW_TRANSLATION_CURRENT");
         assertEquals(5, ids.size(), "Should have five concept IDs");
     }
+
+    @Test
+    public void testCountByTypeAndEntriesByType() {
+        collector.setFullNewTranslationCurrent(
+            "100", "FSN", "PT", "Term1", "de", "CS", "Type",
+            "Ref", "Acc", "", "", "", "", "", "", "", "", "Note"
+        );
+        collector.setFullInactivationsCurrent("D1", "Term2", "de", "200");
+        collector.setFullNewTranslationCurrent(
+            "300", "FSN", "PT", "Term3", "fr", "CS", "Type",
+            "Ref", "Acc", "", "", "", "", "", "", "", "", "Note"
+        );
+
+        assertEquals(2, collector.countByType("NEW_TRANSLATION_CURRENT"), "Should count two current translations");
+        assertEquals(1, collector.countByType("TRANSLATION_INACTIVATION_CURRENT"), "Should count one inactivation");
+        assertEquals(0, collector.countByType("TRANSLATION_CHANGES"), "Unknown type should count zero");
+
+        var entries = collector.getEntriesByType("NEW_TRANSLATION_CURRENT");
+        assertEquals(2, entries.size(), "Should return both entries of the type");
+        assertEquals("NEW_TRANSLATION_CURRENT", entries.get(0).getType(), "Entry should carry its type");
+        assertEquals("300", entries.get(1).getData().get(0), "Entries should keep insertion order");
+    }
+
+    @Test
+    public void testMergeFromAppendsEntriesInOrder() {
+        collector.setFullExtensionInactivations("D1", "de", "100", "", "Term1", "", "", "", "", "", "");
+        ResultCollector shard = new ResultCollector();
+        shard.setFullExtensionInactivations("D2", "fr", "200", "", "Term2", "", "", "", "", "", "");
+        shard.setFullExtensionInactivations("D3", "it", "300", "", "Term3", "", "", "", "", "", "");
+
+        collector.mergeFrom(shard);
+
+        List<List<String>> data = collector.getDataByType("EXTENSION_INACTIVATION");
+        assertEquals(3, data.size(), "Merged collector should contain all entries");
+        assertEquals("D1", data.get(0).get(0), "Existing entries should come first");
+        assertEquals("D3", data.get(2).get(0), "Merged entries should keep their order");
+        assertEquals(3, collector.getAllEntries().size(), "Entry count should include merged entries");
+    }
+
+    @Test
+    public void testGetDataByTypeReturnsIndependentList() {
+        collector.setFullInactivationsCurrent("D1", "Term", "de", "100");
+
+        List<List<String>> data = collector.getDataByType("TRANSLATION_INACTIVATION_CURRENT");
+        data.clear();
+
+        assertEquals(1, collector.countByType("TRANSLATION_INACTIVATION_CURRENT"),
+            "Modifying the returned list should not remove entries from the collector");
+    }
 }
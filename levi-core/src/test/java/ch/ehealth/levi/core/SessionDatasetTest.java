@@ -0,0 +1,123 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import ch.ehealth.levi.core.compare.SessionDataset;
+import ch.ehealth.levi.core.export.ResultCollector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the SessionDataset class.
+ * Tests that inputs and extracts are loaded once and handed out as copies.
+ */
+public class SessionDatasetTest {
+
+    private final List<String> insertedConceptIds = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        ConnectionPool.shutdownAll();
+    }
+
+    /** A database without descriptions that records the concept IDs each extract reads. */
+    private Conf mockedDatabase() {
+        Conf conf = new Conf();
+        conf.setDbUrl("jdbc:mysql://mock/" + UUID.randomUUID());
+        ConnectionPool.register(conf, new ConnectionPool(this::newMockConnection, 1, 60_000, 1));
+        return conf;
+    }
+
+    private Connection newMockConnection() throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(connection.createStatement()).thenAnswer(invocation -> newMockStatement());
+        Mockito.when(connection.createStatement(Mockito.anyInt(), Mockito.anyInt()))
+                .thenAnswer(invocation -> newMockStatement());
+        return connection;
+    }
+
+    private Statement newMockStatement() throws SQLException {
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.execute(Mockito.anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.startsWith("INSERT INTO temp_concept_ids VALUES ")) {
+                for (String value : sql.substring("INSERT INTO temp_concept_ids VALUES ".length()).split(",")) {
+                    insertedConceptIds.add(value.replaceAll("[()']", ""));
+                }
+            }
+            return false;
+        });
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenAnswer(invocation -> Mockito.mock(ResultSet.class));
+        return statement;
+    }
+
+    @Test
+    public void testInputFileIsParsedOnceAndCopiedPerJob(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("test.simpleOverview.tsv");
+        Files.writeString(file, "Concept ID\tTerm\tType\tLanguage\tStatus\nC1\tTerm 1\tT\tde\t1\n", StandardCharsets.UTF_8);
+        SessionDataset dataset = new SessionDataset(new Conf());
+
+        ResultCollector firstJob = new ResultCollector();
+        dataset.loadInto(file.toString(), firstJob);
+        Files.writeString(file, "Concept ID\tTerm\tType\tLanguage\tStatus\nC2\tTerm 2\tT\tfr\t1\n", StandardCharsets.UTF_8);
+        ResultCollector secondJob = new ResultCollector();
+        dataset.loadInto(file.toString(), secondJob);
+
+        String type = firstJob.getTypes().get(0);
+        assertEquals(firstJob.getDataByType(type), secondJob.getDataByType(type),
+            "The file should be parsed only once per session");
+
+        firstJob.getDataByType(type).get(0).set(0, "changed");
+        assertEquals("C1", secondJob.getDataByType(type).get(0).get(0), "Jobs should receive independent rows");
+    }
+
+    @Test
+    public void testExtractIsQueriedOncePerKey() throws SQLException, ClassNotFoundException, IOException {
+        SessionDataset dataset = new SessionDataset(new Conf());
+        AtomicInteger queries = new AtomicInteger();
+
+        dataset.extractInto(List.of("translations", List.of("C1")), new ResultCollector(), db -> queries.incrementAndGet());
+        dataset.extractInto(List.of("translations", List.of("C1")), new ResultCollector(), db -> queries.incrementAndGet());
+        assertEquals(1, queries.get(), "Same extract should be queried once");
+
+        dataset.extractInto(List.of("translations", List.of("C2")), new ResultCollector(), db -> queries.incrementAndGet());
+        assertEquals(2, queries.get(), "Other arguments should be queried again");
+
+        dataset.clear();
+        dataset.extractInto(List.of("translations", List.of("C1")), new ResultCollector(), db -> queries.incrementAndGet());
+        assertEquals(3, queries.get(), "Cleared session should query again");
+    }
+
+    @Test
+    public void testDescriptionsOfEachConceptAreReadOncePerSession() throws SQLException, ClassNotFoundException {
+        SessionDataset dataset = new SessionDataset(mockedDatabase());
+
+        dataset.descriptionExtract(Set.of("100", "200"));
+        DescriptionExtract secondJob = dataset.descriptionExtract(Set.of("200", "300"));
+        DescriptionExtract thirdJob = dataset.descriptionExtract(Set.of("100"));
+
+        assertEquals(3, insertedConceptIds.size(), "Every concept should be read once");
+        assertEquals(Set.of("100", "200", "300"), Set.copyOf(insertedConceptIds), "Every concept should be read");
+        assertEquals(Set.of("200", "300"), secondJob.getConceptIds(), "A job should only see its own concepts");
+        assertEquals(Set.of("100"), thirdJob.getConceptIds(), "A job should only see its own concepts");
+    }
+}
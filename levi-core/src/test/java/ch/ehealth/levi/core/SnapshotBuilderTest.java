@@ -0,0 +1,212 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SnapshotBuilder.
+ *
+ * The database is simulated with Mockito mocks behind a registered
+ * ConnectionPool: the full tables report a fingerprint (row count, highest
+ * effective time), levi_snapshot_info keeps the recorded fingerprints, and
+ * every executed statement is recorded so that the build and swap steps can
+ * be checked.
+ */
+public class SnapshotBuilderTest {
+
+    /** Fingerprint {row count, highest effective time} of each full table. */
+    private final Map<String, String[]> sourceTables = new ConcurrentHashMap<>(Map.of(
+            "full_description", new String[] { "300", "20250101" },
+            "full_concept", new String[] { "100", "20250101" },
+            "full_refset_Language", new String[] { "600", "20250101" }));
+
+    /** Content of levi_snapshot_info: snapshot table → recorded source fingerprint. */
+    private final Map<String, String[]> snapshotInfo = new ConcurrentHashMap<>();
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        ConnectionPool.shutdownAll();
+    }
+
+    private Conf mockedDatabase() {
+        Conf conf = new Conf();
+        conf.setDbUrl("jdbc:mysql://mock/" + UUID.randomUUID());
+        ConnectionPool.register(conf, new ConnectionPool(this::newMockConnection, 1, 60_000, 1));
+        return conf;
+    }
+
+    private Connection newMockConnection() throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(connection.getAutoCommit()).thenReturn(true);
+        Mockito.when(connection.createStatement()).thenAnswer(invocation -> newStatement());
+        Mockito.when(connection.prepareStatement(Mockito.anyString()))
+                .thenAnswer(invocation -> newPreparedStatement(invocation.getArgument(0)));
+        return connection;
+    }
+
+    private Statement newStatement() throws SQLException {
+        Statement statement = Mockito.mock(Statement.class);
+        Mockito.when(statement.execute(Mockito.anyString())).thenAnswer(invocation -> {
+            executed.add(normalize(invocation.getArgument(0)));
+            return false;
+        });
+        Mockito.when(statement.executeQuery(Mockito.anyString())).thenAnswer(invocation -> {
+            String sql = normalize(invocation.getArgument(0));
+            executed.add(sql);
+            String table = sql.substring(sql.lastIndexOf(' ') + 1);
+            return row(sourceTables.get(table));
+        });
+        return statement;
+    }
+
+    private PreparedStatement newPreparedStatement(String sql) throws SQLException {
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        String[] parameters = new String[3];
+        Mockito.doAnswer(invocation -> parameters[(int) invocation.getArgument(0) - 1] = invocation.getArgument(1))
+                .when(ps).setString(Mockito.anyInt(), Mockito.any());
+        Mockito.doAnswer(invocation -> parameters[(int) invocation.getArgument(0) - 1] =
+                String.valueOf((long) invocation.getArgument(1)))
+                .when(ps).setLong(Mockito.anyInt(), Mockito.anyLong());
+        Mockito.when(ps.executeQuery()).thenAnswer(invocation -> row(snapshotInfo.get(parameters[0])));
+        Mockito.when(ps.executeUpdate()).thenAnswer(invocation -> {
+            executed.add(normalize(sql));
+            snapshotInfo.put(parameters[0], new String[] { parameters[1], parameters[2] });
+            return 1;
+        });
+        return ps;
+    }
+
+    /** A result set with the given row, or no row for {@code null}. */
+    private static ResultSet row(String[] values) throws SQLException {
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        if (values == null) {
+            return rs;
+        }
+        Mockito.when(rs.next()).thenReturn(true, false);
+        Mockito.when(rs.getLong(1)).thenReturn(Long.parseLong(values[0]));
+        Mockito.when(rs.getString(1)).thenReturn(values[0]);
+        Mockito.when(rs.getString(2)).thenReturn(values[1]);
+        return rs;
+    }
+
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private boolean executedStatementStartingWith(String prefix) {
+        return executed.stream().anyMatch(sql -> sql.startsWith(prefix));
+    }
+
+    private int indexOfStatementStartingWith(String prefix) {
+        for (int i = 0; i < executed.size(); i++) {
+            if (executed.get(i).startsWith(prefix)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testMissingSnapshotsAreBuiltAndSourcesRecorded() throws SQLException {
+        new SnapshotBuilder(mockedDatabase()).ensureCurrent();
+
+        assertTrue(executedStatementStartingWith("CREATE TABLE snap_description_terms_new AS"),
+                "snap_description_terms should be built");
+        assertTrue(executedStatementStartingWith("CREATE TABLE snap_concept_new AS"), "snap_concept should be built");
+        assertTrue(executedStatementStartingWith("CREATE TABLE snap_refset_Language_new AS"),
+                "snap_refset_Language should be built");
+        assertArrayEquals(new String[] { "300", "20250101" }, snapshotInfo.get(SnapshotBuilder.SNAP_DESCRIPTION_TERMS),
+                "The fingerprint of full_description should be recorded");
+        assertArrayEquals(new String[] { "100", "20250101" }, snapshotInfo.get(SnapshotBuilder.SNAP_CONCEPT),
+                "The fingerprint of full_concept should be recorded");
+        assertArrayEquals(new String[] { "600", "20250101" }, snapshotInfo.get(SnapshotBuilder.SNAP_LANGUAGE),
+                "The fingerprint of full_refset_Language should be recorded");
+    }
+
+    @Test
+    public void testSnapshotsKeepTheLatestRowPerComponent() throws SQLException {
+        new SnapshotBuilder(mockedDatabase()).ensureCurrent();
+
+        String description = executed.get(indexOfStatementStartingWith("CREATE TABLE snap_description_terms_new AS"));
+        assertTrue(description.contains("SELECT id, conceptId, languageCode, term, MAX(effectiveTime) AS max_time "
+                + "FROM full_description GROUP BY id, conceptId, languageCode, term"),
+                "snap_description_terms should hold the latest row of every term a description had");
+        String language = executed.get(indexOfStatementStartingWith("CREATE TABLE snap_refset_Language_new AS"));
+        assertTrue(language.contains("GROUP BY referencedComponentId, refsetId"),
+                "snap_refset_Language should hold the latest row per component and reference set");
+    }
+
+    @Test
+    public void testNewSnapshotsAreSwappedInWithOneRename() throws SQLException {
+        new SnapshotBuilder(mockedDatabase()).ensureCurrent();
+
+        int rename = indexOfStatementStartingWith("RENAME TABLE");
+        assertTrue(rename > indexOfStatementStartingWith("ALTER TABLE snap_refset_Language_new"),
+                "Snapshots should only be swapped in once all of them are built and indexed");
+        assertEquals("RENAME TABLE snap_description_terms TO snap_description_terms_old, "
+                + "snap_description_terms_new TO snap_description_terms, "
+                + "snap_concept TO snap_concept_old, snap_concept_new TO snap_concept, "
+                + "snap_refset_Language TO snap_refset_Language_old, snap_refset_Language_new TO snap_refset_Language",
+                executed.get(rename), "All snapshots should be swapped in with a single RENAME TABLE");
+        assertTrue(indexOfStatementStartingWith("DROP TABLE IF EXISTS snap_description_terms_old") > rename,
+                "The previous snapshots should be dropped after the swap");
+        assertTrue(executed.contains("DROP TABLE IF EXISTS snap_description"),
+                "The snapshot of the latest row per description ID should no longer be kept");
+        assertTrue(indexOfStatementStartingWith("REPLACE INTO levi_snapshot_info") > rename,
+                "Sources should only be recorded once the new snapshots are in place");
+    }
+
+    @Test
+    public void testCurrentSnapshotsAreNotRebuilt() throws SQLException {
+        snapshotInfo.put(SnapshotBuilder.SNAP_DESCRIPTION_TERMS, new String[] { "300", "20250101" });
+        snapshotInfo.put(SnapshotBuilder.SNAP_CONCEPT, new String[] { "100", "20250101" });
+        snapshotInfo.put(SnapshotBuilder.SNAP_LANGUAGE, new String[] { "600", "20250101" });
+
+        new SnapshotBuilder(mockedDatabase()).ensureCurrent();
+
+        assertFalse(executedStatementStartingWith("RENAME TABLE"), "Up-to-date snapshots should not be rebuilt");
+    }
+
+    @Test
+    public void testChangedSourceTableTriggersRebuild() throws SQLException {
+        snapshotInfo.put(SnapshotBuilder.SNAP_DESCRIPTION_TERMS, new String[] { "300", "20250101" });
+        snapshotInfo.put(SnapshotBuilder.SNAP_CONCEPT, new String[] { "100", "20250101" });
+        snapshotInfo.put(SnapshotBuilder.SNAP_LANGUAGE, new String[] { "600", "20250101" });
+        sourceTables.put("full_description", new String[] { "350", "20250701" });
+
+        new SnapshotBuilder(mockedDatabase()).ensureCurrent();
+
+        assertTrue(executedStatementStartingWith("RENAME TABLE"), "A new release should rebuild the snapshots");
+        assertArrayEquals(new String[] { "350", "20250701" }, snapshotInfo.get(SnapshotBuilder.SNAP_DESCRIPTION_TERMS),
+                "The new fingerprint of full_description should be recorded");
+    }
+
+    @Test
+    public void testSnapshotsAreCheckedOncePerDatabase() throws SQLException {
+        Conf conf = mockedDatabase();
+        new SnapshotBuilder(conf).ensureCurrent();
+        int statementsAfterFirstCheck = executed.size();
+
+        new SnapshotBuilder(conf).ensureCurrent();
+
+        assertEquals(statementsAfterFirstCheck, executed.size(),
+                "The second check in the same process should not query the database");
+    }
+}
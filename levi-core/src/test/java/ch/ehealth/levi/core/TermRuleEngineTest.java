@@ -0,0 +1,59 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+
+import ch.ehealth.levi.core.compare.TermRule;
+import ch.ehealth.levi.core.compare.TermRuleEngine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TermRuleEngine class.
+ * Tests per-language rule sets and the reporting of fired rules.
+ */
+public class TermRuleEngineTest {
+
+    private static final Map<String, List<TermRule>> RULES = Map.of(
+        "*", List.of(new TermRule("No double space", "  ", false)),
+        "nl", List.of(new TermRule("Lower case start", "^\\p{Ll}", true)),
+        "da", List.of(new TermRule("No trailing period", "\\.$", false)));
+
+    @Test
+    public void testRulesOfLanguageAndAllLanguagesAreEvaluated() {
+        TermRuleEngine engine = new TermRuleEngine(RULES);
+
+        assertEquals(List.of(), engine.evaluate("nl", "acuut myocardinfarct"), "Valid Dutch term should fire no rule");
+        assertEquals(List.of("No double space", "Lower case start"), engine.evaluate("nl", "Acuut  myocardinfarct"),
+            "Rules for all languages should be reported before language rules");
+        assertEquals(List.of("No trailing period"), engine.evaluate("DA", "akut myokardieinfarkt."),
+            "Language codes should be matched case-insensitively");
+    }
+
+    @Test
+    public void testOnlyLanguagesWithOwnRulesHaveRules() {
+        TermRuleEngine engine = new TermRuleEngine(RULES);
+
+        assertTrue(engine.hasRules("NL"), "Language with its own rules should have rules");
+        assertFalse(engine.hasRules("sv"), "Rules for all languages alone should not count");
+    }
+
+    @Test
+    public void testUnconfiguredLanguageUsesOnlyGeneralRules() {
+        TermRuleEngine engine = new TermRuleEngine(RULES);
+
+        assertEquals("OK", engine.describe("sv", "Akut hjärtinfarkt"), "Only general rules apply to other languages");
+        assertEquals("No double space", engine.describe("sv", "Akut  hjärtinfarkt"),
+            "Fired general rule should be reported for other languages");
+    }
+
+    @Test
+    public void testInvalidPatternIsRejected() {
+        Map<String, List<TermRule>> rules = Map.of("et", List.of(new TermRule("Broken", "[a-", false)));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new TermRuleEngine(rules));
+        assertTrue(e.getMessage().contains("Broken"), "Error should name the invalid rule");
+    }
+}
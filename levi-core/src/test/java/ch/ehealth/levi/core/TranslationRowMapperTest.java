@@ -0,0 +1,115 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import ch.ehealth.levi.core.export.ResultCollector;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TranslationRowMapper.
+ *
+ * Result sets are Mockito mocks, so the tests verify index-based mapping and
+ * the per-type handlers without a database.
+ */
+public class TranslationRowMapperTest {
+
+    private static final String[] TRANSLATION_COLUMNS = { "id", "conceptId", "term", "languageCode", "typeId",
+            "caseSignificanceId", "effectiveTime", "descriptionActive", "conceptActive", "acceptabilityId" };
+
+    private ResultCollector collector;
+    private Conf conf;
+
+    @BeforeEach
+    public void setUp() {
+        collector = new ResultCollector();
+        conf = Mockito.spy(new Conf());
+    }
+
+    private ResultSet mockResultSet(String[] columns, String[]... rows) throws SQLException {
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        Mockito.when(rs.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getColumnCount()).thenReturn(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            Mockito.when(metaData.getColumnLabel(i + 1)).thenReturn(columns[i]);
+        }
+
+        int[] current = { -1 };
+        Mockito.when(rs.next()).thenAnswer(invocation -> ++current[0] < rows.length);
+        Mockito.when(rs.getString(Mockito.anyInt()))
+                .thenAnswer(invocation -> rows[current[0]][(int) invocation.getArgument(0) - 1]);
+        return rs;
+    }
+
+    @Test
+    public void testAdditionsAreMappedByColumnIndex() throws SQLException {
+        ResultSet rs = mockResultSet(TRANSLATION_COLUMNS,
+                new String[] { "D1", "100", "Herz", "de", "T1", "CS", "20250101", "1", "1", "ACC" });
+
+        TranslationRowMapper.compile("additions", rs.getMetaData(), collector, conf).mapAll(rs);
+
+        List<List<String>> data = collector.getDataByType("EXTENSION_TRANSLATION");
+        assertEquals(1, data.size(), "One extension translation should be added");
+        assertEquals(List.of("100", "1", "", "", "Herz", "de", "CS", "T1", conf.getLanguageRefSetId("de"), "ACC",
+                "D1", "1"), data.get(0), "All columns should be mapped to their positions");
+        Mockito.verify(rs, Mockito.never()).getString(Mockito.anyString());
+    }
+
+    @Test
+    public void testMissingColumnsAreMappedAsNull() throws SQLException {
+        String[] overviewColumns = { "conceptActive", "conceptId", "id", "typeId", "term", "languageCode",
+                "caseSignificanceId", "descriptionActive" };
+        ResultSet rs = mockResultSet(overviewColumns,
+                new String[] { "1", "100", "D1", "T1", "Herz", "de", "CS", "1" });
+
+        TranslationRowMapper.compile("overview", rs.getMetaData(), collector, conf).mapAll(rs);
+
+        List<String> extension = collector.getDataByType("EXTENSION_TRANSLATION").get(0);
+        assertNull(extension.get(9), "Acceptability should be null when the column is missing");
+        assertEquals(List.of("100", "Herz", "T1", "de", "1"), collector.getDataByType("TRANSLATION_OVERVIEW").get(0),
+                "Overview row should be added as well");
+    }
+
+    @Test
+    public void testInactivationsAreMapped() throws SQLException {
+        String[] columns = { "id", "term", "conceptId", "active", "languageCode" };
+        ResultSet rs = mockResultSet(columns, new String[] { "D1", "Herz", "100", "1", "de" });
+
+        TranslationRowMapper.compile("inactivations", rs.getMetaData(), collector, conf).mapAll(rs);
+
+        assertEquals(List.of("D1", "de", "100", "", "Herz", "", "", "", "", "", ""),
+                collector.getDataByType("EXTENSION_INACTIVATION").get(0), "Inactivation row should be mapped");
+    }
+
+    @Test
+    public void testLanguageRefSetIsLookedUpOncePerLanguage() throws SQLException {
+        ResultSet rs = mockResultSet(TRANSLATION_COLUMNS,
+                new String[] { "D1", "100", "Herz", "de", "T1", "CS", "20250101", "1", "1", "ACC" },
+                new String[] { "D2", "200", "Lunge", "de", "T1", "CS", "20250101", "1", "1", "ACC" },
+                new String[] { "D3", "300", "Coeur", "fr", "T1", "CS", "20250101", "1", "1", "ACC" });
+
+        TranslationRowMapper.compile("searchEszett", rs.getMetaData(), collector, conf).mapAll(rs);
+
+        assertEquals(3, collector.countByType("EXTENSION_TRANSLATION"), "All rows should be mapped");
+        Mockito.verify(conf, Mockito.times(1)).getLanguageRefSetId("de");
+        Mockito.verify(conf, Mockito.times(1)).getLanguageRefSetId("fr");
+    }
+
+    @Test
+    public void testUnknownTypeAddsNothing() throws SQLException {
+        ResultSet rs = mockResultSet(TRANSLATION_COLUMNS,
+                new String[] { "D1", "100", "Herz", "de", "T1", "CS", "20250101", "1", "1", "ACC" });
+
+        TranslationRowMapper.compile("unknown", rs.getMetaData(), collector, conf).mapAll(rs);
+
+        assertTrue(collector.isEmpty(), "Unknown result set types should not add entries");
+    }
+}
@@ -0,0 +1,61 @@
+package ch.ehealth.levi.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ch.ehealth.levi.core.export.CountingRowSink;
+import ch.ehealth.levi.core.export.RowSink;
+import ch.ehealth.levi.core.io.FileWriterUtil;
+import ch.ehealth.levi.core.io.TsvRowSink;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming row sinks.
+ */
+public class TsvRowSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testStreamedFileMatchesFileWriterUtil() throws IOException {
+        List<List<String>> rows = List.of(
+            List.of("conceptId", "term", "languageCode"),
+            List.of("100", "Herzinfarkt", "de"),
+            List.of("200", "Straße", "de"));
+        Path streamed = tempDir.resolve("streamed.tsv");
+        Path written = tempDir.resolve("written.tsv");
+
+        try (TsvRowSink sink = new TsvRowSink(streamed.toString())) {
+            for (List<String> row : rows) {
+                sink.accept(row);
+            }
+        }
+        new FileWriterUtil().writeToFile(written.toString(), rows);
+
+        assertArrayEquals(Files.readAllBytes(written), Files.readAllBytes(streamed),
+            "Streamed file should be byte-identical to the buffered file");
+    }
+
+    @Test
+    public void testCountingSinkCountsHeaderSeparately() throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CountingRowSink sink = new CountingRowSink(RowSink.into(rows))) {
+            assertEquals(0, sink.getDataRowCount(), "Empty sink should have no data rows");
+            sink.accept(List.of("header"));
+            sink.accept(List.of("row1"));
+            sink.accept(List.of("row2"));
+
+            assertEquals(3, sink.getCount(), "Should count all rows");
+            assertEquals(2, sink.getDataRowCount(), "Should not count the header as data");
+        }
+        assertEquals(3, rows.size(), "Rows should be forwarded to the delegate");
+    }
+}
@@ -1,5 +1,6 @@
 package ch.ehealth.levi.gui;
 
+import ch.ehealth.levi.core.ConnectionPool;
 import ch.ehealth.levi.gui.controller.MainController;
 import ch.ehealth.levi.gui.util.I18nUtil;
 import javafx.application.Application;
@@ -69,6 +70,7 @@ public class LeviGuiApplication extends Application {
     @Override
     public void stop() {
         logger.info("Stopping LEVI GUI Application");
+        ConnectionPool.shutdownAll();
     }
     
     public static void main(String[] args) {
@@ -403,10 +403,12 @@ public class MainController {
         List<String> queue = new ArrayList<>(selectedJobTypes);
         updateJobRunningState(true);
         startRuntimeUpdater();
-        runNextJob(queue, 0, null);
+        // All jobs of the queue share the loaded input files and DB extracts
+        jobService.startSession(configService.toConf());
+        runNextJob(queue, 0);
     }
 
-    private void runNextJob(List<String> queue, int index, JobResult prevResult) {
+    private void runNextJob(List<String> queue, int index) {
         String jobType = queue.get(index);
         Conf conf = configService.toConf();
 
@@ -417,15 +419,10 @@ public class MainController {
             case "desc-inact":      task = jobService.createDescInactivationsTask(conf); break;
             case "translate-delta": task = jobService.createTranslateDeltaTask(conf);   break;
             case "eszett-check":    task = jobService.createEszettCheckTask(conf);       break;
-            case "not-published": {
-                // Reuse the manager from the previous job if it already loaded the current file
-            	ch.ehealth.levi.core.compare.CompareManager preloaded =
-                        (prevResult != null) ? prevResult.getManager() : null;
-                task = jobService.createNotPublishedTask(conf, preloaded);
-                break;
-            }
+            case "not-published":   task = jobService.createNotPublishedTask(conf);      break;
             default:
                 showError("Unknown Job", "Unknown job type: " + jobType);
+                jobService.endSession();
                 updateJobRunningState(false);
                 updateJobButtonsState();
                 return;
@@ -482,8 +479,9 @@ public class MainController {
             if (index + 1 < queue.size()) {
                 // Chain to next job in queue
                 startRuntimeUpdater();
-                Platform.runLater(() -> runNextJob(queue, index + 1, result));
+                Platform.runLater(() -> runNextJob(queue, index + 1));
             } else {
+                jobService.endSession();
                 updateJobRunningState(false);
                 updateJobButtonsState();
             }
@@ -498,6 +496,7 @@ public class MainController {
             logMessage("ERROR: " + (ex != null ? ex.getMessage() : "unknown error"));
             progressBar.progressProperty().unbind();
             statusLabel.textProperty().unbind();
+            jobService.endSession();
             updateJobRunningState(false);
             updateJobButtonsState();
             showError("Job Failed", I18nUtil.get("error.job.failed", ex != null ? ex.getMessage() : "unknown error"));
@@ -510,6 +509,7 @@ public class MainController {
             logMessage("Job cancelled by user");
             progressBar.progressProperty().unbind();
             statusLabel.textProperty().unbind();
+            jobService.endSession();
             updateJobRunningState(false);
             updateJobButtonsState();
         });
@@ -1,7 +1,14 @@
 package ch.ehealth.levi.gui.model;
 
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import ch.ehealth.levi.core.compare.TermRule;
+
 /**
  * Application configuration model for JSON serialization
  */
@@ -71,6 +78,33 @@ public class AppConfig {
         @JsonProperty("password")
         private String password = "";
 
+        @JsonProperty("poolSize")
+        private int poolSize = 4;
+
+        @JsonProperty("poolIdleTimeoutSeconds")
+        private int poolIdleTimeoutSeconds = 300;
+
+        @JsonProperty("validationTimeoutSeconds")
+        private int validationTimeoutSeconds = 5;
+
+        @JsonProperty("fetchSize")
+        private int fetchSize = 0;
+
+        @JsonProperty("useSnapshotTables")
+        private boolean useSnapshotTables = false;
+
+        @JsonProperty("queryShards")
+        private int queryShards = 1;
+
+        @JsonProperty("pipelined")
+        private boolean pipelined = false;
+
+        @JsonProperty("bulkLoad")
+        private boolean bulkLoad = false;
+
+        @JsonProperty("sharedExtract")
+        private boolean sharedExtract = false;
+
         /** Returns the full JDBC URL constructed from host, port and DB name. */
         @com.fasterxml.jackson.annotation.JsonIgnore
         public String getUrl() {
@@ -109,6 +143,78 @@ public class AppConfig {
         public void setPassword(String password) {
             this.password = password;
         }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getPoolIdleTimeoutSeconds() {
+            return poolIdleTimeoutSeconds;
+        }
+
+        public void setPoolIdleTimeoutSeconds(int poolIdleTimeoutSeconds) {
+            this.poolIdleTimeoutSeconds = poolIdleTimeoutSeconds;
+        }
+
+        public int getValidationTimeoutSeconds() {
+            return validationTimeoutSeconds;
+        }
+
+        public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public boolean isUseSnapshotTables() {
+            return useSnapshotTables;
+        }
+
+        public void setUseSnapshotTables(boolean useSnapshotTables) {
+            this.useSnapshotTables = useSnapshotTables;
+        }
+
+        public int getQueryShards() {
+            return queryShards;
+        }
+
+        public void setQueryShards(int queryShards) {
+            this.queryShards = queryShards;
+        }
+
+        public boolean isPipelined() {
+            return pipelined;
+        }
+
+        public void setPipelined(boolean pipelined) {
+            this.pipelined = pipelined;
+        }
+
+        public boolean isBulkLoad() {
+            return bulkLoad;
+        }
+
+        public void setBulkLoad(boolean bulkLoad) {
+            this.bulkLoad = bulkLoad;
+        }
+
+        public boolean isSharedExtract() {
+            return sharedExtract;
+        }
+
+        public void setSharedExtract(boolean sharedExtract) {
+            this.sharedExtract = sharedExtract;
+        }
     }
     
     public static class Settings {
@@ -123,6 +229,24 @@ public class AppConfig {
         
         @JsonProperty("grouping")
         private boolean grouping = true;
+
+        @JsonProperty("writeThreads")
+        private int writeThreads = 1;
+
+        @JsonProperty("compareThreads")
+        private int compareThreads = 1;
+
+        @JsonProperty("parseThreads")
+        private int parseThreads = 1;
+
+        @JsonProperty("fhirStreaming")
+        private boolean fhirStreaming = false;
+
+        @JsonProperty("inputCacheDir")
+        private String inputCacheDir = System.getProperty("user.home") + File.separator + ".levi-input-cache";
+
+        @JsonProperty("termRules")
+        private Map<String, List<TermRule>> termRules = new LinkedHashMap<>();
         
         public String getCountryCode() {
             return countryCode;
@@ -155,6 +279,54 @@ public class AppConfig {
         public void setGrouping(boolean grouping) {
             this.grouping = grouping;
         }
+
+        public int getWriteThreads() {
+            return writeThreads;
+        }
+
+        public void setWriteThreads(int writeThreads) {
+            this.writeThreads = writeThreads;
+        }
+
+        public int getCompareThreads() {
+            return compareThreads;
+        }
+
+        public void setCompareThreads(int compareThreads) {
+            this.compareThreads = compareThreads;
+        }
+
+        public int getParseThreads() {
+            return parseThreads;
+        }
+
+        public void setParseThreads(int parseThreads) {
+            this.parseThreads = parseThreads;
+        }
+
+        public boolean isFhirStreaming() {
+            return fhirStreaming;
+        }
+
+        public void setFhirStreaming(boolean fhirStreaming) {
+            this.fhirStreaming = fhirStreaming;
+        }
+
+        public String getInputCacheDir() {
+            return inputCacheDir;
+        }
+
+        public void setInputCacheDir(String inputCacheDir) {
+            this.inputCacheDir = inputCacheDir;
+        }
+
+        public Map<String, List<TermRule>> getTermRules() {
+            return termRules;
+        }
+
+        public void setTermRules(Map<String, List<TermRule>> termRules) {
+            this.termRules = termRules;
+        }
     }
     
     public static class Paths {
@@ -15,6 +15,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import ch.ehealth.levi.gui.model.AppConfig;
 import ch.ehealth.levi.gui.util.EncryptionUtil;
 import ch.ehealth.levi.core.Conf;
+import ch.ehealth.levi.core.compare.TermRuleEngine;
 
 /**
  * Service for managing application configuration
@@ -156,12 +157,27 @@ public class ConfigService {
         conf.setDbUrl(currentConfig.getDatabase().getUrl());
         conf.setDbUsername(currentConfig.getDatabase().getUsername());
         conf.setDbPassword(currentConfig.getDatabase().getPassword());
+        conf.setDbPoolSize(currentConfig.getDatabase().getPoolSize());
+        conf.setDbPoolIdleTimeoutSeconds(currentConfig.getDatabase().getPoolIdleTimeoutSeconds());
+        conf.setDbValidationTimeoutSeconds(currentConfig.getDatabase().getValidationTimeoutSeconds());
+        conf.setDbFetchSize(currentConfig.getDatabase().getFetchSize());
+        conf.setUseSnapshotTables(currentConfig.getDatabase().isUseSnapshotTables());
+        conf.setDbQueryShards(currentConfig.getDatabase().getQueryShards());
+        conf.setDbPipelined(currentConfig.getDatabase().isPipelined());
+        conf.setDbBulkLoad(currentConfig.getDatabase().isBulkLoad());
+        conf.setDbSharedExtract(currentConfig.getDatabase().isSharedExtract());
         
         // Settings
         conf.setCountryCode(currentConfig.getSettings().getCountryCode());
         conf.setTransformEszett(currentConfig.getSettings().isTransformEszett());
         conf.setRegexCheck(currentConfig.getSettings().isRegexCheck());
         conf.setGroupingEnabled(currentConfig.getSettings().isGrouping());
+        conf.setWriteThreads(currentConfig.getSettings().getWriteThreads());
+        conf.setCompareThreads(currentConfig.getSettings().getCompareThreads());
+        conf.setParseThreads(currentConfig.getSettings().getParseThreads());
+        conf.setFhirStreaming(currentConfig.getSettings().isFhirStreaming());
+        conf.setInputCacheDir(currentConfig.getSettings().getInputCacheDir());
+        conf.setTermRules(currentConfig.getSettings().getTermRules());
         
         // Paths
         conf.setFilePathCurrent(currentConfig.getPaths().getCurrentFile());
@@ -189,6 +205,14 @@ public class ConfigService {
             return "Output directory is required";
         }
         
+        if (currentConfig.getSettings().getTermRules() != null) {
+            try {
+                new TermRuleEngine(currentConfig.getSettings().getTermRules());
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+        }
+        
         // Check if current file exists
         File currentFile = new File(currentConfig.getPaths().getCurrentFile());
         if (!currentFile.exists()) {
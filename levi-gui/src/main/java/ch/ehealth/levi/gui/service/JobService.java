@@ -5,6 +5,7 @@ import javafx.concurrent.Task;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ch.ehealth.levi.core.compare.CompareManager;
+import ch.ehealth.levi.core.compare.SessionDataset;
 import ch.ehealth.levi.core.Conf;
 
 /**
@@ -14,10 +15,35 @@ public class JobService {
     
     private static final Logger logger = LoggerFactory.getLogger(JobService.class);
     
+    // Input rows and DB extracts shared by the jobs of the running queue, null outside a queue run
+    private volatile SessionDataset session;
+    
+    /**
+     * Starts a session: tasks created until {@link #endSession()} load each
+     * input file and DB extract at most once and share them. Every job still
+     * writes its own, isolated outputs.
+     */
+    public void startSession(Conf conf) {
+        endSession();
+        session = new SessionDataset(conf);
+    }
+    
+    /**
+     * Ends the current session and releases its data.
+     */
+    public void endSession() {
+        SessionDataset ended = session;
+        session = null;
+        if (ended != null) {
+            ended.clear();
+        }
+    }
+    
     /**
      * Creates a task for running translation overview
      */
     public Task<JobResult> createOverviewTask(Conf conf) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -28,7 +54,7 @@ public class JobService {
                 JobResult result = new JobResult("overview");
                 
                 try {
-                    CompareManager manager = new CompareManager(conf);
+                    CompareManager manager = new CompareManager(conf, dataset);
                     updateMessage("Reading file...");
                     updateProgress(30, 100);
                     
@@ -58,6 +84,7 @@ public class JobService {
      * Creates a task for running description additions
      */
     public Task<JobResult> createDescAdditionsTask(Conf conf) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -68,7 +95,7 @@ public class JobService {
                 JobResult result = new JobResult("desc-add");
                 
                 try {
-                    CompareManager manager = new CompareManager(conf);
+                    CompareManager manager = new CompareManager(conf, dataset);
                     updateMessage("Reading file...");
                     updateProgress(30, 100);
                     
@@ -101,6 +128,7 @@ public class JobService {
      * Creates a task for running description inactivations
      */
     public Task<JobResult> createDescInactivationsTask(Conf conf) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -111,7 +139,7 @@ public class JobService {
                 JobResult result = new JobResult("desc-inact");
                 
                 try {
-                    CompareManager manager = new CompareManager(conf);
+                    CompareManager manager = new CompareManager(conf, dataset);
                     updateMessage("Reading file...");
                     updateProgress(30, 100);
                     
@@ -143,6 +171,7 @@ public class JobService {
      * Creates a task for running full delta generation
      */
     public Task<JobResult> createTranslateDeltaTask(Conf conf) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -153,7 +182,7 @@ public class JobService {
                 JobResult result = new JobResult("translate-delta");
                 
                 try {
-                    CompareManager manager = new CompareManager(conf);
+                    CompareManager manager = new CompareManager(conf, dataset);
                     updateMessage("Reading file...");
                     updateProgress(20, 100);
                     
@@ -188,6 +217,7 @@ public class JobService {
      * Creates a task for running eszett check
      */
     public Task<JobResult> createEszettCheckTask(Conf conf) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -198,7 +228,7 @@ public class JobService {
                 JobResult result = new JobResult("eszett-check");
                 
                 try {
-                    CompareManager manager = new CompareManager(conf);
+                    CompareManager manager = new CompareManager(conf, dataset);
                     updateMessage("Checking eszett in extension...");
                     updateProgress(50, 100);
                     
@@ -237,6 +267,7 @@ public class JobService {
      * the previous file is loaded, avoiding a redundant second pass over the large XLS.
      */
     public Task<JobResult> createNotPublishedTask(Conf conf, CompareManager preloadedManager) {
+        SessionDataset dataset = session;
         return new Task<JobResult>() {
             @Override
             protected JobResult call() throws Exception {
@@ -256,7 +287,7 @@ public class JobService {
                             conf.getDestination()
                         );
                     } else {
-                        CompareManager manager = new CompareManager(conf);
+                        CompareManager manager = new CompareManager(conf, dataset);
                         updateMessage("Reading current file...");
                         updateProgress(30, 100);
                         updateMessage("Reading previous file...");